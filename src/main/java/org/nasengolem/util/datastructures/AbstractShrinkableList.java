@@ -50,7 +50,7 @@ public abstract class AbstractShrinkableList<E> extends AbstractList<E>
     @Override
     protected void removeRange(int fromIndex, int toIndex) {
         if (toIndex == size()) {
-            Objects.checkIndex(fromIndex, size());
+            Objects.checkFromToIndex(fromIndex, toIndex, size());
             shrink(fromIndex);
         } else {
             super.removeRange(fromIndex, toIndex);
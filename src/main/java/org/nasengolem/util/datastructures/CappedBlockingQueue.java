@@ -0,0 +1,667 @@
+package org.nasengolem.util.datastructures;
+
+import java.util.AbstractQueue;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Predicate;
+
+/**
+ * Bounded {@link BlockingQueue} backed by a ring buffer with a fixed capacity. The queue is meant for producer/consumer
+ * pipelines that process their elements in batches: {@link #drainTo(CappedList, int)} moves a whole batch into a
+ * {@link CappedList} with at most two {@code System.arraycopy} calls, and {@link #awaitBatch(int, long, TimeUnit)}
+ * lets a consumer wait until enough elements for a batch are available.
+ *
+ * <p>Like {@link java.util.concurrent.LinkedBlockingQueue}, the queue uses separate locks for the producer and the
+ * consumer side, so producers and consumers never contend with each other. Both sides only share the atomic element
+ * count. If there is only a single producer or a single consumer, the {@link Mode} allows to skip the lock of that
+ * side on the non-blocking fast paths. The locks are still used to wait and to signal waiting threads.
+ *
+ * <p>All operations that remove or inspect elements, including {@code peek}, {@code remove(Object)},
+ * {@code removeIf}, {@code removeAll}, {@code retainAll}, {@code clear} and {@code iterator}, belong to the consumer
+ * side. In the single-consumer modes they must only be called by the consumer thread. The iterator works on a snapshot
+ * of the queue and does not support {@code remove}. The bulk removal methods are implemented directly instead.
+ *
+ * <p>This queue does not permit {@code null} elements.
+ *
+ * @param <E> the type of the elements in this queue
+ * @author Paul Steinbach
+ * @see CappedList
+ */
+public class CappedBlockingQueue<E> extends AbstractQueue<E> implements BlockingQueue<E> {
+
+    private static final String ILLEGAL_CAPACITY_MESSAGE = "Illegal capacity of %d. The capacity must be positive.";
+    private static final String ILLEGAL_BATCH_SIZE_MESSAGE = "Illegal minSize of %d for a capacity of %d. The minSize "
+        + "must be positive and must not exceed the capacity.";
+    private static final String FULL_QUEUE_MESSAGE = "Can't add the element '%s' to the queue, since it is full.";
+    private static final String SELF_DRAIN_MESSAGE = "Can't drain a queue to itself.";
+
+    /**
+     * Determines which sides of the queue may be used by several threads concurrently.
+     */
+    public enum Mode {
+        /**
+         * Any number of threads may produce and consume elements.
+         */
+        MPMC,
+        /**
+         * Any number of threads may produce elements, but only a single thread consumes them. The consumer skips
+         * the consumer lock on its non-blocking operations.
+         */
+        MPSC,
+        /**
+         * Only a single thread produces and a single thread consumes elements. Both skip their lock on their
+         * non-blocking operations.
+         */
+        SPSC
+    }
+
+    private final Object[] items;
+    private final Mode mode;
+    private final AtomicInteger count = new AtomicInteger();
+
+    private final ReentrantLock takeLock = new ReentrantLock();
+    private final Condition notEmpty = takeLock.newCondition();
+    private final ReentrantLock putLock = new ReentrantLock();
+    private final Condition notFull = putLock.newCondition();
+
+    /**
+     * The smallest batch size any consumer is waiting for, or {@code Integer.MAX_VALUE} if no consumer waits for a
+     * batch.
+     */
+    private volatile int batchThreshold = Integer.MAX_VALUE;
+    private int batchWaiters;
+
+    private int head;
+    private int tail;
+
+    /**
+     * Constructs a new empty {@code CappedBlockingQueue} in {@link Mode#MPMC} mode.
+     *
+     * @param capacity the capacity defining the maximum number of elements the queue can store
+     * @throws IllegalArgumentException if the capacity is not positive
+     */
+    public CappedBlockingQueue(int capacity) {
+        this(capacity, Mode.MPMC);
+    }
+
+    /**
+     * Constructs a new empty {@code CappedBlockingQueue} in the given mode.
+     *
+     * @param capacity the capacity defining the maximum number of elements the queue can store
+     * @param mode     the number of producer and consumer threads the queue supports
+     * @throws IllegalArgumentException if the capacity is not positive
+     * @throws NullPointerException     if the mode is null
+     */
+    public CappedBlockingQueue(int capacity, Mode mode) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException(ILLEGAL_CAPACITY_MESSAGE.formatted(capacity));
+        }
+        this.items = new Object[capacity];
+        this.mode = Objects.requireNonNull(mode);
+    }
+
+    private void lockProducer() {
+        if (mode != Mode.SPSC) {
+            putLock.lock();
+        }
+    }
+
+    private void unlockProducer() {
+        if (mode != Mode.SPSC) {
+            putLock.unlock();
+        }
+    }
+
+    private void lockConsumer() {
+        if (mode == Mode.MPMC) {
+            takeLock.lock();
+        }
+    }
+
+    private void unlockConsumer() {
+        if (mode == Mode.MPMC) {
+            takeLock.unlock();
+        }
+    }
+
+    private void enqueue(E element) {
+        items[tail] = element;
+        if (++tail == items.length) {
+            tail = 0;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private E dequeue() {
+        E element = (E) items[head];
+        items[head] = null;
+        if (++head == items.length) {
+            head = 0;
+        }
+        return element;
+    }
+
+    /**
+     * Releases the given number of elements at the head of the ring buffer.
+     */
+    private void advanceHead(int n) {
+        int first = Math.min(n, items.length - head);
+        Arrays.fill(items, head, head + first, null);
+        Arrays.fill(items, 0, n - first, null);
+        head += n;
+        if (head >= items.length) {
+            head -= items.length;
+        }
+    }
+
+    /**
+     * Signals waiting consumers after an element was added to a queue that held {@code oldCount} elements.
+     */
+    private void afterEnqueue(int oldCount) {
+        int threshold = batchThreshold;
+        if (oldCount == 0 || oldCount + 1 >= threshold) {
+            takeLock.lock();
+            try {
+                if (threshold == Integer.MAX_VALUE) {
+                    notEmpty.signal();
+                } else {
+                    notEmpty.signalAll();
+                }
+            } finally {
+                takeLock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Signals a waiting producer after elements were removed from a queue that held {@code oldCount} elements.
+     */
+    private void afterDequeue(int oldCount) {
+        if (oldCount == items.length) {
+            putLock.lock();
+            try {
+                notFull.signal();
+            } finally {
+                putLock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Inserts the specified element at the tail of this queue, if the queue is not full.
+     *
+     * @param element the element to add
+     * @return {@code true} if the element was added to this queue
+     * @throws IllegalStateException if the queue is full
+     * @throws NullPointerException  if the specified element is null
+     */
+    @Override
+    public boolean add(E element) {
+        if (!offer(element)) {
+            throw new IllegalStateException(FULL_QUEUE_MESSAGE.formatted(element));
+        }
+        return true;
+    }
+
+    @Override
+    public boolean offer(E element) {
+        Objects.requireNonNull(element);
+        if (count.get() == items.length) {
+            return false;
+        }
+        int oldCount = -1;
+        lockProducer();
+        try {
+            if (count.get() < items.length) {
+                enqueue(element);
+                oldCount = count.getAndIncrement();
+                if (mode != Mode.SPSC && oldCount + 1 < items.length) {
+                    notFull.signal();
+                }
+            }
+        } finally {
+            unlockProducer();
+        }
+        if (oldCount < 0) {
+            return false;
+        }
+        afterEnqueue(oldCount);
+        return true;
+    }
+
+    @Override
+    public void put(E element) throws InterruptedException {
+        Objects.requireNonNull(element);
+        int oldCount;
+        putLock.lockInterruptibly();
+        try {
+            while (count.get() == items.length) {
+                notFull.await();
+            }
+            enqueue(element);
+            oldCount = count.getAndIncrement();
+            if (oldCount + 1 < items.length) {
+                notFull.signal();
+            }
+        } finally {
+            putLock.unlock();
+        }
+        afterEnqueue(oldCount);
+    }
+
+    @Override
+    public boolean offer(E element, long timeout, TimeUnit unit) throws InterruptedException {
+        Objects.requireNonNull(element);
+        long nanos = unit.toNanos(timeout);
+        int oldCount;
+        putLock.lockInterruptibly();
+        try {
+            while (count.get() == items.length) {
+                if (nanos <= 0L) {
+                    return false;
+                }
+                nanos = notFull.awaitNanos(nanos);
+            }
+            enqueue(element);
+            oldCount = count.getAndIncrement();
+            if (oldCount + 1 < items.length) {
+                notFull.signal();
+            }
+        } finally {
+            putLock.unlock();
+        }
+        afterEnqueue(oldCount);
+        return true;
+    }
+
+    @Override
+    public E poll() {
+        if (count.get() == 0) {
+            return null;
+        }
+        E element = null;
+        int oldCount = -1;
+        lockConsumer();
+        try {
+            if (count.get() > 0) {
+                element = dequeue();
+                oldCount = count.getAndDecrement();
+                if (mode == Mode.MPMC && oldCount > 1) {
+                    notEmpty.signal();
+                }
+            }
+        } finally {
+            unlockConsumer();
+        }
+        afterDequeue(oldCount);
+        return element;
+    }
+
+    @Override
+    public E take() throws InterruptedException {
+        E element;
+        int oldCount;
+        takeLock.lockInterruptibly();
+        try {
+            while (count.get() == 0) {
+                notEmpty.await();
+            }
+            element = dequeue();
+            oldCount = count.getAndDecrement();
+            if (oldCount > 1) {
+                notEmpty.signal();
+            }
+        } finally {
+            takeLock.unlock();
+        }
+        afterDequeue(oldCount);
+        return element;
+    }
+
+    @Override
+    public E poll(long timeout, TimeUnit unit) throws InterruptedException {
+        long nanos = unit.toNanos(timeout);
+        E element;
+        int oldCount;
+        takeLock.lockInterruptibly();
+        try {
+            while (count.get() == 0) {
+                if (nanos <= 0L) {
+                    return null;
+                }
+                nanos = notEmpty.awaitNanos(nanos);
+            }
+            element = dequeue();
+            oldCount = count.getAndDecrement();
+            if (oldCount > 1) {
+                notEmpty.signal();
+            }
+        } finally {
+            takeLock.unlock();
+        }
+        afterDequeue(oldCount);
+        return element;
+    }
+
+    /**
+     * Waits until this queue contains at least {@code minSize} elements, or until the timeout elapses. Producers
+     * only wake the waiting consumer once the batch is complete, so the consumer is not woken for every single
+     * element.
+     *
+     * @param minSize the number of elements to wait for
+     * @param timeout how long to wait before giving up, in units of {@code unit}
+     * @param unit    the unit of the {@code timeout} argument
+     * @return the number of elements in this queue, which is less than {@code minSize} if the timeout elapsed
+     * @throws IllegalArgumentException if {@code minSize} is not positive or exceeds the capacity
+     * @throws InterruptedException     if interrupted while waiting
+     */
+    public int awaitBatch(int minSize, long timeout, TimeUnit unit) throws InterruptedException {
+        if (minSize <= 0 || minSize > items.length) {
+            throw new IllegalArgumentException(ILLEGAL_BATCH_SIZE_MESSAGE.formatted(minSize, items.length));
+        }
+        int size = count.get();
+        if (size >= minSize) {
+            return size;
+        }
+        long nanos = unit.toNanos(timeout);
+        takeLock.lockInterruptibly();
+        try {
+            batchWaiters++;
+            batchThreshold = Math.min(batchThreshold, minSize);
+            try {
+                while ((size = count.get()) < minSize && nanos > 0L) {
+                    nanos = notEmpty.awaitNanos(nanos);
+                }
+            } finally {
+                if (--batchWaiters == 0) {
+                    batchThreshold = Integer.MAX_VALUE;
+                }
+            }
+            return size;
+        } finally {
+            takeLock.unlock();
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public E peek() {
+        lockConsumer();
+        try {
+            return count.get() > 0 ? (E) items[head] : null;
+        } finally {
+            unlockConsumer();
+        }
+    }
+
+    /**
+     * Removes the first occurrence of the specified element from this queue. The elements in front of the removed
+     * element are moved by one position, so this operation runs in linear time.
+     *
+     * @param o element to be removed from this queue, if present
+     * @return {@code true} if this queue changed as a result of the call
+     */
+    @Override
+    public boolean remove(Object o) {
+        if (o == null) {
+            return false;
+        }
+        int oldCount = -1;
+        lockConsumer();
+        try {
+            int size = count.get();
+            for (int i = 0, index = head; i < size; i++) {
+                if (o.equals(items[index])) {
+                    while (index != head) {
+                        int previous = index == 0 ? items.length - 1 : index - 1;
+                        items[index] = items[previous];
+                        index = previous;
+                    }
+                    dequeue();
+                    oldCount = count.getAndDecrement();
+                    break;
+                }
+                if (++index == items.length) {
+                    index = 0;
+                }
+            }
+        } finally {
+            unlockConsumer();
+        }
+        if (oldCount < 0) {
+            return false;
+        }
+        afterDequeue(oldCount);
+        return true;
+    }
+
+    /**
+     * Removes all elements of this queue that satisfy the given predicate. The predicate is evaluated for all elements
+     * first, so the queue is left unchanged if it throws. The remaining elements are then compacted towards the tail in
+     * a single pass, which producers can run concurrently with, since they only write behind the tail.
+     *
+     * @param filter a predicate which returns {@code true} for elements to be removed
+     * @return {@code true} if any elements were removed
+     * @throws NullPointerException if the filter is null
+     */
+    @Override
+    public boolean removeIf(Predicate<? super E> filter) {
+        Objects.requireNonNull(filter);
+        int removed;
+        int oldCount;
+        lockConsumer();
+        try {
+            removed = removeMatching(filter);
+            if (removed == 0) {
+                return false;
+            }
+            oldCount = count.getAndAdd(-removed);
+        } finally {
+            unlockConsumer();
+        }
+        afterDequeue(oldCount);
+        return true;
+    }
+
+    @Override
+    public boolean removeAll(Collection<?> c) {
+        Objects.requireNonNull(c);
+        return removeIf(c::contains);
+    }
+
+    @Override
+    public boolean retainAll(Collection<?> c) {
+        Objects.requireNonNull(c);
+        return removeIf(element -> !c.contains(element));
+    }
+
+    /**
+     * Removes the matching elements by moving the remaining ones towards the tail and advancing the head. Must be
+     * called by the consumer, which also has to update the count.
+     *
+     * @return the number of removed elements
+     */
+    @SuppressWarnings("unchecked")
+    private int removeMatching(Predicate<? super E> filter) {
+        int size = count.get();
+        boolean[] matches = new boolean[size];
+        int removed = 0;
+        for (int i = 0, index = head; i < size; i++) {
+            if (filter.test((E) items[index])) {
+                matches[i] = true;
+                removed++;
+            }
+            if (++index == items.length) {
+                index = 0;
+            }
+        }
+        if (removed == 0) {
+            return 0;
+        }
+        int target = size - 1;
+        for (int i = size - 1; i >= 0; i--) {
+            if (!matches[i]) {
+                if (target != i) {
+                    items[(head + target) % items.length] = items[(head + i) % items.length];
+                }
+                target--;
+            }
+        }
+        advanceHead(removed);
+        return removed;
+    }
+
+    /**
+     * Removes all elements from this queue.
+     */
+    @Override
+    public void clear() {
+        int oldCount;
+        lockConsumer();
+        try {
+            int size = count.get();
+            advanceHead(size);
+            oldCount = count.getAndAdd(-size);
+        } finally {
+            unlockConsumer();
+        }
+        afterDequeue(oldCount);
+    }
+
+    /**
+     * Moves up to {@code maxElements} elements from this queue to the end of the given list. The elements are
+     * copied with at most two {@code System.arraycopy} calls. No more elements are moved than fit into the list.
+     *
+     * @param list        the list to transfer the elements to
+     * @param maxElements the maximum number of elements to transfer
+     * @return the number of elements transferred
+     * @throws NullPointerException if the list is null
+     */
+    public int drainTo(CappedList<? super E> list, int maxElements) {
+        Objects.requireNonNull(list);
+        int n;
+        int oldCount;
+        lockConsumer();
+        try {
+            n = Math.min(Math.min(maxElements, count.get()), list.capacity() - list.size());
+            if (n <= 0) {
+                return 0;
+            }
+            int first = Math.min(n, items.length - head);
+            list.appendAll(items, head, first);
+            list.appendAll(items, 0, n - first);
+            advanceHead(n);
+            oldCount = count.getAndAdd(-n);
+            if (mode == Mode.MPMC && oldCount > n) {
+                notEmpty.signal();
+            }
+        } finally {
+            unlockConsumer();
+        }
+        afterDequeue(oldCount);
+        return n;
+    }
+
+    /**
+     * Moves all elements from this queue to the end of the given list, as long as they fit into the list.
+     *
+     * @param list the list to transfer the elements to
+     * @return the number of elements transferred
+     * @throws NullPointerException if the list is null
+     * @see #drainTo(CappedList, int)
+     */
+    public int drainTo(CappedList<? super E> list) {
+        return drainTo(list, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public int drainTo(Collection<? super E> c) {
+        return drainTo(c, Integer.MAX_VALUE);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public int drainTo(Collection<? super E> c, int maxElements) {
+        Objects.requireNonNull(c);
+        if (c == this) {
+            throw new IllegalArgumentException(SELF_DRAIN_MESSAGE);
+        }
+        if (c instanceof CappedList<?> list) {
+            return drainTo((CappedList<? super E>) list, maxElements);
+        }
+        int i = 0;
+        int oldCount = -1;
+        try {
+            lockConsumer();
+            try {
+                int n = Math.min(maxElements, count.get());
+                for (; i < n; i++) {
+                    c.add((E) items[head]);
+                    dequeue();
+                }
+            } finally {
+                if (i > 0) {
+                    oldCount = count.getAndAdd(-i);
+                }
+                unlockConsumer();
+            }
+        } finally {
+            afterDequeue(oldCount);
+        }
+        return i;
+    }
+
+    /**
+     * Returns an iterator over a snapshot of the elements in this queue, in the order from head to tail. The iterator
+     * does not support {@code remove}. Use {@link #removeIf(Predicate)} instead.
+     *
+     * @return an iterator over the elements in this queue
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public Iterator<E> iterator() {
+        Object[] snapshot;
+        lockConsumer();
+        try {
+            snapshot = new Object[count.get()];
+            int first = Math.min(snapshot.length, items.length - head);
+            System.arraycopy(items, head,
+                snapshot, 0,
+                first
+            );
+            System.arraycopy(items, 0,
+                snapshot, first,
+                snapshot.length - first
+            );
+        } finally {
+            unlockConsumer();
+        }
+        return Arrays.asList((E[]) snapshot).iterator();
+    }
+
+    @Override
+    public int size() {
+        return count.get();
+    }
+
+    @Override
+    public int remainingCapacity() {
+        return items.length - count.get();
+    }
+
+    /**
+     * Gets the capacity of this queue. The capacity is the maximum number of elements this queue can store.
+     *
+     * @return the capacity of this queue
+     */
+    public int capacity() {
+        return items.length;
+    }
+}
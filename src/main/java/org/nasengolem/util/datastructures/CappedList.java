@@ -1,6 +1,7 @@
 package org.nasengolem.util.datastructures;
 
 
+import java.util.AbstractList;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
@@ -19,6 +20,13 @@ import java.util.RandomAccess;
  * <p> Some use cases for this list are datastructures that are limited
  * due to real-world constraints or datastructures that get (partially) cleared on a regular basis.
  *
+ * <p> The method {@link #snapshot()} returns an immutable view of the current elements in constant time. The view
+ * shares the backing array with the list until the list overwrites one of the elements visible through the view. Only
+ * then is the array copied. Appending elements never causes a copy, so a single writer can keep appending while
+ * readers on other threads work with consistent snapshots, without any locking.
+ *
+ * <p> Rejected additions, element shifts and shrinks can be monitored with the opt-in {@link ListInstrumentation}.
+ *
  * @param <E> the type of the elements in this list
  * @author Paul Steinbach
  * @see Collection
@@ -40,9 +48,15 @@ public class CappedList<E> extends AbstractShrinkableList<E>
     private static final String TOO_MANY_ELEMENTS_MESSAGE = "Can't add all elements from the collection to the list, "
         + "since the current size of %d plus the collection size of %d exceed the capacity of %d.";
 
-    private final E[] elements;
+    private E[] elements;
     private int size;
 
+    /**
+     * The number of elements of {@link #elements} that are visible through snapshots. These elements must not be
+     * overwritten.
+     */
+    private int sharedSize;
+
     /**
      * Constructs a new {@code CappedResizableList} with the specified capacity.
      *
@@ -87,6 +101,17 @@ public class CappedList<E> extends AbstractShrinkableList<E>
         addAll(collection);
     }
 
+    /**
+     * Must be called before the elements from {@code fromIndex} on are overwritten. Copies the backing array if these
+     * elements are visible through a snapshot.
+     */
+    private void prepareWrite(int fromIndex) {
+        if (fromIndex < sharedSize) {
+            elements = Arrays.copyOf(elements, elements.length);
+            sharedSize = 0;
+        }
+    }
+
     /**
      * {@inheritDoc}
      *
@@ -99,6 +124,9 @@ public class CappedList<E> extends AbstractShrinkableList<E>
         } else if (newSize > size) {
             throw new IllegalArgumentException(SIZE_TOO_LARGE_MESSAGE.formatted(newSize, size));
         }
+        if (ListInstrumentation.ENABLED) {
+            ListInstrumentation.recordShrink(size, newSize);
+        }
         return size = newSize;
     }
 
@@ -126,6 +154,7 @@ public class CappedList<E> extends AbstractShrinkableList<E>
     @Override
     public E set(int index, E element) {
         Objects.checkIndex(index, size);
+        prepareWrite(index);
         E oldElement = elements[index];
         elements[index] = element;
         return oldElement;
@@ -152,21 +181,34 @@ public class CappedList<E> extends AbstractShrinkableList<E>
     @Override
     public void add(int index, E element) {
         if (size == capacity()) {
+            if (ListInstrumentation.ENABLED) {
+                ListInstrumentation.recordFullRejection(capacity());
+            }
             throw new IllegalStateException(FULL_LIST_MESSAGE.formatted(element));
         }
         Objects.checkIndex(index, size + 1);
+        prepareWrite(index);
+        boolean shifts = index < size;
+        long start = ListInstrumentation.ENABLED && shifts ? System.nanoTime() : 0L;
         System.arraycopy(elements, index,
             elements, index + 1,
             size - index
         );
         elements[index] = element;
         size++;
+        if (ListInstrumentation.ENABLED) {
+            if (shifts) {
+                ListInstrumentation.recordShift(size - index - 1, start);
+            }
+            ListInstrumentation.recordOccupancy(size, capacity());
+        }
     }
 
     /**
      * Inserts all elements of the specified collection into this list, starting at the specified position. Shifts the element currently at
      * that position (if any) and any subsequent elements to the right (increases their indices). The new elements will appear in the list
-     * in the order that they are returned by the specified collection's iterator.
+     * in the order that they are returned by the specified collection's iterator. The elements of another
+     * {@code CappedList} are copied straight from its backing array.
      *
      * @param index index at which to insert the first element from the specified collection
      * @param c     collection containing elements to be added to this list
@@ -180,28 +222,50 @@ public class CappedList<E> extends AbstractShrinkableList<E>
         Objects.requireNonNull(c);
         Objects.checkIndex(index, size + 1);
 
-        @SuppressWarnings("unchecked")
-        E[] arr = (E[]) c.toArray();
+        Object[] arr;
+        int length;
+        if (c != this && c.getClass() == CappedList.class) {
+            CappedList<?> other = (CappedList<?>) c;
+            arr = other.elements;
+            length = other.size;
+        } else {
+            arr = c.toArray();
+            length = arr.length;
+        }
 
-        if (arr.length == 0) {
+        if (length == 0) {
             return false;
         }
 
-        if (size + arr.length > capacity()) {
-            throw new IllegalStateException(TOO_MANY_ELEMENTS_MESSAGE.formatted(size, arr.length, capacity()));
+        if (size + length > capacity()) {
+            if (ListInstrumentation.ENABLED) {
+                ListInstrumentation.recordFullRejection(capacity());
+            }
+            throw new IllegalStateException(TOO_MANY_ELEMENTS_MESSAGE.formatted(size, length, capacity()));
         }
 
+        prepareWrite(index);
+
+        boolean shifts = index < size;
+        long start = ListInstrumentation.ENABLED && shifts ? System.nanoTime() : 0L;
         System.arraycopy(elements, index,
-            elements, index + arr.length,
+            elements, index + length,
             size - index
         );
 
         System.arraycopy(arr, 0,
             elements, index,
-            arr.length
+            length
         );
 
-        size += arr.length;
+        size += length;
+
+        if (ListInstrumentation.ENABLED) {
+            if (shifts) {
+                ListInstrumentation.recordShift(size - index - length, start);
+            }
+            ListInstrumentation.recordOccupancy(size, capacity());
+        }
 
         return true;
     }
@@ -231,15 +295,45 @@ public class CappedList<E> extends AbstractShrinkableList<E>
     @Override
     public E remove(int index) {
         Objects.checkIndex(index, size);
+        prepareWrite(index);
         E removedElement = elements[index];
+        boolean shifts = index < size - 1;
+        long start = ListInstrumentation.ENABLED && shifts ? System.nanoTime() : 0L;
         System.arraycopy(elements, index + 1,
             elements, index,
             size - index - 1
         );
         size--;
+        if (ListInstrumentation.ENABLED && shifts) {
+            ListInstrumentation.recordShift(size - index, start);
+        }
         return removedElement;
     }
 
+    /**
+     * Appends a range of the given array to the end of this list with a single {@code System.arraycopy}. The caller
+     * must ensure that the range only contains elements of type {@code E}.
+     *
+     * @throws IllegalStateException if the list would exceed its capacity
+     */
+    void appendAll(Object[] source, int sourceIndex, int length) {
+        if (size + length > capacity()) {
+            if (ListInstrumentation.ENABLED) {
+                ListInstrumentation.recordFullRejection(capacity());
+            }
+            throw new IllegalStateException(TOO_MANY_ELEMENTS_MESSAGE.formatted(size, length, capacity()));
+        }
+        prepareWrite(size);
+        System.arraycopy(source, sourceIndex,
+            elements, size,
+            length
+        );
+        size += length;
+        if (ListInstrumentation.ENABLED) {
+            ListInstrumentation.recordOccupancy(size, capacity());
+        }
+    }
+
     /**
      * Gets the capacity of this list. The capacity is the maximum number of elements this list can store.
      *
@@ -248,4 +342,43 @@ public class CappedList<E> extends AbstractShrinkableList<E>
     public int capacity() {
         return elements.length;
     }
-}
\ No newline at end of file
+
+    /**
+     * Returns an immutable view of the elements currently in this list. This method runs in constant time.
+     *
+     * <p>The view is not affected by later modifications of this list. It shares the backing array with this list
+     * until this list overwrites an element that is visible through the view, either directly or after a
+     * {@link #shrink(int)}. At that point, this list copies its backing array once. Appending elements to this list
+     * doesn't overwrite any visible element and therefore never causes a copy.
+     *
+     * <p>The view may be handed to other threads. The elements visible through it are guaranteed to be visible to any
+     * thread that obtains a reference to the view.
+     *
+     * @return an immutable {@code RandomAccess} view of the current elements
+     */
+    public List<E> snapshot() {
+        sharedSize = Math.max(sharedSize, size);
+        return new Snapshot<>(elements, size);
+    }
+
+    private static final class Snapshot<E> extends AbstractList<E> implements RandomAccess {
+        private final E[] elements;
+        private final int size;
+
+        private Snapshot(E[] elements, int size) {
+            this.elements = elements;
+            this.size = size;
+        }
+
+        @Override
+        public E get(int index) {
+            Objects.checkIndex(index, size);
+            return elements[index];
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+}
@@ -0,0 +1,275 @@
+package org.nasengolem.util.datastructures;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.RandomAccess;
+
+/**
+ * Random-Access {@code List} implementation with a fixed capacity, that is optimized for local insertions and
+ * removals. Like a {@link CappedList}, the list can never store more elements than its capacity and throws an
+ * {@code IllegalStateException} if elements are added to a full list.
+ *
+ * <p>The free capacity of the list is kept as a <i>gap</i> inside the backing array, which follows the position of
+ * the last insertion or removal. The elements in front of the gap are stored at the start of the array, the elements
+ * behind the gap right after it:
+ *
+ * <pre>
+ *      [ e0 e1 e2 | . . . . | e3 e4 ] . .
+ *                 gapStart  gapEnd   end
+ * </pre>
+ *
+ * <p>Inserting or removing an element at the gap runs in constant time. Moving the gap to another index costs a
+ * single {@code System.arraycopy} of the elements between the old and the new position, so a sequence of edits close
+ * to each other, like typing and deleting at a cursor, runs in amortized constant time per edit. The operations
+ * {@code get}, {@code set} and {@code size} always run in constant time, and {@link #shrink(int)} truncates the list
+ * in constant time without moving any elements.
+ *
+ * @param <E> the type of the elements in this list
+ * @author Paul Steinbach
+ * @see CappedList
+ */
+public class GapCappedList<E> extends AbstractShrinkableList<E>
+    implements List<E>, RandomAccess, Shrinkable {
+
+    private static final String NEGATIVE_CAPACITY_MESSAGE = "Illegal capacity of %d. The capacity must be non-negative.";
+    private static final String NEGATIVE_RESIZE_MESSAGE = "Illegal newSize of %d. The newSize must be non-negative.";
+    private static final String SIZE_TOO_LARGE_MESSAGE = "Illegal newSize of %d for an original size of %d."
+        + " The newSize must be at least as small as the original size.";
+    private static final String FULL_LIST_MESSAGE = "Can't add the element '%s' to the list, since it is full.";
+    private static final String TOO_MANY_ELEMENTS_MESSAGE = "Can't add all elements from the collection to the list, "
+        + "since the current size of %d plus the collection size of %d exceed the capacity of %d.";
+
+    private final E[] elements;
+    private int gapStart;
+    private int gapEnd;
+    private int end;
+
+    /**
+     * Constructs a new empty {@code GapCappedList} with the given capacity.
+     *
+     * @param capacity the capacity defining the maximum number of elements the list can store
+     * @throws IllegalArgumentException if the capacity is negative
+     */
+    @SuppressWarnings("unchecked")
+    public GapCappedList(int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException(NEGATIVE_CAPACITY_MESSAGE.formatted(capacity));
+        }
+        this.elements = (E[]) new Object[capacity];
+        this.gapStart = 0;
+        this.gapEnd = capacity;
+        this.end = capacity;
+    }
+
+    /**
+     * Returns the index in the backing array of the element at the given list index.
+     */
+    private int physicalIndex(int index) {
+        return index < gapStart ? index : index + gapEnd - gapStart;
+    }
+
+    /**
+     * Moves the gap, so that it starts at the given list index.
+     */
+    private void moveGap(int index) {
+        if (index < gapStart) {
+            int distance = gapStart - index;
+            System.arraycopy(elements, index,
+                elements, gapEnd - distance,
+                distance
+            );
+            gapStart -= distance;
+            gapEnd -= distance;
+        } else if (index > gapStart) {
+            int distance = index - gapStart;
+            System.arraycopy(elements, gapEnd,
+                elements, gapStart,
+                distance
+            );
+            gapStart += distance;
+            gapEnd += distance;
+        }
+    }
+
+    /**
+     * Makes sure that the gap can hold at least the given number of elements, by merging the free capacity behind
+     * the last element into the gap. The caller must check that the list has enough free capacity.
+     */
+    private void ensureGap(int length) {
+        if (gapEnd - gapStart < length) {
+            int tailLength = end - gapEnd;
+            int newGapEnd = elements.length - tailLength;
+            System.arraycopy(elements, gapEnd,
+                elements, newGapEnd,
+                tailLength
+            );
+            gapEnd = newGapEnd;
+            end = elements.length;
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws IllegalArgumentException {@inheritDoc}
+     */
+    @Override
+    public int shrink(int newSize) {
+        int oldSize = size();
+        if (newSize < 0) {
+            throw new IllegalArgumentException(NEGATIVE_RESIZE_MESSAGE.formatted(newSize));
+        } else if (newSize > oldSize) {
+            throw new IllegalArgumentException(SIZE_TOO_LARGE_MESSAGE.formatted(newSize, oldSize));
+        }
+        if (newSize >= gapStart) {
+            end -= oldSize - newSize;
+        } else {
+            gapStart = newSize;
+            end = gapEnd;
+        }
+        return oldSize;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws IndexOutOfBoundsException {@inheritDoc}
+     */
+    @Override
+    public E get(int index) {
+        Objects.checkIndex(index, size());
+        return elements[physicalIndex(index)];
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @return the number of elements in this list
+     */
+    @Override
+    public int size() {
+        return gapStart + end - gapEnd;
+    }
+
+    @Override
+    public E set(int index, E element) {
+        Objects.checkIndex(index, size());
+        int physicalIndex = physicalIndex(index);
+        E oldElement = elements[physicalIndex];
+        elements[physicalIndex] = element;
+        return oldElement;
+    }
+
+    /**
+     * Returns {@code true} if this list is full. This means that no further elements can be added.
+     *
+     * @return {@code true} if this collection if full. This implementation returns {@code size() == capacity()}.
+     */
+    public boolean isFull() {
+        return size() == capacity();
+    }
+
+    /**
+     * Inserts the specified element at the specified position in this list, if the list is not full already. The
+     * element currently at that position (if any) and any subsequent elements will then be shifted to the right (adds
+     * one to their indices). The gap is moved to the position after the inserted element.
+     *
+     * @param index   index at which the specified element is to be inserted
+     * @param element element to be inserted
+     * @throws IndexOutOfBoundsException {@inheritDoc}
+     * @throws IllegalStateException     if the list reached its capacity
+     */
+    @Override
+    public void add(int index, E element) {
+        if (isFull()) {
+            throw new IllegalStateException(FULL_LIST_MESSAGE.formatted(element));
+        }
+        Objects.checkIndex(index, size() + 1);
+        moveGap(index);
+        ensureGap(1);
+        elements[gapStart++] = element;
+    }
+
+    /**
+     * Inserts all elements of the specified collection into this list, starting at the specified position. Shifts
+     * the element currently at that position (if any) and any subsequent elements to the right (increases their
+     * indices). The new elements will appear in the list in the order that they are returned by the specified
+     * collection's iterator.
+     *
+     * @param index index at which to insert the first element from the specified collection
+     * @param c     collection containing elements to be added to this list
+     * @return {@code true} if this list changed as a result of the call
+     * @throws IndexOutOfBoundsException {@inheritDoc}
+     * @throws NullPointerException      if the specified collection is null
+     * @throws IllegalStateException     if the list reached its capacity
+     */
+    @Override
+    public boolean addAll(int index, Collection<? extends E> c) {
+        Objects.requireNonNull(c);
+        Objects.checkIndex(index, size() + 1);
+
+        Object[] arr = c.toArray();
+
+        if (arr.length == 0) {
+            return false;
+        }
+
+        if (size() + arr.length > capacity()) {
+            throw new IllegalStateException(TOO_MANY_ELEMENTS_MESSAGE.formatted(size(), arr.length, capacity()));
+        }
+
+        moveGap(index);
+        ensureGap(arr.length);
+
+        System.arraycopy(arr, 0,
+            elements, gapStart,
+            arr.length
+        );
+        gapStart += arr.length;
+
+        return true;
+    }
+
+    /**
+     * Removes the element at the specified position in this list. Shifts any subsequent elements to the left
+     * (subtracts one from their indices). Removing the element in front of or behind the gap runs in constant time.
+     *
+     * @param index the index of the element to be removed
+     * @return the element that was removed from the list
+     * @throws IndexOutOfBoundsException {@inheritDoc}
+     */
+    @Override
+    public E remove(int index) {
+        Objects.checkIndex(index, size());
+        E removedElement;
+        if (index == gapStart - 1) {
+            removedElement = elements[--gapStart];
+            elements[gapStart] = null;
+        } else {
+            moveGap(index);
+            removedElement = elements[gapEnd];
+            elements[gapEnd++] = null;
+        }
+        return removedElement;
+    }
+
+    /**
+     * Removes all elements from this list in constant time.
+     */
+    @Override
+    public void clear() {
+        gapStart = 0;
+        gapEnd = elements.length;
+        end = elements.length;
+    }
+
+    /**
+     * Gets the capacity of this list. The capacity is the maximum number of elements this list can store.
+     *
+     * @return the capacity of this list
+     */
+    public int capacity() {
+        return elements.length;
+    }
+}
@@ -0,0 +1,252 @@
+package org.nasengolem.util.datastructures;
+
+import java.util.Objects;
+
+/**
+ * Hash map from primitive {@code int} keys to object values, that stores its entries in flat arrays instead of boxed
+ * keys and entry objects. The map uses open addressing with linear probing in a power-of-two table.
+ *
+ * <p>A map created with a fixed capacity behaves like a {@link CappedList}: it never grows and throws an
+ * {@code IllegalStateException} if a new key is put into a full map. Otherwise, the table doubles whenever it gets half
+ * full.
+ *
+ * <p>The operations {@code get}, {@code put} and {@code remove} run in expected constant time. {@link #clear()} runs in
+ * constant time, since it only starts a new epoch. The values of cleared entries stay referenced by the map until
+ * their slots are reused, just like the elements beyond the size of a shrunk {@link CappedList}.
+ * {@link #forEach(EntryConsumer)} iterates the entries without allocating entry objects.
+ *
+ * <p>Like the {@code HashMap}, this map is <strong>not synchronized</strong>.
+ *
+ * @param <V> the type of the values in this map
+ * @author Paul Steinbach
+ * @see LongObjectMap
+ * @see LongLongMap
+ */
+public class IntObjectMap<V> {
+
+    /**
+     * Action that is performed for each entry of an {@link IntObjectMap}.
+     *
+     * @param <V> the type of the values
+     */
+    @FunctionalInterface
+    public interface EntryConsumer<V> {
+        /**
+         * Performs this action on the given entry.
+         *
+         * @param key   the key of the entry
+         * @param value the value of the entry
+         */
+        void accept(int key, V value);
+    }
+
+    private final boolean fixedCapacity;
+    private int[] keys;
+    private V[] values;
+    private int[] epochs;
+    private int epoch;
+    private int mask;
+    private int maxSize;
+    private int size;
+
+    /**
+     * Constructs a new empty {@code IntObjectMap} that grows as needed.
+     */
+    public IntObjectMap() {
+        this(PrimitiveMaps.DEFAULT_CAPACITY, false);
+    }
+
+    /**
+     * Constructs a new empty {@code IntObjectMap}, that can hold the given number of entries before it grows for the
+     * first time, or that never grows if {@code fixedCapacity} is {@code true}.
+     *
+     * @param capacity      the number of entries the map can hold without growing
+     * @param fixedCapacity {@code true} if the map must never grow
+     * @throws IllegalArgumentException if the capacity is negative or too large
+     */
+    public IntObjectMap(int capacity, boolean fixedCapacity) {
+        this.fixedCapacity = fixedCapacity;
+        allocate(PrimitiveMaps.tableSize(capacity));
+        if (fixedCapacity) {
+            maxSize = capacity;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void allocate(int tableSize) {
+        keys = new int[tableSize];
+        values = (V[]) new Object[tableSize];
+        epochs = new int[tableSize];
+        epoch = PrimitiveMaps.FREE + 1;
+        mask = tableSize - 1;
+        maxSize = PrimitiveMaps.maxSize(tableSize);
+    }
+
+    /**
+     * Returns the slot of the given key, or the free slot at the end of its probe sequence.
+     */
+    private int slot(int key) {
+        int slot = PrimitiveMaps.mix(key) & mask;
+        while (epochs[slot] == epoch && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void grow() {
+        int[] oldKeys = keys;
+        V[] oldValues = values;
+        int[] oldEpochs = epochs;
+        int oldEpoch = epoch;
+        allocate(oldKeys.length << 1);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldEpochs[i] == oldEpoch) {
+                int slot = slot(oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+                epochs[slot] = epoch;
+            }
+        }
+    }
+
+    /**
+     * Returns the value to which the specified key is mapped, or {@code null} if this map contains no mapping for the
+     * key.
+     *
+     * @param key the key whose associated value is to be returned
+     * @return the value to which the specified key is mapped, or {@code null}
+     */
+    public V get(int key) {
+        int slot = slot(key);
+        return epochs[slot] == epoch ? values[slot] : null;
+    }
+
+    /**
+     * Returns the value to which the specified key is mapped, or {@code defaultValue} if this map contains no mapping
+     * for the key.
+     *
+     * @param key          the key whose associated value is to be returned
+     * @param defaultValue the default mapping of the key
+     * @return the value to which the specified key is mapped, or {@code defaultValue}
+     */
+    public V getOrDefault(int key, V defaultValue) {
+        int slot = slot(key);
+        return epochs[slot] == epoch ? values[slot] : defaultValue;
+    }
+
+    /**
+     * Returns {@code true} if this map contains a mapping for the specified key.
+     *
+     * @param key the key whose presence in this map is to be tested
+     * @return {@code true} if this map contains a mapping for the specified key
+     */
+    public boolean containsKey(int key) {
+        return epochs[slot(key)] == epoch;
+    }
+
+    /**
+     * Associates the specified value with the specified key in this map. If the map previously contained a mapping for
+     * the key, the old value is replaced.
+     *
+     * @param key   key with which the specified value is to be associated
+     * @param value value to be associated with the specified key
+     * @return the previous value associated with the key, or {@code null} if there was no mapping for the key
+     * @throws IllegalStateException if the key is new and the map has a fixed capacity and is full
+     */
+    public V put(int key, V value) {
+        int slot = slot(key);
+        if (epochs[slot] == epoch) {
+            V oldValue = values[slot];
+            values[slot] = value;
+            return oldValue;
+        }
+        if (size == maxSize) {
+            if (fixedCapacity || keys.length > PrimitiveMaps.MAX_CAPACITY) {
+                throw new IllegalStateException(PrimitiveMaps.FULL_MAP_MESSAGE.formatted(key));
+            }
+            grow();
+            slot = slot(key);
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        epochs[slot] = epoch;
+        size++;
+        return null;
+    }
+
+    /**
+     * Removes the mapping for the specified key from this map if present.
+     *
+     * @param key key whose mapping is to be removed from the map
+     * @return the previous value associated with the key, or {@code null} if there was no mapping for the key
+     */
+    public V remove(int key) {
+        int gap = slot(key);
+        if (epochs[gap] != epoch) {
+            return null;
+        }
+        V oldValue = values[gap];
+        for (int slot = (gap + 1) & mask; epochs[slot] == epoch; slot = (slot + 1) & mask) {
+            if (PrimitiveMaps.canShift(PrimitiveMaps.mix(keys[slot]) & mask, gap, slot, mask)) {
+                keys[gap] = keys[slot];
+                values[gap] = values[slot];
+                gap = slot;
+            }
+        }
+        epochs[gap] = PrimitiveMaps.FREE;
+        values[gap] = null;
+        size--;
+        return oldValue;
+    }
+
+    /**
+     * Removes all mappings from this map in constant time.
+     */
+    public void clear() {
+        epoch = PrimitiveMaps.nextEpoch(epochs, epoch);
+        size = 0;
+    }
+
+    /**
+     * Performs the given action for each entry in this map. The entries are visited in the order of the hash table.
+     *
+     * @param action the action to be performed for each entry
+     * @throws NullPointerException if the specified action is null
+     */
+    public void forEach(EntryConsumer<? super V> action) {
+        Objects.requireNonNull(action);
+        for (int i = 0; i < keys.length; i++) {
+            if (epochs[i] == epoch) {
+                action.accept(keys[i], values[i]);
+            }
+        }
+    }
+
+    /**
+     * Returns the number of key-value mappings in this map.
+     *
+     * @return the number of key-value mappings in this map
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns {@code true} if this map contains no key-value mappings.
+     *
+     * @return {@code true} if this map contains no key-value mappings
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Gets the capacity of this map. The capacity is the number of entries the map can hold before it grows, or, if
+     * the map has a fixed capacity, the maximum number of entries it can hold.
+     *
+     * @return the capacity of this map
+     */
+    public int capacity() {
+        return maxSize;
+    }
+}
@@ -0,0 +1,284 @@
+package org.nasengolem.util.datastructures;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Period;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Opt-in instrumentation of the hot paths of {@link CappedList} and {@link ShrinkableArrayList}. The instrumentation
+ * is enabled by starting the JVM with the system property
+ *
+ * <pre>
+ *      -Dorg.nasengolem.util.datastructures.instrumentation=true
+ * </pre>
+ *
+ * <p>The property is read once into the constant {@link #ENABLED}, which guards every hook in the lists. If the
+ * instrumentation is disabled, the JIT compiler removes the hooks completely, so there is no overhead.
+ *
+ * <p>If enabled, the collected metrics are available in two ways:
+ * <ul>
+ *     <li>through the plain {@link ListMetrics} interface returned by {@link #metrics()}</li>
+ *     <li>as JDK Flight Recorder events in the category "NasenGolem Utilities": a periodic
+ *     {@code org.nasengolem.util.ListMetrics} event with the aggregated metrics, and the individual events
+ *     {@code org.nasengolem.util.CappedListFull}, {@code org.nasengolem.util.ListShift} and
+ *     {@code org.nasengolem.util.ListGrowth}, which are disabled by default and can be enabled in the JFR
+ *     settings</li>
+ * </ul>
+ *
+ * @author Paul Steinbach
+ * @see ListMetrics
+ */
+public final class ListInstrumentation {
+
+    /**
+     * The name of the system property that enables the instrumentation.
+     */
+    public static final String PROPERTY = "org.nasengolem.util.datastructures.instrumentation";
+
+    /**
+     * {@code true} if the instrumentation is enabled. This constant is read from the system property
+     * {@value #PROPERTY} when this class is initialized.
+     */
+    public static final boolean ENABLED = Boolean.getBoolean(PROPERTY);
+
+    private static final int HISTOGRAM_BUCKETS = 32;
+    private static final double PERMILLE = 1000.0;
+
+    private static final AtomicLong OCCUPANCY_HIGH_WATER_MARK = new AtomicLong();
+    private static final LongAdder FULL_REJECTIONS = new LongAdder();
+    private static final LongAdder SHIFTS = new LongAdder();
+    private static final LongAdder SHIFTED_ELEMENTS = new LongAdder();
+    private static final LongAdder SHIFT_NANOS = new LongAdder();
+    private static final LongAdder[] SHIFT_HISTOGRAM = new LongAdder[HISTOGRAM_BUCKETS];
+    private static final LongAdder SHRINKS = new LongAdder();
+    private static final LongAdder GROWTHS = new LongAdder();
+    private static final LongAdder GROWN_ELEMENTS = new LongAdder();
+
+    private static final ListMetrics METRICS = new ListMetrics() {
+        @Override
+        public double occupancyHighWaterMark() {
+            return OCCUPANCY_HIGH_WATER_MARK.get() / PERMILLE;
+        }
+
+        @Override
+        public long fullRejections() {
+            return FULL_REJECTIONS.sum();
+        }
+
+        @Override
+        public long shifts() {
+            return SHIFTS.sum();
+        }
+
+        @Override
+        public long shiftedElements() {
+            return SHIFTED_ELEMENTS.sum();
+        }
+
+        @Override
+        public long shiftNanos() {
+            return SHIFT_NANOS.sum();
+        }
+
+        @Override
+        public long[] shiftDistanceHistogram() {
+            long[] histogram = new long[HISTOGRAM_BUCKETS];
+            for (int i = 0; i < HISTOGRAM_BUCKETS; i++) {
+                histogram[i] = SHIFT_HISTOGRAM[i].sum();
+            }
+            return histogram;
+        }
+
+        @Override
+        public long shrinks() {
+            return SHRINKS.sum();
+        }
+
+        @Override
+        public long growths() {
+            return GROWTHS.sum();
+        }
+
+        @Override
+        public long grownElements() {
+            return GROWN_ELEMENTS.sum();
+        }
+    };
+
+    static {
+        for (int i = 0; i < HISTOGRAM_BUCKETS; i++) {
+            SHIFT_HISTOGRAM[i] = new LongAdder();
+        }
+        if (ENABLED) {
+            FlightRecorder.addPeriodicEvent(MetricsEvent.class, ListInstrumentation::emitMetricsEvent);
+        }
+    }
+
+    private ListInstrumentation() {
+    }
+
+    /**
+     * Returns the metrics collected by the instrumentation. The returned object is a live view. If the
+     * instrumentation is disabled, all metrics stay zero.
+     *
+     * @return the collected metrics
+     */
+    public static ListMetrics metrics() {
+        return METRICS;
+    }
+
+    /**
+     * Resets all collected metrics to zero.
+     */
+    public static void reset() {
+        OCCUPANCY_HIGH_WATER_MARK.set(0);
+        FULL_REJECTIONS.reset();
+        SHIFTS.reset();
+        SHIFTED_ELEMENTS.reset();
+        SHIFT_NANOS.reset();
+        for (LongAdder bucket : SHIFT_HISTOGRAM) {
+            bucket.reset();
+        }
+        SHRINKS.reset();
+        GROWTHS.reset();
+        GROWN_ELEMENTS.reset();
+    }
+
+    static void recordOccupancy(int size, int capacity) {
+        long permille = capacity == 0 ? (long) PERMILLE : (long) (size * PERMILLE / capacity);
+        if (permille > OCCUPANCY_HIGH_WATER_MARK.get()) {
+            OCCUPANCY_HIGH_WATER_MARK.accumulateAndGet(permille, Math::max);
+        }
+    }
+
+    static void recordFullRejection(int capacity) {
+        FULL_REJECTIONS.increment();
+        recordOccupancy(capacity, capacity);
+        CappedListFullEvent event = new CappedListFullEvent();
+        if (event.shouldCommit()) {
+            event.capacity = capacity;
+            event.commit();
+        }
+    }
+
+    /**
+     * Records a shift of elements that started at the given {@link System#nanoTime()}.
+     */
+    static void recordShift(int distance, long startNanos) {
+        long nanos = System.nanoTime() - startNanos;
+        SHIFTS.increment();
+        SHIFTED_ELEMENTS.add(distance);
+        SHIFT_NANOS.add(nanos);
+        SHIFT_HISTOGRAM[HISTOGRAM_BUCKETS - Integer.numberOfLeadingZeros(distance)].increment();
+        ShiftEvent event = new ShiftEvent();
+        if (event.shouldCommit()) {
+            event.distance = distance;
+            event.shiftTime = nanos;
+            event.commit();
+        }
+    }
+
+    static void recordShrink(int oldSize, int newSize) {
+        if (newSize < oldSize) {
+            SHRINKS.increment();
+        }
+    }
+
+    static void recordGrowth(int oldCapacity, int newCapacity, int copiedElements) {
+        GROWTHS.increment();
+        GROWN_ELEMENTS.add(copiedElements);
+        GrowthEvent event = new GrowthEvent();
+        if (event.shouldCommit()) {
+            event.oldCapacity = oldCapacity;
+            event.newCapacity = newCapacity;
+            event.copiedElements = copiedElements;
+            event.commit();
+        }
+    }
+
+    private static void emitMetricsEvent() {
+        MetricsEvent event = new MetricsEvent();
+        event.occupancyHighWaterMark = METRICS.occupancyHighWaterMark();
+        event.fullRejections = METRICS.fullRejections();
+        event.shifts = METRICS.shifts();
+        event.shiftedElements = METRICS.shiftedElements();
+        event.shiftTime = METRICS.shiftNanos();
+        event.shrinks = METRICS.shrinks();
+        event.growths = METRICS.growths();
+        event.grownElements = METRICS.grownElements();
+        event.commit();
+    }
+
+    @Name("org.nasengolem.util.ListMetrics")
+    @Label("List Metrics")
+    @Description("Aggregated metrics of all instrumented lists")
+    @Category("NasenGolem Utilities")
+    @Period("1 s")
+    @StackTrace(false)
+    static final class MetricsEvent extends Event {
+        @Label("Occupancy High-Water Mark")
+        double occupancyHighWaterMark;
+        @Label("Full Rejections")
+        long fullRejections;
+        @Label("Shifts")
+        long shifts;
+        @Label("Shifted Elements")
+        long shiftedElements;
+        @Label("Shift Time")
+        @Timespan(Timespan.NANOSECONDS)
+        long shiftTime;
+        @Label("Shrinks")
+        long shrinks;
+        @Label("Growths")
+        long growths;
+        @Label("Grown Elements")
+        long grownElements;
+    }
+
+    @Name("org.nasengolem.util.CappedListFull")
+    @Label("Capped List Full")
+    @Description("An element could not be added to a full CappedList")
+    @Category("NasenGolem Utilities")
+    @Enabled(false)
+    static final class CappedListFullEvent extends Event {
+        @Label("Capacity")
+        int capacity;
+    }
+
+    @Name("org.nasengolem.util.ListShift")
+    @Label("List Shift")
+    @Description("Elements of a list were shifted by an insertion or removal")
+    @Category("NasenGolem Utilities")
+    @Enabled(false)
+    static final class ShiftEvent extends Event {
+        @Label("Distance")
+        int distance;
+        @Label("Shift Time")
+        @Timespan(Timespan.NANOSECONDS)
+        long shiftTime;
+    }
+
+    @Name("org.nasengolem.util.ListGrowth")
+    @Label("List Growth")
+    @Description("A ShrinkableArrayList grew its backing array")
+    @Category("NasenGolem Utilities")
+    @Enabled(false)
+    static final class GrowthEvent extends Event {
+        @Label("Old Capacity")
+        int oldCapacity;
+        @Label("New Capacity")
+        int newCapacity;
+        @Label("Copied Elements")
+        int copiedElements;
+    }
+}
@@ -0,0 +1,79 @@
+package org.nasengolem.util.datastructures;
+
+/**
+ * Read-only view of the metrics collected by {@link ListInstrumentation}. All values are aggregated over all
+ * instrumented lists since the start of the JVM or the last {@link ListInstrumentation#reset()}.
+ *
+ * <p>This interface is meant to be polled by a metrics library, e.g. by registering its methods as gauges.
+ *
+ * @author Paul Steinbach
+ * @see ListInstrumentation
+ */
+public interface ListMetrics {
+
+    /**
+     * Returns the highest occupancy observed for any {@link CappedList}, as fraction of its capacity.
+     *
+     * @return the occupancy high-water mark between {@code 0.0} and {@code 1.0}
+     */
+    double occupancyHighWaterMark();
+
+    /**
+     * Returns the number of times an element could not be added to a {@link CappedList}, because it was full.
+     *
+     * @return the number of rejected additions
+     */
+    long fullRejections();
+
+    /**
+     * Returns the number of times elements were shifted by {@code add(int, E)}, {@code addAll(int, Collection)} or
+     * {@code remove(int)}. Appends and removals of the last element don't move any element and are not counted.
+     *
+     * @return the number of shifts
+     */
+    long shifts();
+
+    /**
+     * Returns the total number of elements moved by shifts.
+     *
+     * @return the number of shifted elements
+     */
+    long shiftedElements();
+
+    /**
+     * Returns the total time spent in shifts, in nanoseconds.
+     *
+     * @return the shift time in nanoseconds
+     */
+    long shiftNanos();
+
+    /**
+     * Returns a histogram of the shift distances. The bucket at index {@code i > 0} counts shifts of {@code 2^(i-1)} to
+     * {@code 2^i - 1} elements. The bucket at index {@code 0} stays zero, since operations that don't move any element
+     * are not counted as shifts.
+     *
+     * @return a copy of the shift distance histogram with 32 buckets
+     */
+    long[] shiftDistanceHistogram();
+
+    /**
+     * Returns the number of calls to {@code shrink} that actually reduced the size of a list.
+     *
+     * @return the number of shrinks
+     */
+    long shrinks();
+
+    /**
+     * Returns the number of times a {@link ShrinkableArrayList} grew its backing array.
+     *
+     * @return the number of growth events
+     */
+    long growths();
+
+    /**
+     * Returns the total number of elements copied while growing the backing arrays of {@link ShrinkableArrayList}s.
+     *
+     * @return the number of elements copied by growth events
+     */
+    long grownElements();
+}
@@ -0,0 +1,274 @@
+package org.nasengolem.util.datastructures;
+
+import java.util.Objects;
+
+/**
+ * Hash map from primitive {@code long} keys to primitive {@code long} values, that stores its entries in flat arrays
+ * instead of boxed keys, boxed values and entry objects. The map uses open addressing with linear probing in a
+ * power-of-two table. Since a {@code long} can't be {@code null}, the methods that return a value return {@code 0} if
+ * the key is not mapped. Use {@link #containsKey(long)} or {@link #getOrDefault(long, long)} to tell the cases apart.
+ *
+ * <p>The method {@link #addTo(long, long)} updates a counter with a single lookup.
+ *
+ * <p>A map created with a fixed capacity behaves like a {@link CappedList}: it never grows and throws an
+ * {@code IllegalStateException} if a new key is put into a full map. Otherwise, the table doubles whenever it gets half
+ * full.
+ *
+ * <p>The operations {@code get}, {@code put} and {@code remove} run in expected constant time. {@link #clear()} runs in
+ * constant time, since it only starts a new epoch. {@link #forEach(EntryConsumer)} iterates the entries without
+ * allocating entry objects.
+ *
+ * <p>Like the {@code HashMap}, this map is <strong>not synchronized</strong>.
+ *
+ * @author Paul Steinbach
+ * @see IntObjectMap
+ * @see LongObjectMap
+ */
+public class LongLongMap {
+
+    /**
+     * Action that is performed for each entry of a {@link LongLongMap}.
+     */
+    @FunctionalInterface
+    public interface EntryConsumer {
+        /**
+         * Performs this action on the given entry.
+         *
+         * @param key   the key of the entry
+         * @param value the value of the entry
+         */
+        void accept(long key, long value);
+    }
+
+    private final boolean fixedCapacity;
+    private long[] keys;
+    private long[] values;
+    private int[] epochs;
+    private int epoch;
+    private int mask;
+    private int maxSize;
+    private int size;
+
+    /**
+     * Constructs a new empty {@code LongLongMap} that grows as needed.
+     */
+    public LongLongMap() {
+        this(PrimitiveMaps.DEFAULT_CAPACITY, false);
+    }
+
+    /**
+     * Constructs a new empty {@code LongLongMap}, that can hold the given number of entries before it grows for the
+     * first time, or that never grows if {@code fixedCapacity} is {@code true}.
+     *
+     * @param capacity      the number of entries the map can hold without growing
+     * @param fixedCapacity {@code true} if the map must never grow
+     * @throws IllegalArgumentException if the capacity is negative or too large
+     */
+    public LongLongMap(int capacity, boolean fixedCapacity) {
+        this.fixedCapacity = fixedCapacity;
+        allocate(PrimitiveMaps.tableSize(capacity));
+        if (fixedCapacity) {
+            maxSize = capacity;
+        }
+    }
+
+    private void allocate(int tableSize) {
+        keys = new long[tableSize];
+        values = new long[tableSize];
+        epochs = new int[tableSize];
+        epoch = PrimitiveMaps.FREE + 1;
+        mask = tableSize - 1;
+        maxSize = PrimitiveMaps.maxSize(tableSize);
+    }
+
+    /**
+     * Returns the slot of the given key, or the free slot at the end of its probe sequence.
+     */
+    private int slot(long key) {
+        int slot = PrimitiveMaps.mix(key) & mask;
+        while (epochs[slot] == epoch && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void grow() {
+        long[] oldKeys = keys;
+        long[] oldValues = values;
+        int[] oldEpochs = epochs;
+        int oldEpoch = epoch;
+        allocate(oldKeys.length << 1);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldEpochs[i] == oldEpoch) {
+                int slot = slot(oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+                epochs[slot] = epoch;
+            }
+        }
+    }
+
+    /**
+     * Returns the value to which the specified key is mapped, or {@code 0} if this map contains no mapping for the
+     * key.
+     *
+     * @param key the key whose associated value is to be returned
+     * @return the value to which the specified key is mapped, or {@code 0}
+     */
+    public long get(long key) {
+        int slot = slot(key);
+        return epochs[slot] == epoch ? values[slot] : 0L;
+    }
+
+    /**
+     * Returns the value to which the specified key is mapped, or {@code defaultValue} if this map contains no mapping
+     * for the key.
+     *
+     * @param key          the key whose associated value is to be returned
+     * @param defaultValue the default mapping of the key
+     * @return the value to which the specified key is mapped, or {@code defaultValue}
+     */
+    public long getOrDefault(long key, long defaultValue) {
+        int slot = slot(key);
+        return epochs[slot] == epoch ? values[slot] : defaultValue;
+    }
+
+    /**
+     * Returns {@code true} if this map contains a mapping for the specified key.
+     *
+     * @param key the key whose presence in this map is to be tested
+     * @return {@code true} if this map contains a mapping for the specified key
+     */
+    public boolean containsKey(long key) {
+        return epochs[slot(key)] == epoch;
+    }
+
+    /**
+     * Associates the specified value with the specified key in this map. If the map previously contained a mapping for
+     * the key, the old value is replaced.
+     *
+     * @param key   key with which the specified value is to be associated
+     * @param value value to be associated with the specified key
+     * @return the previous value associated with the key, or {@code 0} if there was no mapping for the key
+     * @throws IllegalStateException if the key is new and the map has a fixed capacity and is full
+     */
+    public long put(long key, long value) {
+        int slot = slot(key);
+        if (epochs[slot] == epoch) {
+            long oldValue = values[slot];
+            values[slot] = value;
+            return oldValue;
+        }
+        if (size == maxSize) {
+            if (fixedCapacity || keys.length > PrimitiveMaps.MAX_CAPACITY) {
+                throw new IllegalStateException(PrimitiveMaps.FULL_MAP_MESSAGE.formatted(key));
+            }
+            grow();
+            slot = slot(key);
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        epochs[slot] = epoch;
+        size++;
+        return 0L;
+    }
+
+    /**
+     * Adds the given increment to the value of the specified key. If the map contains no mapping for the key, the key
+     * is mapped to the increment.
+     *
+     * @param key       key whose value is to be incremented
+     * @param increment the value to add
+     * @return the new value associated with the key
+     * @throws IllegalStateException if the key is new and the map has a fixed capacity and is full
+     */
+    public long addTo(long key, long increment) {
+        int slot = slot(key);
+        if (epochs[slot] == epoch) {
+            return values[slot] += increment;
+        } else if (size == maxSize) {
+            put(key, increment);
+            return increment;
+        }
+        keys[slot] = key;
+        values[slot] = increment;
+        epochs[slot] = epoch;
+        size++;
+        return increment;
+    }
+
+    /**
+     * Removes the mapping for the specified key from this map if present.
+     *
+     * @param key key whose mapping is to be removed from the map
+     * @return the previous value associated with the key, or {@code 0} if there was no mapping for the key
+     */
+    public long remove(long key) {
+        int gap = slot(key);
+        if (epochs[gap] != epoch) {
+            return 0L;
+        }
+        long oldValue = values[gap];
+        for (int slot = (gap + 1) & mask; epochs[slot] == epoch; slot = (slot + 1) & mask) {
+            if (PrimitiveMaps.canShift(PrimitiveMaps.mix(keys[slot]) & mask, gap, slot, mask)) {
+                keys[gap] = keys[slot];
+                values[gap] = values[slot];
+                gap = slot;
+            }
+        }
+        epochs[gap] = PrimitiveMaps.FREE;
+        size--;
+        return oldValue;
+    }
+
+    /**
+     * Removes all mappings from this map in constant time.
+     */
+    public void clear() {
+        epoch = PrimitiveMaps.nextEpoch(epochs, epoch);
+        size = 0;
+    }
+
+    /**
+     * Performs the given action for each entry in this map. The entries are visited in the order of the hash table.
+     *
+     * @param action the action to be performed for each entry
+     * @throws NullPointerException if the specified action is null
+     */
+    public void forEach(EntryConsumer action) {
+        Objects.requireNonNull(action);
+        for (int i = 0; i < keys.length; i++) {
+            if (epochs[i] == epoch) {
+                action.accept(keys[i], values[i]);
+            }
+        }
+    }
+
+    /**
+     * Returns the number of key-value mappings in this map.
+     *
+     * @return the number of key-value mappings in this map
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns {@code true} if this map contains no key-value mappings.
+     *
+     * @return {@code true} if this map contains no key-value mappings
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Gets the capacity of this map. The capacity is the number of entries the map can hold before it grows, or, if
+     * the map has a fixed capacity, the maximum number of entries it can hold.
+     *
+     * @return the capacity of this map
+     */
+    public int capacity() {
+        return maxSize;
+    }
+}
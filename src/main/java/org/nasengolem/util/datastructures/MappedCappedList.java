@@ -0,0 +1,491 @@
+package org.nasengolem.util.datastructures;
+
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Objects;
+import java.util.RandomAccess;
+
+/**
+ * Persistent {@code List} implementation with a fixed capacity, whose elements are stored as fixed-width records in a
+ * memory-mapped file. The list behaves like a {@link CappedList}, but its content survives restarts of the process
+ * without a separate serialization step.
+ *
+ * <p>The file consists of a small header followed by {@code capacity} record slots. The header stores the capacity,
+ * the record size and the current size of the list. Consequently, {@link #shrink(int)} runs in constant time, since it
+ * only rewrites the size in the header, and {@link #open(Path, RecordCodec, SyncPolicy) reopening} an existing file
+ * runs in constant time, since no record is read until it is accessed.
+ *
+ * <p>Elements are converted to and from their binary representation by a {@link RecordCodec}. Codecs for
+ * {@code int}, {@code long} and {@code double} values are provided.
+ *
+ * <p>Changes are written to the mapped memory immediately, which means that they are visible to the operating system
+ * and survive a crash of the process. Whether and when the changes are forced to the storage device, so that they
+ * survive a crash of the operating system, is determined by the {@link SyncPolicy}.
+ *
+ * <p>Like the {@code CappedList}, the {@code MappedCappedList} is <strong>not synchronized</strong>. The file must not
+ * be opened by more than one list at a time.
+ *
+ * <p>The file is mapped into a {@link MemorySegment} of a shared {@link Arena}. {@link #close()} closes the arena,
+ * which unmaps the file immediately, so it can be deleted or reopened right away. The records are accessed through a
+ * {@link ByteBuffer} view of the segment, so the file can't exceed 2 GiB.
+ *
+ * @param <E> the type of the elements in this list
+ * @author Paul Steinbach
+ * @see CappedList
+ */
+public class MappedCappedList<E> extends AbstractShrinkableList<E> implements RandomAccess, AutoCloseable {
+
+    private static final String NEGATIVE_CAPACITY_MESSAGE = "Illegal capacity of %d. The capacity must be non-negative.";
+    private static final String CAPACITY_TOO_LARGE_MESSAGE = "Illegal capacity of %d. The file for records of %d bytes "
+        + "must not exceed %d bytes.";
+    private static final String ILLEGAL_RECORD_SIZE_MESSAGE = "Illegal record size of %d. The record size must be "
+        + "positive.";
+    private static final String CORRUPTED_FILE_MESSAGE = "The file '%s' is not a valid capped list file: %s";
+    private static final String RECORD_SIZE_MISMATCH_MESSAGE = "The file '%s' stores records of %d bytes, but the codec "
+        + "uses records of %d bytes.";
+
+    private static final String NEGATIVE_RESIZE_MESSAGE = "Illegal newSize of %d. The newSize must be non-negative.";
+    private static final String SIZE_TOO_LARGE_MESSAGE = "Illegal newSize of %d for an original size of %d."
+        + " The newSize must be at least as small as the original size.";
+    private static final String FULL_LIST_MESSAGE = "Can't add the element '%s' to the list, since it is full.";
+    private static final String CLOSED_MESSAGE = "The list has already been closed.";
+
+    private static final int MAGIC = 0x434C5354;
+    private static final int VERSION = 1;
+    private static final int MAGIC_OFFSET = 0;
+    private static final int VERSION_OFFSET = 4;
+    private static final int RECORD_SIZE_OFFSET = 8;
+    private static final int CAPACITY_OFFSET = 12;
+    private static final int SIZE_OFFSET = 16;
+    private static final int HEADER_SIZE = 32;
+
+    /**
+     * Determines when changes are forced to the storage device.
+     */
+    public enum SyncPolicy {
+        /**
+         * Changes are only forced by explicit calls to {@link #force()}.
+         */
+        MANUAL,
+        /**
+         * Changes are forced by {@link #close()} and by explicit calls to {@link #force()}.
+         */
+        ON_CLOSE,
+        /**
+         * Every change is forced before the modifying method returns. The new record is forced before the size in the
+         * header, so appending with {@link MappedCappedList#add(Object)} is crash consistent: after a crash, the list
+         * either contains the complete new element or not. Inserting or removing elements in the middle of the list
+         * shifts the subsequent records in place, so a crash during such an operation may leave these records
+         * partially shifted.
+         */
+        EVERY_CHANGE
+    }
+
+    /**
+     * Converts elements to and from fixed-width binary records.
+     *
+     * @param <E> the type of the elements
+     */
+    public interface RecordCodec<E> {
+
+        /**
+         * Codec for non-null {@code Integer} elements, using records of 4 bytes.
+         */
+        RecordCodec<Integer> INT = new RecordCodec<>() {
+            @Override
+            public int recordSize() {
+                return Integer.BYTES;
+            }
+
+            @Override
+            public void write(ByteBuffer buffer, int offset, Integer element) {
+                buffer.putInt(offset, element);
+            }
+
+            @Override
+            public Integer read(ByteBuffer buffer, int offset) {
+                return buffer.getInt(offset);
+            }
+        };
+
+        /**
+         * Codec for non-null {@code Long} elements, using records of 8 bytes.
+         */
+        RecordCodec<Long> LONG = new RecordCodec<>() {
+            @Override
+            public int recordSize() {
+                return Long.BYTES;
+            }
+
+            @Override
+            public void write(ByteBuffer buffer, int offset, Long element) {
+                buffer.putLong(offset, element);
+            }
+
+            @Override
+            public Long read(ByteBuffer buffer, int offset) {
+                return buffer.getLong(offset);
+            }
+        };
+
+        /**
+         * Codec for non-null {@code Double} elements, using records of 8 bytes.
+         */
+        RecordCodec<Double> DOUBLE = new RecordCodec<>() {
+            @Override
+            public int recordSize() {
+                return Double.BYTES;
+            }
+
+            @Override
+            public void write(ByteBuffer buffer, int offset, Double element) {
+                buffer.putDouble(offset, element);
+            }
+
+            @Override
+            public Double read(ByteBuffer buffer, int offset) {
+                return buffer.getDouble(offset);
+            }
+        };
+
+        /**
+         * Returns the number of bytes of each record. This value must never change.
+         *
+         * @return the record size in bytes
+         */
+        int recordSize();
+
+        /**
+         * Writes the given element as a record of {@link #recordSize()} bytes, using absolute puts.
+         *
+         * @param buffer  the buffer to write to
+         * @param offset  the offset of the record in the buffer
+         * @param element the element to write
+         */
+        void write(ByteBuffer buffer, int offset, E element);
+
+        /**
+         * Reads the element stored in the record at the given offset, using absolute gets.
+         *
+         * @param buffer the buffer to read from
+         * @param offset the offset of the record in the buffer
+         * @return the element stored in the record
+         */
+        E read(ByteBuffer buffer, int offset);
+    }
+
+    private final FileChannel channel;
+    private final Arena arena;
+    private final MemorySegment segment;
+    private final ByteBuffer buffer;
+    private final RecordCodec<E> codec;
+    private final SyncPolicy syncPolicy;
+    private final int recordSize;
+    private final int capacity;
+    private final ByteBuffer scratch;
+    private int size;
+    private boolean closed;
+
+    private MappedCappedList(FileChannel channel, Arena arena, MemorySegment segment, RecordCodec<E> codec,
+                             SyncPolicy syncPolicy, int capacity, int size) {
+        this.channel = channel;
+        this.arena = arena;
+        this.segment = segment;
+        this.buffer = segment.asByteBuffer();
+        this.codec = codec;
+        this.syncPolicy = syncPolicy;
+        this.recordSize = codec.recordSize();
+        this.capacity = capacity;
+        this.scratch = ByteBuffer.allocate(recordSize);
+        this.size = size;
+    }
+
+    /**
+     * Creates a new file and returns an empty {@code MappedCappedList} with the specified capacity, backed by that
+     * file.
+     *
+     * @param file       the file to create
+     * @param capacity   the capacity defining the maximum number of elements the list can store
+     * @param codec      the codec converting the elements to records
+     * @param syncPolicy the policy determining when changes are forced to the storage device
+     * @param <E>        the type of the elements in the list
+     * @return the new list
+     * @throws IllegalArgumentException if the capacity is negative or the file would exceed 2 GiB
+     * @throws IOException              if the file already exists or can't be created
+     */
+    public static <E> MappedCappedList<E> create(Path file, int capacity, RecordCodec<E> codec, SyncPolicy syncPolicy)
+            throws IOException {
+        Objects.requireNonNull(syncPolicy);
+        int recordSize = codec.recordSize();
+        if (recordSize <= 0) {
+            throw new IllegalArgumentException(ILLEGAL_RECORD_SIZE_MESSAGE.formatted(recordSize));
+        }
+        if (capacity < 0) {
+            throw new IllegalArgumentException(NEGATIVE_CAPACITY_MESSAGE.formatted(capacity));
+        }
+        long fileSize = HEADER_SIZE + (long) capacity * recordSize;
+        if (fileSize > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException(
+                CAPACITY_TOO_LARGE_MESSAGE.formatted(capacity, recordSize, Integer.MAX_VALUE));
+        }
+
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW,
+            StandardOpenOption.READ, StandardOpenOption.WRITE);
+        Arena arena = Arena.ofShared();
+        try {
+            MemorySegment segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, fileSize, arena);
+            ByteBuffer buffer = segment.asByteBuffer();
+            buffer.putInt(VERSION_OFFSET, VERSION);
+            buffer.putInt(RECORD_SIZE_OFFSET, recordSize);
+            buffer.putInt(CAPACITY_OFFSET, capacity);
+            buffer.putInt(SIZE_OFFSET, 0);
+            buffer.putInt(MAGIC_OFFSET, MAGIC);
+            segment.asSlice(0, HEADER_SIZE).force();
+            return new MappedCappedList<>(channel, arena, segment, codec, syncPolicy, capacity, 0);
+        } catch (IOException | RuntimeException e) {
+            arena.close();
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Opens an existing file that was created by {@link #create(Path, int, RecordCodec, SyncPolicy)}. Only the header
+     * of the file is read, so this method runs in constant time.
+     *
+     * @param file       the file to open
+     * @param codec      the codec converting the elements to records, which must match the codec used to create the
+     *                   file
+     * @param syncPolicy the policy determining when changes are forced to the storage device
+     * @param <E>        the type of the elements in the list
+     * @return the list backed by the file
+     * @throws IOException if the file can't be opened, is corrupted or uses a different record size than the codec
+     */
+    public static <E> MappedCappedList<E> open(Path file, RecordCodec<E> codec, SyncPolicy syncPolicy)
+            throws IOException {
+        Objects.requireNonNull(codec);
+        Objects.requireNonNull(syncPolicy);
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        Arena arena = Arena.ofShared();
+        try {
+            long fileSize = channel.size();
+            if (fileSize < HEADER_SIZE || fileSize > Integer.MAX_VALUE) {
+                throw new IOException(CORRUPTED_FILE_MESSAGE.formatted(file, "illegal file size " + fileSize));
+            }
+            MemorySegment segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, fileSize, arena);
+            ByteBuffer buffer = segment.asByteBuffer();
+            if (buffer.getInt(MAGIC_OFFSET) != MAGIC || buffer.getInt(VERSION_OFFSET) != VERSION) {
+                throw new IOException(CORRUPTED_FILE_MESSAGE.formatted(file, "unknown header"));
+            }
+            int recordSize = buffer.getInt(RECORD_SIZE_OFFSET);
+            if (recordSize != codec.recordSize()) {
+                throw new IOException(RECORD_SIZE_MISMATCH_MESSAGE.formatted(file, recordSize, codec.recordSize()));
+            }
+            int capacity = buffer.getInt(CAPACITY_OFFSET);
+            int size = buffer.getInt(SIZE_OFFSET);
+            if (capacity < 0 || HEADER_SIZE + (long) capacity * recordSize != fileSize || size < 0 || size > capacity) {
+                throw new IOException(CORRUPTED_FILE_MESSAGE.formatted(file, "inconsistent capacity or size"));
+            }
+            return new MappedCappedList<>(channel, arena, segment, codec, syncPolicy, capacity, size);
+        } catch (IOException | RuntimeException e) {
+            arena.close();
+            channel.close();
+            throw e;
+        }
+    }
+
+    private void ensureOpen() {
+        if (closed) {
+            throw new IllegalStateException(CLOSED_MESSAGE);
+        }
+    }
+
+    private int offset(int index) {
+        return HEADER_SIZE + index * recordSize;
+    }
+
+    private void moveRecords(int fromIndex, int toIndex, int count) {
+        buffer.put(offset(toIndex), buffer, offset(fromIndex), count * recordSize);
+    }
+
+    /**
+     * Encodes the given element into the scratch record, so that an element rejected by the codec doesn't leave a
+     * partially modified file behind.
+     */
+    private void encode(E element) {
+        codec.write(scratch, 0, element);
+    }
+
+    private void writeEncoded(int index) {
+        buffer.put(offset(index), scratch, 0, recordSize);
+    }
+
+    private void changed(int fromIndex, int toIndex) {
+        if (syncPolicy == SyncPolicy.EVERY_CHANGE && fromIndex < toIndex) {
+            segment.asSlice(offset(fromIndex), (long) (toIndex - fromIndex) * recordSize).force();
+        }
+    }
+
+    private void writeSize(int newSize) {
+        size = newSize;
+        buffer.putInt(SIZE_OFFSET, newSize);
+        if (syncPolicy == SyncPolicy.EVERY_CHANGE) {
+            segment.asSlice(0, HEADER_SIZE).force();
+        }
+    }
+
+    /**
+     * {@inheritDoc} Only the size in the header of the file is rewritten.
+     *
+     * @throws IllegalArgumentException {@inheritDoc}
+     * @throws IllegalStateException    if the list has been closed
+     */
+    @Override
+    public int shrink(int newSize) {
+        ensureOpen();
+        if (newSize < 0) {
+            throw new IllegalArgumentException(NEGATIVE_RESIZE_MESSAGE.formatted(newSize));
+        } else if (newSize > size) {
+            throw new IllegalArgumentException(SIZE_TOO_LARGE_MESSAGE.formatted(newSize, size));
+        }
+        int oldSize = size;
+        writeSize(newSize);
+        return oldSize;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws IndexOutOfBoundsException {@inheritDoc}
+     * @throws IllegalStateException     if the list has been closed
+     */
+    @Override
+    public E get(int index) {
+        ensureOpen();
+        Objects.checkIndex(index, size);
+        return codec.read(buffer, offset(index));
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @return the number of elements in this list
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws IndexOutOfBoundsException {@inheritDoc}
+     * @throws IllegalStateException     if the list has been closed
+     */
+    @Override
+    public E set(int index, E element) {
+        E oldElement = get(index);
+        encode(element);
+        writeEncoded(index);
+        changed(index, index + 1);
+        return oldElement;
+    }
+
+    /**
+     * Inserts the specified element at the specified position in this list, if the list is not full already. The
+     * records at that position (if any) and any subsequent records will then be shifted to the right (adds one to
+     * their indices).
+     *
+     * @param index   index at which the specified element is to be inserted
+     * @param element element to be inserted
+     * @throws IndexOutOfBoundsException {@inheritDoc}
+     * @throws IllegalStateException     if the list reached its capacity or has been closed
+     */
+    @Override
+    public void add(int index, E element) {
+        ensureOpen();
+        if (size == capacity) {
+            throw new IllegalStateException(FULL_LIST_MESSAGE.formatted(element));
+        }
+        Objects.checkIndex(index, size + 1);
+        encode(element);
+        moveRecords(index, index + 1, size - index);
+        writeEncoded(index);
+        changed(index, size + 1);
+        writeSize(size + 1);
+    }
+
+    /**
+     * Removes the element at the specified position in this list. Shifts any subsequent records to the left
+     * (subtracts one from their indices).
+     *
+     * @param index the index of the element to be removed
+     * @return the element that was removed from the list
+     * @throws IndexOutOfBoundsException {@inheritDoc}
+     * @throws IllegalStateException     if the list has been closed
+     */
+    @Override
+    public E remove(int index) {
+        E removedElement = get(index);
+        moveRecords(index + 1, index, size - index - 1);
+        changed(index, size - 1);
+        writeSize(size - 1);
+        return removedElement;
+    }
+
+    /**
+     * Returns {@code true} if this list is full. This means that no further elements can be added.
+     *
+     * @return {@code true} if this collection if full. This implementation returns {@code size() == capacity()}.
+     */
+    public boolean isFull() {
+        return size == capacity;
+    }
+
+    /**
+     * Gets the capacity of this list. The capacity is the maximum number of elements this list can store.
+     *
+     * @return the capacity of this list
+     */
+    public int capacity() {
+        return capacity;
+    }
+
+    /**
+     * Forces all changes of this list to the storage device, regardless of the {@link SyncPolicy}.
+     *
+     * @throws IllegalStateException if the list has been closed
+     */
+    public void force() {
+        ensureOpen();
+        segment.force();
+    }
+
+    /**
+     * Unmaps and closes the file backing this list. Unless the {@link SyncPolicy} is {@link SyncPolicy#MANUAL}, all
+     * changes are forced to the storage device first. The list can't be used afterwards. Closing an already closed
+     * list has no effect.
+     *
+     * @throws IOException if the file can't be closed
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        if (syncPolicy != SyncPolicy.MANUAL) {
+            segment.force();
+        }
+        closed = true;
+        try {
+            arena.close();
+        } finally {
+            channel.close();
+        }
+    }
+}
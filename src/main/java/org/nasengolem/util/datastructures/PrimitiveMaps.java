@@ -0,0 +1,80 @@
+package org.nasengolem.util.datastructures;
+
+import java.util.Arrays;
+
+/**
+ * Shared helpers of the open-addressing maps {@link IntObjectMap}, {@link LongObjectMap} and {@link LongLongMap}.
+ *
+ * <p>The maps use linear probing in tables with a power-of-two size, that are at most half full. Every slot carries
+ * the epoch in which it was written. A slot is only occupied if its epoch equals the current epoch of the map, so
+ * {@code clear()} just increments the epoch. Removed entries are closed by shifting the following entries of the
+ * probe sequence backwards, so the maps don't need tombstones.
+ *
+ * @author Paul Steinbach
+ */
+final class PrimitiveMaps {
+
+    static final String NEGATIVE_CAPACITY_MESSAGE = "Illegal capacity of %d. The capacity must be non-negative.";
+    static final String CAPACITY_TOO_LARGE_MESSAGE = "Illegal capacity of %d. The capacity must not exceed %d.";
+    static final String FULL_MAP_MESSAGE = "Can't add the key '%d' to the map, since it is full.";
+
+    static final int DEFAULT_CAPACITY = 8;
+    static final int MAX_CAPACITY = 1 << 29;
+
+    /**
+     * The epoch of slots that are not occupied in any epoch.
+     */
+    static final int FREE = 0;
+
+    private PrimitiveMaps() {
+    }
+
+    /**
+     * Returns the size of a table that can hold the given number of entries.
+     */
+    static int tableSize(int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException(NEGATIVE_CAPACITY_MESSAGE.formatted(capacity));
+        } else if (capacity > MAX_CAPACITY) {
+            throw new IllegalArgumentException(CAPACITY_TOO_LARGE_MESSAGE.formatted(capacity, MAX_CAPACITY));
+        }
+        return Math.max(2, Integer.highestOneBit(Math.max(1, capacity) * 2 - 1) << 1);
+    }
+
+    /**
+     * Returns the number of entries a growing table of the given size can hold before it has to grow.
+     */
+    static int maxSize(int tableSize) {
+        return tableSize >>> 1;
+    }
+
+    static int mix(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    static int mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    /**
+     * Returns {@code true} if the entry at {@code slot}, whose probe sequence starts at {@code ideal}, may be moved
+     * into the free slot {@code gap}, i.e. if {@code gap} lies cyclically between {@code ideal} and {@code slot}.
+     */
+    static boolean canShift(int ideal, int gap, int slot, int mask) {
+        return ((slot - ideal) & mask) >= ((slot - gap) & mask);
+    }
+
+    /**
+     * Returns the epoch following the given one. If the epoch counter overflows, all slots are reset to
+     * {@link #FREE}.
+     */
+    static int nextEpoch(int[] epochs, int epoch) {
+        if (++epoch == FREE) {
+            Arrays.fill(epochs, FREE);
+            epoch = FREE + 1;
+        }
+        return epoch;
+    }
+}
@@ -0,0 +1,436 @@
+package org.nasengolem.util.datastructures;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Sequence of elements that is stored in fixed-size chunks instead of a single array. Since the elements are addressed
+ * by {@code long} indices, the sequence can hold more than {@code Integer.MAX_VALUE} elements. For the same reason, it
+ * doesn't implement {@link List}.
+ *
+ * <p>Appending an element never copies existing elements. When the last chunk is full, a new chunk is allocated and
+ * only the small directory of chunk references may grow. This avoids the latency spikes caused by copying a large
+ * array, like {@link java.util.ArrayList} or {@link ShrinkableArrayList} do when they grow.
+ *
+ * <p>The sequence follows the semantics of {@link Shrinkable}, but with {@code long} sizes: {@link #shrink(long)} cuts
+ * off the end of the sequence without touching the remaining elements. Additionally, it releases all chunks that
+ * don't contain any element anymore, so the memory can be reclaimed. Only the chunk following the last used one is
+ * kept as a spare, so that alternately adding and removing elements at a chunk boundary doesn't allocate a new chunk
+ * every time. {@link #clear()} releases the spare chunk as well.
+ *
+ * <p>The directory of chunks is an array, so a sequence can hold at most {@code 2^30} chunks, i.e.
+ * {@code 2^30 * chunkSize} elements.
+ *
+ * <p>The chunks can be accessed individually through {@link #chunk(int)}, e.g. for bulk processing, and the
+ * {@link #spliterator()} splits at chunk boundaries, which makes {@link #parallelStream()} efficient.
+ *
+ * <p>Like the {@code ArrayList}, the {@code SegmentedList} is <strong>not synchronized</strong>. Its iterators are
+ * <strong>not</strong> fail-fast.
+ *
+ * @param <E> the type of the elements in this sequence
+ * @author Paul Steinbach
+ * @see Shrinkable
+ * @see CappedList
+ */
+public class SegmentedList<E> implements Iterable<E> {
+    private static final String ILLEGAL_CHUNK_SIZE_MESSAGE = "Illegal chunk size of %d. The chunk size must be a "
+        + "positive power of two.";
+    private static final String NEGATIVE_RESIZE_MESSAGE = "Illegal newSize of %d. The newSize must be non-negative.";
+    private static final String SIZE_TOO_LARGE_MESSAGE = "Illegal newSize of %d for an original size of %d."
+        + " The newSize must be at least as small as the original size.";
+    private static final String INDEX_OUT_OF_BOUNDS_MESSAGE = "Index %d out of bounds for length %d";
+    private static final String TOO_MANY_ELEMENTS_MESSAGE = "Can't add %d elements to the sequence of size %d, since "
+        + "it can't hold more than %d elements.";
+
+    /**
+     * The chunk size used by {@link #SegmentedList()}.
+     */
+    public static final int DEFAULT_CHUNK_SIZE = 1 << 14;
+
+    private static final int INITIAL_DIRECTORY_SIZE = 8;
+    private static final int MAX_DIRECTORY_SIZE = 1 << 30;
+
+    private final int chunkShift;
+    private final int chunkMask;
+    private Object[][] chunks;
+    private long size;
+
+    /**
+     * Constructs an empty sequence with chunks of {@value #DEFAULT_CHUNK_SIZE} elements.
+     */
+    public SegmentedList() {
+        this(DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * Constructs an empty sequence with chunks of the specified size.
+     *
+     * @param chunkSize the number of elements per chunk
+     * @throws IllegalArgumentException if the chunk size is not a positive power of two
+     */
+    public SegmentedList(int chunkSize) {
+        if (chunkSize <= 0 || Integer.bitCount(chunkSize) != 1) {
+            throw new IllegalArgumentException(ILLEGAL_CHUNK_SIZE_MESSAGE.formatted(chunkSize));
+        }
+        this.chunkShift = Integer.numberOfTrailingZeros(chunkSize);
+        this.chunkMask = chunkSize - 1;
+        this.chunks = new Object[INITIAL_DIRECTORY_SIZE][];
+        this.size = 0;
+    }
+
+    /**
+     * Constructs a sequence with chunks of {@value #DEFAULT_CHUNK_SIZE} elements that contains the elements of the
+     * specified collection, in the order they are returned by the collection's iterator.
+     *
+     * @param collection the collection whose elements are to be placed into this sequence
+     * @throws NullPointerException if the collection is null
+     */
+    public SegmentedList(Collection<? extends E> collection) {
+        this();
+        appendAll(collection);
+    }
+
+    private void checkIndex(long index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException(INDEX_OUT_OF_BOUNDS_MESSAGE.formatted(index, size));
+        }
+    }
+
+    private int chunkSize() {
+        return chunkMask + 1;
+    }
+
+    private int chunksFor(long elementCount) {
+        return (int) ((elementCount + chunkMask) >>> chunkShift);
+    }
+
+    private long maxSize() {
+        return (long) MAX_DIRECTORY_SIZE << chunkShift;
+    }
+
+    private void checkCapacity(long count) {
+        if (count > maxSize() - size) {
+            throw new IllegalStateException(TOO_MANY_ELEMENTS_MESSAGE.formatted(count, size, maxSize()));
+        }
+    }
+
+    private Object[] chunkForAppend() {
+        int chunkIndex = (int) (size >>> chunkShift);
+        if (chunkIndex == chunks.length) {
+            chunks = Arrays.copyOf(chunks, Math.min(chunks.length * 2, MAX_DIRECTORY_SIZE));
+        }
+        Object[] chunk = chunks[chunkIndex];
+        if (chunk == null) {
+            chunk = new Object[chunkSize()];
+            chunks[chunkIndex] = chunk;
+        }
+        return chunk;
+    }
+
+    /**
+     * Returns the number of elements in this sequence.
+     *
+     * @return the number of elements in this sequence
+     */
+    public long size() {
+        return size;
+    }
+
+    /**
+     * Returns {@code true} if this sequence contains no elements.
+     *
+     * @return {@code true} if this sequence contains no elements
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Returns the element at the specified position in this sequence.
+     *
+     * @param index index of the element to return
+     * @return the element at the specified position
+     * @throws IndexOutOfBoundsException if the index is out of range
+     */
+    @SuppressWarnings("unchecked")
+    public E get(long index) {
+        checkIndex(index);
+        return (E) chunks[(int) (index >>> chunkShift)][(int) index & chunkMask];
+    }
+
+    /**
+     * Replaces the element at the specified position in this sequence with the specified element.
+     *
+     * @param index   index of the element to replace
+     * @param element element to be stored at the specified position
+     * @return the element previously at the specified position
+     * @throws IndexOutOfBoundsException if the index is out of range
+     */
+    public E set(long index, E element) {
+        E oldElement = get(index);
+        chunks[(int) (index >>> chunkShift)][(int) index & chunkMask] = element;
+        return oldElement;
+    }
+
+    /**
+     * Appends the specified element to the end of this sequence. This runs in amortized constant time and never
+     * copies any element.
+     *
+     * @param element element to be appended
+     * @throws IllegalStateException if the sequence already holds the maximum number of elements
+     */
+    public void add(E element) {
+        checkCapacity(1);
+        chunkForAppend()[(int) size & chunkMask] = element;
+        size++;
+    }
+
+    /**
+     * Appends all elements of the specified collection to the end of this sequence, in the order that they are
+     * returned by the specified collection's iterator. The elements are copied chunk by chunk.
+     *
+     * @param c collection containing elements to be added to this sequence
+     * @return {@code true} if this sequence changed as a result of the call
+     * @throws NullPointerException  if the specified collection is null
+     * @throws IllegalStateException if the sequence can't hold all elements of the collection
+     */
+    public boolean addAll(Collection<? extends E> c) {
+        return appendAll(c);
+    }
+
+    private boolean appendAll(Collection<? extends E> c) {
+        Object[] arr = c.toArray();
+        checkCapacity(arr.length);
+        int copied = 0;
+        while (copied < arr.length) {
+            Object[] chunk = chunkForAppend();
+            int offset = (int) size & chunkMask;
+            int length = Math.min(arr.length - copied, chunk.length - offset);
+            System.arraycopy(arr, copied, chunk, offset, length);
+            copied += length;
+            size += length;
+        }
+        return arr.length > 0;
+    }
+
+    /**
+     * Removes and returns the last element of this sequence.
+     *
+     * @return the removed element
+     * @throws NoSuchElementException if this sequence is empty
+     */
+    public E removeLast() {
+        if (size == 0) {
+            throw new NoSuchElementException();
+        }
+        E last = get(size - 1);
+        shrink(size - 1);
+        return last;
+    }
+
+    /**
+     * Shrinks this sequence to a new smaller size. All elements at indices beyond the new size won't be visible
+     * anymore. Chunks that don't contain any element after the shrink are released, except for one spare chunk, so
+     * this method runs in constant time per released chunk.
+     *
+     * @param newSize the new size of this sequence
+     * @return the old size of this sequence
+     * @throws IllegalArgumentException if the new size is negative or greater than the current size
+     * @see Shrinkable#shrink(int)
+     */
+    public long shrink(long newSize) {
+        if (newSize < 0) {
+            throw new IllegalArgumentException(NEGATIVE_RESIZE_MESSAGE.formatted(newSize));
+        } else if (newSize > size) {
+            throw new IllegalArgumentException(SIZE_TOO_LARGE_MESSAGE.formatted(newSize, size));
+        }
+        long oldSize = size;
+        int spareChunk = chunksFor(newSize);
+        int oldSpareChunk = Math.min(chunksFor(oldSize), chunks.length - 1);
+        if (spareChunk < oldSpareChunk) {
+            Arrays.fill(chunks, spareChunk + 1, oldSpareChunk + 1, null);
+        }
+        size = newSize;
+        return oldSize;
+    }
+
+    /**
+     * Removes all elements from this sequence and releases all chunks, including the spare chunk.
+     */
+    public void clear() {
+        shrink(0);
+        chunks[0] = null;
+    }
+
+    /**
+     * Returns the number of chunks that contain elements of this sequence.
+     *
+     * @return the number of chunks
+     */
+    public int chunkCount() {
+        return chunksFor(size);
+    }
+
+    /**
+     * Returns a fixed-size view of the elements in the specified chunk. All chunks except for the last one contain
+     * exactly as many elements as the chunk size. Changes of the elements through the view write through to this
+     * sequence.
+     *
+     * @param chunkIndex the index of the chunk
+     * @return a {@code RandomAccess} view of the chunk
+     * @throws IndexOutOfBoundsException if the chunk index is out of range
+     */
+    @SuppressWarnings("unchecked")
+    public List<E> chunk(int chunkIndex) {
+        Objects.checkIndex(chunkIndex, chunkCount());
+        long start = (long) chunkIndex << chunkShift;
+        return new ChunkView<>((E[]) chunks[chunkIndex], (int) Math.min(chunkSize(), size - start));
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+        return new Iterator<>() {
+            private long next = 0;
+
+            @Override
+            public boolean hasNext() {
+                return next < size;
+            }
+
+            @Override
+            public E next() {
+                if (next >= size) {
+                    throw new NoSuchElementException();
+                }
+                return get(next++);
+            }
+        };
+    }
+
+    /**
+     * Creates a {@link Spliterator} over the elements in this sequence. The spliterator splits at chunk boundaries
+     * and reports {@link Spliterator#SIZED}, {@link Spliterator#SUBSIZED} and {@link Spliterator#ORDERED}.
+     *
+     * @return a spliterator over the elements in this sequence
+     */
+    @Override
+    public Spliterator<E> spliterator() {
+        return new ChunkSpliterator(0, size);
+    }
+
+    /**
+     * Returns a sequential {@code Stream} with this sequence as its source.
+     *
+     * @return a sequential stream over the elements in this sequence
+     */
+    public Stream<E> stream() {
+        return StreamSupport.stream(spliterator(), false);
+    }
+
+    /**
+     * Returns a parallel {@code Stream} with this sequence as its source. The chunks are distributed among the
+     * threads.
+     *
+     * @return a parallel stream over the elements in this sequence
+     */
+    public Stream<E> parallelStream() {
+        return StreamSupport.stream(spliterator(), true);
+    }
+
+    private static final class ChunkView<E> extends AbstractList<E> implements RandomAccess {
+        private final E[] chunk;
+        private final int size;
+
+        private ChunkView(E[] chunk, int size) {
+            this.chunk = chunk;
+            this.size = size;
+        }
+
+        @Override
+        public E get(int index) {
+            Objects.checkIndex(index, size);
+            return chunk[index];
+        }
+
+        @Override
+        public E set(int index, E element) {
+            Objects.checkIndex(index, size);
+            E oldElement = chunk[index];
+            chunk[index] = element;
+            return oldElement;
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+
+    private final class ChunkSpliterator implements Spliterator<E> {
+        private long index;
+        private final long end;
+
+        private ChunkSpliterator(long index, long end) {
+            this.index = index;
+            this.end = end;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super E> action) {
+            Objects.requireNonNull(action);
+            if (index >= end) {
+                return false;
+            }
+            action.accept(get(index++));
+            return true;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public void forEachRemaining(Consumer<? super E> action) {
+            Objects.requireNonNull(action);
+            while (index < end) {
+                Object[] chunk = chunks[(int) (index >>> chunkShift)];
+                int from = (int) index & chunkMask;
+                int to = (int) Math.min(chunk.length, from + (end - index));
+                for (int i = from; i < to; i++) {
+                    action.accept((E) chunk[i]);
+                }
+                index += to - from;
+            }
+        }
+
+        @Override
+        public Spliterator<E> trySplit() {
+            long firstChunk = index >>> chunkShift;
+            long lastChunk = (end - 1) >>> chunkShift;
+            if (index >= end || firstChunk == lastChunk) {
+                return null;
+            }
+            long mid = ((firstChunk + lastChunk + 1) >>> 1) << chunkShift;
+            ChunkSpliterator prefix = new ChunkSpliterator(index, mid);
+            index = mid;
+            return prefix;
+        }
+
+        @Override
+        public long estimateSize() {
+            return end - index;
+        }
+
+        @Override
+        public int characteristics() {
+            return Spliterator.ORDERED | Spliterator.SIZED | Spliterator.SUBSIZED;
+        }
+    }
+}
@@ -30,6 +30,11 @@ import java.util.RandomAccess;
  * fixed. It changes when elements are added or removed from the list or when the list
  * is resized.
  *
+ * <p>Most lists hold only a handful of elements, so a list created with the no-arg constructor
+ * doesn't allocate an array until the first element is added. Until then, all empty lists share
+ * one empty array. The first array holds four elements and grows by half of
+ * its length whenever it is full.
+ *
  * <p>Like the {@code ArrayList}, the {@code CappedResizableList} is <strong>not synchronized</strong>
  * and its iterator is fail-fast. Read the documentation of the {@code ArrayList} for more
  * information about these topics.
@@ -45,29 +50,33 @@ public class ShrinkableArrayList<E> extends AbstractList<E>
     private static final String ILLEGAL_RESIZE_MESSAGE = "Invalid newSize: %d. newSize must be non-negative and less than or equal to the current size: %d. Resize can only decrease the size.";
     private static final String ILLEGAL_CAPACITY_MESSAGE = "Illegal capacity: %d";
 
-    private static final int DEFAULT_CAPACITY = 10;
+    private static final Object[] EMPTY_ELEMENTS = {};
+    private static final int FIRST_CAPACITY = 4;
 
     private E[] elements;
     private int size;
 
     /**
-     * Constructs a new {@code CappedResizableList} with the specified capacity.
-     *
-     * @throws IllegalArgumentException if the capacity is negative
+     * Constructs a new empty {@code ShrinkableArrayList}. The backing array is allocated
+     * when the first element is added.
      */
     @SuppressWarnings("unchecked")
     public ShrinkableArrayList() {
-        elements = (E[]) new Object[DEFAULT_CAPACITY];
+        elements = (E[]) EMPTY_ELEMENTS;
         size = 0;
     }
 
+    @SuppressWarnings("unchecked")
     public ShrinkableArrayList(ShrinkableArrayList<? extends E> shrinkableArrayList) {
         this.size = shrinkableArrayList.size;
-        this.elements = Arrays.copyOf(shrinkableArrayList.elements, size);
+        this.elements = size == 0
+                ? (E[]) EMPTY_ELEMENTS
+                : Arrays.copyOf(shrinkableArrayList.elements, size);
     }
 
     public ShrinkableArrayList(Collection<? extends E> collection) {
         this();
+        grow(collection.size());
         addAll(collection);
     }
 
@@ -82,6 +91,9 @@ public class ShrinkableArrayList<E> extends AbstractList<E>
         if (newSize < 0 || newSize > size) {
             throw new IllegalArgumentException(ILLEGAL_RESIZE_MESSAGE.formatted(newSize, size));
         }
+        if (ListInstrumentation.ENABLED) {
+            ListInstrumentation.recordShrink(size, newSize);
+        }
         size = newSize;
     }
 
@@ -107,10 +119,12 @@ public class ShrinkableArrayList<E> extends AbstractList<E>
     private void grow(int minCapacity) {
         int oldCapacity = elements.length;
         if (minCapacity > oldCapacity) {
-            int newCapacity = 0;
-//            ArraySupport.newLength(oldCapacity,
-//                    minCapacity - oldCapacity, /* minimum growth */
-//                    oldCapacity >> 1           /* preferred growth */);
+            int newCapacity = Math.max(minCapacity,
+                    Math.max(FIRST_CAPACITY, oldCapacity + (oldCapacity >> 1)));
+            elements = Arrays.copyOf(elements, newCapacity);
+            if (ListInstrumentation.ENABLED) {
+                ListInstrumentation.recordGrowth(oldCapacity, newCapacity, size);
+            }
         }
     }
 
@@ -118,23 +132,33 @@ public class ShrinkableArrayList<E> extends AbstractList<E>
     public void add(int index, E element) {
         Objects.checkIndex(index, size + 1);
         if (size == elements.length) {
-            grow(1);
+            grow(size + 1);
         }
+        boolean shifts = index < size;
+        long start = ListInstrumentation.ENABLED && shifts ? System.nanoTime() : 0L;
         System.arraycopy(elements, index,
                 elements, index + 1,
                 size - index);
         elements[index] = element;
         size++;
+        if (ListInstrumentation.ENABLED && shifts) {
+            ListInstrumentation.recordShift(size - index - 1, start);
+        }
     }
 
     @Override
     public E remove(int index) {
         Objects.checkIndex(index, size);
         E removedElement = elements[index];
+        boolean shifts = index < size - 1;
+        long start = ListInstrumentation.ENABLED && shifts ? System.nanoTime() : 0L;
         System.arraycopy(elements, index + 1,
                 elements, index,
                 size - index - 1);
         size--;
+        if (ListInstrumentation.ENABLED && shifts) {
+            ListInstrumentation.recordShift(size - index, start);
+        }
         return removedElement;
     }
 
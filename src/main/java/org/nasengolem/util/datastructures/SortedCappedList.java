@@ -0,0 +1,390 @@
+package org.nasengolem.util.datastructures;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.RandomAccess;
+
+/**
+ * Random-Access {@code List} implementation with a fixed capacity, whose elements are always sorted according to a
+ * {@link Comparator}. Elements that compare equal keep the order in which they were added.
+ *
+ * <p>Elements are inserted at their sorted position by a binary search and a single {@code System.arraycopy}, so
+ * {@code add} runs in {@code O(log n)} comparisons plus an {@code O(n)} memory move. Since the position of an element
+ * is determined by the comparator, the index-based operations {@code add(int, E)} and {@code set} are not supported.
+ *
+ * <p>The behavior of {@link #add(Object)} on a full list is determined by the {@link Mode}. In {@link Mode#CAPPED}
+ * mode, the list behaves like a {@link CappedList} and throws an {@code IllegalStateException}. In
+ * {@link Mode#TOP_K} mode, the list keeps the {@code capacity} smallest elements: the new element either replaces the
+ * largest element or is discarded. With a comparator that sorts the best results first, this keeps the top results of
+ * a scoring pass without sorting all of them.
+ *
+ * <p>The views returned by {@link #headList(Object)}, {@link #tailList(Object)} and {@link #rangeList(Object, Object)}
+ * are backed by this list. Clearing a view moves the following elements with a single {@code System.arraycopy}, and
+ * clearing a tail view truncates this list in constant time via {@link #shrink(int)}:
+ *
+ * <pre>
+ *      list.tailList(threshold).clear();
+ * </pre>
+ *
+ * @param <E> the type of the elements in this list
+ * @author Paul Steinbach
+ * @see CappedList
+ */
+public class SortedCappedList<E> extends AbstractShrinkableList<E>
+    implements List<E>, RandomAccess, Shrinkable {
+
+    private static final String NEGATIVE_CAPACITY_MESSAGE = "Illegal capacity of %d. The capacity must be non-negative.";
+    private static final String NEGATIVE_RESIZE_MESSAGE = "Illegal newSize of %d. The newSize must be non-negative.";
+    private static final String SIZE_TOO_LARGE_MESSAGE = "Illegal newSize of %d for an original size of %d."
+        + " The newSize must be at least as small as the original size.";
+    private static final String FULL_LIST_MESSAGE = "Can't add the element '%s' to the list, since it is full.";
+    private static final String TOO_MANY_ELEMENTS_MESSAGE = "Can't add all elements from the collection to the list, "
+        + "since the current size of %d plus the collection size of %d exceed the capacity of %d.";
+    private static final String UNSORTED_OPERATION_MESSAGE = "The position of an element in a sorted list is "
+        + "determined by its comparator.";
+    private static final String ILLEGAL_RANGE_MESSAGE = "The fromElement '%s' is greater than the toElement '%s'.";
+
+    /**
+     * Determines the behavior of {@link #add(Object)} on a full list.
+     */
+    public enum Mode {
+        /**
+         * Adding an element to a full list throws an {@code IllegalStateException}.
+         */
+        CAPPED,
+        /**
+         * Adding an element to a full list evicts the largest element, unless the new element is not smaller than
+         * the largest element. In that case, the new element is discarded.
+         */
+        TOP_K
+    }
+
+    private final E[] elements;
+    private final Comparator<? super E> comparator;
+    private final Mode mode;
+    private int size;
+
+    /**
+     * Constructs a new {@code SortedCappedList} in {@link Mode#CAPPED} mode.
+     *
+     * @param capacity   the capacity defining the maximum number of elements the list can store
+     * @param comparator the comparator defining the order of the elements
+     * @throws IllegalArgumentException if the capacity is negative
+     * @throws NullPointerException     if the comparator is null
+     */
+    public SortedCappedList(int capacity, Comparator<? super E> comparator) {
+        this(capacity, comparator, Mode.CAPPED);
+    }
+
+    /**
+     * Constructs a new {@code SortedCappedList} in the given mode.
+     *
+     * @param capacity   the capacity defining the maximum number of elements the list can store
+     * @param comparator the comparator defining the order of the elements
+     * @param mode       the behavior of {@code add} on a full list
+     * @throws IllegalArgumentException if the capacity is negative
+     * @throws NullPointerException     if the comparator or the mode is null
+     */
+    @SuppressWarnings("unchecked")
+    public SortedCappedList(int capacity, Comparator<? super E> comparator, Mode mode) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException(NEGATIVE_CAPACITY_MESSAGE.formatted(capacity));
+        }
+        this.comparator = Objects.requireNonNull(comparator);
+        this.mode = Objects.requireNonNull(mode);
+        this.elements = (E[]) new Object[capacity];
+        this.size = 0;
+    }
+
+    /**
+     * Returns the index of the first element that is not smaller than the given element.
+     */
+    private int lowerBound(E element) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (comparator.compare(elements[mid], element) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Returns the index of the first element that is greater than the given element.
+     */
+    private int upperBound(E element) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (comparator.compare(elements[mid], element) <= 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws IllegalArgumentException {@inheritDoc}
+     */
+    @Override
+    public int shrink(int newSize) {
+        if (newSize < 0) {
+            throw new IllegalArgumentException(NEGATIVE_RESIZE_MESSAGE.formatted(newSize));
+        } else if (newSize > size) {
+            throw new IllegalArgumentException(SIZE_TOO_LARGE_MESSAGE.formatted(newSize, size));
+        }
+        int oldSize = size;
+        size = newSize;
+        return oldSize;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws IndexOutOfBoundsException {@inheritDoc}
+     */
+    @Override
+    public E get(int index) {
+        Objects.checkIndex(index, size);
+        return elements[index];
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @return the number of elements in this list
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Inserts the specified element at its sorted position. Elements that compare equal to the specified element stay
+     * in front of it.
+     *
+     * <p>If the list is full and in {@link Mode#TOP_K} mode, the largest element is evicted to make room, unless the
+     * specified element is not smaller than the largest element. In that case, the list does not change.
+     *
+     * @param element element to be inserted
+     * @return {@code true} if this list changed as a result of the call
+     * @throws IllegalStateException if the list is full and in {@link Mode#CAPPED} mode
+     */
+    @Override
+    public boolean add(E element) {
+        int index = upperBound(element);
+        if (size == capacity()) {
+            if (mode == Mode.CAPPED) {
+                throw new IllegalStateException(FULL_LIST_MESSAGE.formatted(element));
+            } else if (index == size) {
+                return false;
+            }
+            size--;
+        }
+        System.arraycopy(elements, index,
+            elements, index + 1,
+            size - index
+        );
+        elements[index] = element;
+        size++;
+        return true;
+    }
+
+    /**
+     * Inserts all elements of the specified collection at their sorted positions. The elements are sorted and then
+     * merged into this list in a single pass, so adding {@code m} elements to a list of size {@code n} takes
+     * {@code O(n + m log m)} time. The result is the same as if the elements were added one by one.
+     *
+     * <p>In {@link Mode#CAPPED} mode, the list does not change if the elements don't fit into it. In
+     * {@link Mode#TOP_K} mode, the list keeps the {@code capacity} smallest of all elements.
+     *
+     * @param c collection containing elements to be added to this list
+     * @return {@code true} if this list changed as a result of the call
+     * @throws NullPointerException  if the specified collection is null
+     * @throws IllegalStateException if the list is in {@link Mode#CAPPED} mode and the elements exceed its capacity
+     */
+    @Override
+    public boolean addAll(Collection<? extends E> c) {
+        @SuppressWarnings("unchecked")
+        E[] batch = (E[]) c.toArray();
+        if (batch.length == 0) {
+            return false;
+        } else if (mode == Mode.CAPPED && batch.length > capacity() - size) {
+            throw new IllegalStateException(TOO_MANY_ELEMENTS_MESSAGE.formatted(size, batch.length, capacity()));
+        }
+        Arrays.sort(batch, comparator);
+
+        int newSize = (int) Math.min(capacity(), (long) size + batch.length);
+        long discarded = (long) size + batch.length - newSize;
+        int i = size - 1;
+        int j = batch.length - 1;
+        int k = newSize - 1;
+        boolean changed = false;
+        while (j >= 0) {
+            boolean fromList = i >= 0 && comparator.compare(elements[i], batch[j]) > 0;
+            E element = fromList ? elements[i--] : batch[j--];
+            if (discarded > 0) {
+                discarded--;
+            } else {
+                elements[k--] = element;
+                changed |= !fromList;
+            }
+        }
+        size = newSize;
+        return changed;
+    }
+
+    /**
+     * Not supported, since the position of an element is determined by the comparator.
+     *
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public void add(int index, E element) {
+        throw new UnsupportedOperationException(UNSORTED_OPERATION_MESSAGE);
+    }
+
+    /**
+     * Not supported, since the position of an element is determined by the comparator.
+     *
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public E set(int index, E element) {
+        throw new UnsupportedOperationException(UNSORTED_OPERATION_MESSAGE);
+    }
+
+    /**
+     * Removes the element at the specified position in this list. Shifts any subsequent elements to the left
+     * (subtracts one from their indices).
+     *
+     * @param index the index of the element to be removed
+     * @return the element that was removed from the list
+     * @throws IndexOutOfBoundsException {@inheritDoc}
+     */
+    @Override
+    public E remove(int index) {
+        Objects.checkIndex(index, size);
+        E removedElement = elements[index];
+        System.arraycopy(elements, index + 1,
+            elements, index,
+            size - index - 1
+        );
+        size--;
+        return removedElement;
+    }
+
+    /**
+     * Removes the elements from {@code fromIndex} to {@code toIndex}, exclusive, by moving the following elements with
+     * a single {@code System.arraycopy}. If the range reaches the end of the list, the list is truncated in constant
+     * time.
+     */
+    @Override
+    protected void removeRange(int fromIndex, int toIndex) {
+        Objects.checkFromToIndex(fromIndex, toIndex, size);
+        if (toIndex == size) {
+            shrink(fromIndex);
+            return;
+        }
+        int newSize = size - (toIndex - fromIndex);
+        System.arraycopy(elements, toIndex,
+            elements, fromIndex,
+            size - toIndex
+        );
+        Arrays.fill(elements, newSize, size, null);
+        shrink(newSize);
+    }
+
+    /**
+     * Searches this list for the specified element using the binary search algorithm. If the list contains several
+     * elements that compare equal to the specified element, the index of the first one is returned.
+     *
+     * @param key the element to be searched for
+     * @return the index of the element, if it is contained in the list; otherwise,
+     *         {@code (-(insertion point) - 1)}, as defined by {@link java.util.Collections#binarySearch(List, Object)}
+     */
+    public int binarySearch(E key) {
+        int index = lowerBound(key);
+        if (index < size && comparator.compare(elements[index], key) == 0) {
+            return index;
+        }
+        return -index - 1;
+    }
+
+    /**
+     * Returns a view of the elements that are strictly smaller than {@code toElement}.
+     *
+     * @param toElement the exclusive upper bound of the view
+     * @return a view of the elements smaller than {@code toElement}
+     */
+    public List<E> headList(E toElement) {
+        return subList(0, lowerBound(toElement));
+    }
+
+    /**
+     * Returns a view of the elements that are greater than or equal to {@code fromElement}. Clearing this view
+     * truncates this list in constant time.
+     *
+     * @param fromElement the inclusive lower bound of the view
+     * @return a view of the elements not smaller than {@code fromElement}
+     */
+    public List<E> tailList(E fromElement) {
+        return subList(lowerBound(fromElement), size);
+    }
+
+    /**
+     * Returns a view of the elements that are greater than or equal to {@code fromElement} and strictly smaller than
+     * {@code toElement}.
+     *
+     * @param fromElement the inclusive lower bound of the view
+     * @param toElement   the exclusive upper bound of the view
+     * @return a view of the elements in the given range
+     * @throws IllegalArgumentException if {@code fromElement} is greater than {@code toElement}
+     */
+    public List<E> rangeList(E fromElement, E toElement) {
+        if (comparator.compare(fromElement, toElement) > 0) {
+            throw new IllegalArgumentException(ILLEGAL_RANGE_MESSAGE.formatted(fromElement, toElement));
+        }
+        return subList(lowerBound(fromElement), lowerBound(toElement));
+    }
+
+    /**
+     * Returns the comparator defining the order of the elements in this list.
+     *
+     * @return the comparator of this list
+     */
+    public Comparator<? super E> comparator() {
+        return comparator;
+    }
+
+    /**
+     * Returns {@code true} if this list is full. In {@link Mode#CAPPED} mode, this means that no further elements can
+     * be added.
+     *
+     * @return {@code true} if this collection if full. This implementation returns {@code size() == capacity()}.
+     */
+    public boolean isFull() {
+        return size == capacity();
+    }
+
+    /**
+     * Gets the capacity of this list. The capacity is the maximum number of elements this list can store.
+     *
+     * @return the capacity of this list
+     */
+    public int capacity() {
+        return elements.length;
+    }
+}
@@ -0,0 +1,323 @@
+package org.nasengolem.util.datastructures;
+
+import java.util.Objects;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * Thread-safe buffer with a fixed capacity, that is split into several stripes to let many threads add elements
+ * concurrently. Each stripe is a {@link CappedList} guarded by its own lock. A thread starts on the stripe determined
+ * by its thread id. If the lock of its stripe is held by another thread, it moves on to another stripe, in the same
+ * way as a {@link java.util.concurrent.atomic.LongAdder} rehashes its probe. So threads that collide on a stripe
+ * spread out, and writers on different stripes never touch the same lock or counter. Virtual threads are spread over
+ * the stripes in the same way as platform threads.
+ *
+ * <p>The buffer is meant for high fan-in accumulation, e.g. of metrics, where many threads write and a single
+ * thread periodically collects the elements:
+ *
+ * <pre>
+ *      buffer.add(sample);                 // on any thread
+ *      buffer.drain(exporter::export);     // on the collecting thread
+ * </pre>
+ *
+ * <p>{@link #drain(Consumer)} visits the stripes one after the other and swaps the list of each visited stripe for an
+ * empty spare list, so the elements are passed to the action without holding the lock of the stripe, and writers are
+ * never blocked by a slow action. Each stripe therefore keeps a second list of the same capacity. The aggregate
+ * operations are not atomic snapshots: elements added to a stripe that was already visited are kept for the next
+ * call. The order of the elements is only kept within a stripe.
+ *
+ * <p>If the stripe of a thread is full, the remaining stripes are probed in order, so the buffer only rejects an
+ * element when all stripes are full.
+ *
+ * @param <E> the type of the elements in this buffer
+ * @author Paul Steinbach
+ * @see CappedList
+ */
+public class StripedCappedBuffer<E> {
+
+    private static final String ILLEGAL_STRIPES_MESSAGE = "Illegal number of %d stripes. The number of stripes must be "
+        + "positive.";
+    private static final String FULL_BUFFER_MESSAGE = "Can't add the element '%s' to the buffer, since it is full.";
+
+    private static final long GOLDEN_RATIO = 0x9E3779B97F4A7C15L;
+
+    /**
+     * The probe of the current thread, which selects its stripe. It is shared by all buffers, like the probe of a
+     * {@link java.util.concurrent.atomic.LongAdder}.
+     */
+    private static final ThreadLocal<Probe> PROBE = ThreadLocal.withInitial(Probe::new);
+
+    private final Stripe<E>[] stripes;
+    private final int mask;
+    private final ReentrantLock drainLock = new ReentrantLock();
+
+    /**
+     * Constructs a new {@code StripedCappedBuffer} with one stripe per available processor, rounded up to a power of
+     * two.
+     *
+     * @param stripeCapacity the capacity of each stripe
+     * @throws IllegalArgumentException if the stripe capacity is negative
+     */
+    public StripedCappedBuffer(int stripeCapacity) {
+        this(Runtime.getRuntime().availableProcessors(), stripeCapacity);
+    }
+
+    /**
+     * Constructs a new {@code StripedCappedBuffer} with the given number of stripes, rounded up to a power of two.
+     *
+     * @param stripes        the minimum number of stripes
+     * @param stripeCapacity the capacity of each stripe
+     * @throws IllegalArgumentException if the number of stripes is not positive or the stripe capacity is negative
+     */
+    public StripedCappedBuffer(int stripes, int stripeCapacity) {
+        if (stripes <= 0 || stripes > 1 << 30) {
+            throw new IllegalArgumentException(ILLEGAL_STRIPES_MESSAGE.formatted(stripes));
+        }
+        int stripeCount = stripes == 1 ? 1 : Integer.highestOneBit(stripes - 1) << 1;
+        this.stripes = newStripes(stripeCount);
+        for (int i = 0; i < stripeCount; i++) {
+            this.stripes[i] = new Stripe<>(stripeCapacity);
+        }
+        this.mask = stripeCount - 1;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <E> Stripe<E>[] newStripes(int count) {
+        return (Stripe<E>[]) new Stripe<?>[count];
+    }
+
+    /**
+     * Adds the specified element to the stripe of the current thread, or to the next stripe that is not full. If the
+     * stripe of the current thread is locked by another thread, the current thread moves to another stripe.
+     *
+     * @param element element to be added
+     * @return {@code true} if the element was added, {@code false} if all stripes are full
+     */
+    public boolean offer(E element) {
+        Probe probe = PROBE.get();
+        int home = probe.value & mask;
+        Stripe<E> stripe = stripes[home];
+        if (!stripe.lock.tryLock()) {
+            probe.advance();
+            home = probe.value & mask;
+            stripe = stripes[home];
+            stripe.lock.lock();
+        }
+        if (addAndUnlock(stripe, element)) {
+            return true;
+        }
+        for (int i = 1; i < stripes.length; i++) {
+            stripe = stripes[(home + i) & mask];
+            stripe.lock.lock();
+            if (addAndUnlock(stripe, element)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Adds the element to the given locked stripe, unless it is full, and releases the lock.
+     */
+    private static <E> boolean addAndUnlock(Stripe<E> stripe, E element) {
+        try {
+            if (stripe.elements.isFull()) {
+                return false;
+            }
+            stripe.elements.add(element);
+            return true;
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    /**
+     * Adds the specified element to the stripe of the current thread, or to the next stripe that is not full.
+     *
+     * @param element element to be added
+     * @throws IllegalStateException if all stripes are full
+     */
+    public void add(E element) {
+        if (!offer(element)) {
+            throw new IllegalStateException(FULL_BUFFER_MESSAGE.formatted(element));
+        }
+    }
+
+    /**
+     * Passes all elements to the specified action and removes them from this buffer. The list of each stripe is
+     * swapped for an empty one in constant time, and its elements are passed to the action after the lock of the
+     * stripe was released. Concurrent calls of this method are serialized.
+     *
+     * <p>If the action throws an exception, the elements already passed to it are removed, so no element is passed to
+     * the action twice. The remaining elements of the stripe are put back in front of the elements added in the
+     * meantime, if the stripe has enough room for both. Otherwise, they are discarded.
+     *
+     * @param action the action to be performed for each element
+     * @return the number of drained elements
+     * @throws NullPointerException if the specified action is null
+     */
+    public int drain(Consumer<? super E> action) {
+        Objects.requireNonNull(action);
+        drainLock.lock();
+        try {
+            int drained = 0;
+            for (Stripe<E> stripe : stripes) {
+                CappedList<E> batch;
+                stripe.lock.lock();
+                try {
+                    batch = stripe.elements;
+                    stripe.elements = stripe.spare;
+                } finally {
+                    stripe.lock.unlock();
+                }
+                int size = batch.size();
+                int passed = 0;
+                try {
+                    while (passed < size) {
+                        action.accept(batch.get(passed++));
+                    }
+                } finally {
+                    removeFirst(batch, passed);
+                    stripe.spare = passed < size ? restore(stripe, batch) : batch;
+                }
+                drained += size;
+            }
+            return drained;
+        } finally {
+            drainLock.unlock();
+        }
+    }
+
+    /**
+     * Puts the remaining elements of a failed drain back into the given stripe, in front of the elements added in the
+     * meantime, if they fit. Returns the list that becomes the empty spare list of the stripe.
+     */
+    private static <E> CappedList<E> restore(Stripe<E> stripe, CappedList<E> remaining) {
+        stripe.lock.lock();
+        try {
+            CappedList<E> current = stripe.elements;
+            if (remaining.size() + current.size() > remaining.capacity()) {
+                remaining.shrink(0);
+                return remaining;
+            }
+            remaining.addAll(current);
+            current.shrink(0);
+            stripe.elements = remaining;
+            return current;
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    /**
+     * Removes the first {@code n} elements of the given list and keeps the order of the remaining ones. If all
+     * elements are removed, this runs in constant time.
+     */
+    private static <E> void removeFirst(CappedList<E> elements, int n) {
+        int remaining = elements.size() - n;
+        for (int i = 0; i < remaining; i++) {
+            elements.set(i, elements.get(n + i));
+        }
+        elements.shrink(remaining);
+    }
+
+    /**
+     * Performs the given action for each element of this buffer, without removing the elements. Each stripe is locked
+     * only while its elements are passed to the action.
+     *
+     * @param action the action to be performed for each element
+     * @throws NullPointerException if the specified action is null
+     */
+    public void forEach(Consumer<? super E> action) {
+        Objects.requireNonNull(action);
+        for (Stripe<E> stripe : stripes) {
+            stripe.lock.lock();
+            try {
+                stripe.elements.forEach(action);
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Removes all elements from this buffer. Each stripe is reset in constant time.
+     */
+    public void clear() {
+        for (Stripe<E> stripe : stripes) {
+            stripe.lock.lock();
+            try {
+                stripe.elements.shrink(0);
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Returns the number of elements in this buffer. Since the stripes are counted one after the other, the result is
+     * only exact if no other thread modifies the buffer concurrently.
+     *
+     * @return the number of elements in this buffer
+     */
+    public int size() {
+        int size = 0;
+        for (Stripe<E> stripe : stripes) {
+            stripe.lock.lock();
+            try {
+                size += stripe.elements.size();
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Returns the number of stripes of this buffer.
+     *
+     * @return the number of stripes
+     */
+    public int stripeCount() {
+        return stripes.length;
+    }
+
+    /**
+     * Gets the capacity of this buffer, which is the sum of the capacities of all stripes.
+     *
+     * @return the capacity of this buffer
+     */
+    public long capacity() {
+        return (long) stripes.length * stripes[0].elements.capacity();
+    }
+
+    private static final class Stripe<E> {
+        private final ReentrantLock lock = new ReentrantLock();
+        /**
+         * The list the elements are added to, guarded by the lock.
+         */
+        private CappedList<E> elements;
+        /**
+         * An empty list of the same capacity, that is only used by the draining thread.
+         */
+        private CappedList<E> spare;
+
+        private Stripe(int capacity) {
+            this.elements = new CappedList<>(capacity);
+            this.spare = new CappedList<>(capacity);
+        }
+    }
+
+    private static final class Probe {
+        private int value = (int) ((Thread.currentThread().threadId() * GOLDEN_RATIO) >>> 32) | 1;
+
+        /**
+         * Moves the probe to a pseudo-random other value by a xorshift step.
+         */
+        private void advance() {
+            value ^= value << 13;
+            value ^= value >>> 17;
+            value ^= value << 5;
+        }
+    }
+}
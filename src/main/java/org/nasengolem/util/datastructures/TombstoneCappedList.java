@@ -0,0 +1,422 @@
+package org.nasengolem.util.datastructures;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * {@code List} implementation with a fixed capacity, that removes elements by marking them instead of shifting the
+ * following elements. Like a {@link CappedList}, the list can never store more elements than its capacity and throws an
+ * {@code IllegalStateException} if elements are added to a full list.
+ *
+ * <p>A removed element leaves a <i>tombstone</i> in the backing array, which is recorded in a bitset. Removing an
+ * element through the iterator therefore runs in constant time, so filtering a list with
+ * {@code iterator().remove()}, {@link #removeIf(Predicate)} or {@code removeAll} runs in linear time instead of
+ * quadratic time. The tombstones are skipped by the iterator and by {@code get}, which counts the live elements with a
+ * rank over the bitset in {@code O(n / 64)}.
+ *
+ * <p>{@link #compact()} moves the live elements together in a single linear pass and truncates the backing array
+ * behind them. The list compacts itself automatically, when the share of tombstones exceeds the compaction threshold,
+ * when an element is inserted in the middle of the list, or when a full list has tombstones left. As long as the list
+ * has no tombstones, {@code get}, {@code set} and {@link #shrink(int)} run in constant time.
+ *
+ * @param <E> the type of the elements in this list
+ * @author Paul Steinbach
+ * @see CappedList
+ */
+public class TombstoneCappedList<E> extends AbstractShrinkableList<E>
+    implements List<E>, Shrinkable {
+
+    private static final String NEGATIVE_CAPACITY_MESSAGE = "Illegal capacity of %d. The capacity must be non-negative.";
+    private static final String ILLEGAL_THRESHOLD_MESSAGE = "Illegal compaction threshold of %s. The threshold must be "
+        + "greater than 0 and at most 1.";
+    private static final String NEGATIVE_RESIZE_MESSAGE = "Illegal newSize of %d. The newSize must be non-negative.";
+    private static final String SIZE_TOO_LARGE_MESSAGE = "Illegal newSize of %d for an original size of %d."
+        + " The newSize must be at least as small as the original size.";
+    private static final String FULL_LIST_MESSAGE = "Can't add the element '%s' to the list, since it is full.";
+
+    /**
+     * The default share of tombstones, above which the list compacts itself.
+     */
+    public static final double DEFAULT_COMPACTION_THRESHOLD = 0.25;
+
+    private final E[] elements;
+    private final long[] tombstones;
+    private final double compactionThreshold;
+    private int end;
+    private int tombstoneCount;
+
+    /**
+     * Constructs a new {@code TombstoneCappedList} with the {@link #DEFAULT_COMPACTION_THRESHOLD}.
+     *
+     * @param capacity the capacity defining the maximum number of elements the list can store
+     * @throws IllegalArgumentException if the capacity is negative
+     */
+    public TombstoneCappedList(int capacity) {
+        this(capacity, DEFAULT_COMPACTION_THRESHOLD);
+    }
+
+    /**
+     * Constructs a new {@code TombstoneCappedList}, that compacts itself when the share of tombstones in the backing
+     * array exceeds the given threshold.
+     *
+     * @param capacity            the capacity defining the maximum number of elements the list can store
+     * @param compactionThreshold the share of tombstones that triggers a compaction, in {@code (0, 1]}
+     * @throws IllegalArgumentException if the capacity is negative or the threshold is out of range
+     */
+    @SuppressWarnings("unchecked")
+    public TombstoneCappedList(int capacity, double compactionThreshold) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException(NEGATIVE_CAPACITY_MESSAGE.formatted(capacity));
+        } else if (!(compactionThreshold > 0.0 && compactionThreshold <= 1.0)) {
+            throw new IllegalArgumentException(ILLEGAL_THRESHOLD_MESSAGE.formatted(compactionThreshold));
+        }
+        this.elements = (E[]) new Object[capacity];
+        this.tombstones = new long[(capacity + Long.SIZE - 1) / Long.SIZE];
+        this.compactionThreshold = compactionThreshold;
+    }
+
+    private boolean isTombstone(int slot) {
+        return (tombstones[slot >>> 6] & (1L << slot)) != 0;
+    }
+
+    /**
+     * Returns the first slot at or after the given one, that holds a live element, or {@code end} if there is none.
+     */
+    private int nextLiveSlot(int slot) {
+        if (slot >= end) {
+            return end;
+        }
+        int word = slot >>> 6;
+        long live = ~tombstones[word] & (-1L << slot);
+        while (live == 0) {
+            if (++word << 6 >= end) {
+                return end;
+            }
+            live = ~tombstones[word];
+        }
+        return Math.min((word << 6) + Long.numberOfTrailingZeros(live), end);
+    }
+
+    /**
+     * Returns the slot of the live element at the given index.
+     */
+    private int slot(int index) {
+        if (tombstoneCount == 0) {
+            return index;
+        }
+        int remaining = index;
+        for (int word = 0; ; word++) {
+            long live = ~tombstones[word];
+            int count = Long.bitCount(live);
+            if (remaining < count) {
+                for (int i = 0; i < remaining; i++) {
+                    live &= live - 1;
+                }
+                return (word << 6) + Long.numberOfTrailingZeros(live);
+            }
+            remaining -= count;
+        }
+    }
+
+    /**
+     * Marks the element in the given slot as removed. The caller must check that the slot holds a live element.
+     */
+    private void markRemoved(int slot) {
+        elements[slot] = null;
+        if (slot == end - 1) {
+            end--;
+            while (end > 0 && isTombstone(end - 1)) {
+                end--;
+                tombstones[end >>> 6] &= ~(1L << end);
+                tombstoneCount--;
+            }
+        } else {
+            tombstones[slot >>> 6] |= 1L << slot;
+            tombstoneCount++;
+        }
+        modCount++;
+    }
+
+    private void compactIfNeeded() {
+        if (tombstoneCount > end * compactionThreshold) {
+            compact();
+        }
+    }
+
+    /**
+     * Moves all live elements together in a single linear pass, so the list has no tombstones afterward. The slots
+     * behind the last live element are released.
+     */
+    public void compact() {
+        if (tombstoneCount == 0) {
+            return;
+        }
+        int write = 0;
+        for (int read = nextLiveSlot(0); read < end; read = nextLiveSlot(read + 1)) {
+            elements[write++] = elements[read];
+        }
+        Arrays.fill(elements, write, end, null);
+        Arrays.fill(tombstones, 0, (end + Long.SIZE - 1) / Long.SIZE, 0L);
+        end = write;
+        tombstoneCount = 0;
+        modCount++;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>If the list has tombstones inside the removed range, this method clears their marks in {@code O(n / 64)}.
+     *
+     * @throws IllegalArgumentException {@inheritDoc}
+     */
+    @Override
+    public int shrink(int newSize) {
+        int oldSize = size();
+        if (newSize < 0) {
+            throw new IllegalArgumentException(NEGATIVE_RESIZE_MESSAGE.formatted(newSize));
+        } else if (newSize > oldSize) {
+            throw new IllegalArgumentException(SIZE_TOO_LARGE_MESSAGE.formatted(newSize, oldSize));
+        }
+        int newEnd = newSize == 0 ? 0 : slot(newSize - 1) + 1;
+        if (tombstoneCount > 0 && newEnd < end) {
+            int firstWord = newEnd >>> 6;
+            int lastWord = (end - 1) >>> 6;
+            for (int word = firstWord; word <= lastWord; word++) {
+                long mask = -1L;
+                if (word == firstWord) {
+                    mask &= -1L << newEnd;
+                }
+                if (word == lastWord) {
+                    mask &= -1L >>> -end;
+                }
+                tombstoneCount -= Long.bitCount(tombstones[word] & mask);
+                tombstones[word] &= ~mask;
+            }
+        }
+        end = newEnd;
+        modCount++;
+        return oldSize;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws IndexOutOfBoundsException {@inheritDoc}
+     */
+    @Override
+    public E get(int index) {
+        Objects.checkIndex(index, size());
+        return elements[slot(index)];
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @return the number of elements in this list
+     */
+    @Override
+    public int size() {
+        return end - tombstoneCount;
+    }
+
+    @Override
+    public E set(int index, E element) {
+        Objects.checkIndex(index, size());
+        int slot = slot(index);
+        E oldElement = elements[slot];
+        elements[slot] = element;
+        return oldElement;
+    }
+
+    /**
+     * Appends the specified element to the end of this list, if the list is not full already. If the backing array is
+     * full, but the list has tombstones, the list is compacted first.
+     *
+     * @param element element to be appended to this list
+     * @return {@code true}
+     * @throws IllegalStateException if the list reached its capacity
+     */
+    @Override
+    public boolean add(E element) {
+        if (end == capacity()) {
+            if (tombstoneCount == 0) {
+                throw new IllegalStateException(FULL_LIST_MESSAGE.formatted(element));
+            }
+            compact();
+        }
+        elements[end++] = element;
+        modCount++;
+        return true;
+    }
+
+    /**
+     * Inserts the specified element at the specified position in this list, if the list is not full already. The list
+     * is compacted first, then the element currently at that position (if any) and any subsequent elements are shifted
+     * to the right (adds one to their indices).
+     *
+     * @param index   index at which the specified element is to be inserted
+     * @param element element to be inserted
+     * @throws IndexOutOfBoundsException {@inheritDoc}
+     * @throws IllegalStateException     if the list reached its capacity
+     */
+    @Override
+    public void add(int index, E element) {
+        Objects.checkIndex(index, size() + 1);
+        if (size() == capacity()) {
+            throw new IllegalStateException(FULL_LIST_MESSAGE.formatted(element));
+        }
+        compact();
+        System.arraycopy(elements, index,
+            elements, index + 1,
+            end - index
+        );
+        elements[index] = element;
+        end++;
+        modCount++;
+    }
+
+    /**
+     * Removes the element at the specified position in this list by marking it as a tombstone. The indices of the
+     * subsequent elements decrease by one, but the elements are not moved, unless the removal triggers a compaction.
+     *
+     * @param index the index of the element to be removed
+     * @return the element that was removed from the list
+     * @throws IndexOutOfBoundsException {@inheritDoc}
+     */
+    @Override
+    public E remove(int index) {
+        Objects.checkIndex(index, size());
+        int slot = slot(index);
+        E removedElement = elements[slot];
+        markRemoved(slot);
+        compactIfNeeded();
+        return removedElement;
+    }
+
+    /**
+     * Removes all elements that satisfy the given predicate in a single linear pass and compacts the list afterward.
+     *
+     * @param filter a predicate which returns {@code true} for elements to be removed
+     * @return {@code true} if any elements were removed
+     * @throws NullPointerException if the specified filter is null
+     */
+    @Override
+    public boolean removeIf(Predicate<? super E> filter) {
+        Objects.requireNonNull(filter);
+        boolean removed = false;
+        for (int slot = nextLiveSlot(0); slot < end; slot = nextLiveSlot(slot + 1)) {
+            if (filter.test(elements[slot])) {
+                tombstones[slot >>> 6] |= 1L << slot;
+                tombstoneCount++;
+                removed = true;
+            }
+        }
+        if (removed) {
+            modCount++;
+            compact();
+        }
+        return removed;
+    }
+
+    @Override
+    public boolean removeAll(Collection<?> c) {
+        Objects.requireNonNull(c);
+        return removeIf(c::contains);
+    }
+
+    @Override
+    public boolean retainAll(Collection<?> c) {
+        Objects.requireNonNull(c);
+        return removeIf(element -> !c.contains(element));
+    }
+
+    @Override
+    public void forEach(Consumer<? super E> action) {
+        Objects.requireNonNull(action);
+        for (int slot = nextLiveSlot(0); slot < end; slot = nextLiveSlot(slot + 1)) {
+            action.accept(elements[slot]);
+        }
+    }
+
+    /**
+     * Returns an iterator over the elements in this list, that skips the tombstones. Removing an element through the
+     * iterator marks it as a tombstone in constant time and never compacts the list.
+     *
+     * @return an iterator over the elements in this list
+     */
+    @Override
+    public Iterator<E> iterator() {
+        return new Itr();
+    }
+
+    /**
+     * Returns the number of tombstones in the backing array, i.e. the number of removed elements that were not
+     * compacted yet.
+     *
+     * @return the number of tombstones
+     */
+    public int tombstoneCount() {
+        return tombstoneCount;
+    }
+
+    /**
+     * Returns {@code true} if this list is full. This means that no further elements can be added.
+     *
+     * @return {@code true} if this collection if full. This implementation returns {@code size() == capacity()}.
+     */
+    public boolean isFull() {
+        return size() == capacity();
+    }
+
+    /**
+     * Gets the capacity of this list. The capacity is the maximum number of elements this list can store.
+     *
+     * @return the capacity of this list
+     */
+    public int capacity() {
+        return elements.length;
+    }
+
+    private final class Itr implements Iterator<E> {
+        private int next = nextLiveSlot(0);
+        private int lastReturned = -1;
+        private int expectedModCount = modCount;
+
+        @Override
+        public boolean hasNext() {
+            return next < end;
+        }
+
+        @Override
+        public E next() {
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            } else if (next >= end) {
+                throw new NoSuchElementException();
+            }
+            lastReturned = next;
+            next = nextLiveSlot(next + 1);
+            return elements[lastReturned];
+        }
+
+        @Override
+        public void remove() {
+            if (lastReturned < 0) {
+                throw new IllegalStateException();
+            } else if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            markRemoved(lastReturned);
+            next = Math.min(next, end);
+            lastReturned = -1;
+            expectedModCount = modCount;
+        }
+    }
+}
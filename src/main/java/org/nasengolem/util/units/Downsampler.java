@@ -0,0 +1,351 @@
+package org.nasengolem.util.units;
+
+import org.nasengolem.util.datastructures.Shrinkable;
+
+import java.util.Arrays;
+
+/**
+ * Incrementally downsamples a time series of {@link Temperature} or {@link Length} readings into buckets of a fixed
+ * width. Every bucket keeps the minimum, maximum, mean, first and last value of its samples, so the raw samples never
+ * have to be materialized. The buckets live in a ring of {@code capacity} slots made of primitive arrays: the slot of
+ * a bucket is its number modulo the capacity, and a sample for a newer bucket rolls the window forward in constant
+ * time by taking over the slot of the oldest bucket. The memory of a series is therefore fixed at about 90 bytes per
+ * slot, no matter how many samples it receives.
+ *
+ * <p>The values are stored in the base unit of the quantity and converted on output, so samples may be given in any
+ * unit of the same quantity, and the buckets can be read in any of them. The size of a downsampler is the number of
+ * bucket positions in its window, including empty ones. Like a {@code CappedList}, it can be shrunk in constant time,
+ * which drops the oldest buckets.
+ *
+ * <p>Besides the plain buckets, {@link #lttb(PhysicalQuantity.Unit, long[], double[])} selects one representative
+ * point per bucket with the Largest-Triangle-Three-Buckets algorithm, using the first, minimum, maximum and last sample
+ * of each bucket as candidates.
+ *
+ * @author Paul Steinbach
+ * @see Shrinkable
+ */
+public class Downsampler implements Shrinkable {
+    private static final String ILLEGAL_CAPACITY_MESSAGE = "Illegal capacity of %d. The capacity must be positive.";
+    private static final String ILLEGAL_BUCKET_WIDTH_MESSAGE = "Illegal bucket width of %d. The bucket width must be "
+            + "positive.";
+    private static final String INCOMPATIBLE_UNIT_MESSAGE = "The unit '%s' is not compatible with the unit '%s' of "
+            + "this series.";
+    private static final String NEGATIVE_RESIZE_MESSAGE = "Illegal newSize of %d. The newSize must be non-negative.";
+    private static final String SIZE_TOO_LARGE_MESSAGE = "Illegal newSize of %d for an original size of %d."
+            + " The newSize must be at least as small as the original size.";
+    private static final String DESTINATION_TOO_SMALL_MESSAGE = "The destination arrays of length %d and %d are too "
+            + "small for the buckets of this series.";
+
+    private final PhysicalQuantity.Unit unit;
+    private final long bucketWidth;
+    private final int capacity;
+
+    private final long[] bucketNumbers;
+    private final int[] epochs;
+    private final int[] counts;
+    private final double[] sums;
+    private final double[] mins;
+    private final double[] maxs;
+    private final double[] firsts;
+    private final double[] lasts;
+    private final long[] minTimes;
+    private final long[] maxTimes;
+    private final long[] firstTimes;
+    private final long[] lastTimes;
+
+    private int epoch = 1;
+    private long newest;
+    private int size;
+
+    /**
+     * Creates an empty downsampler.
+     *
+     * @param unit        any unit of the quantity of this series
+     * @param bucketWidth the width of a bucket, in the same time unit as the timestamps of the samples
+     * @param capacity    the maximum number of buckets
+     * @throws IllegalArgumentException if the bucket width or the capacity is not positive
+     */
+    public Downsampler(PhysicalQuantity.Unit unit, long bucketWidth, int capacity) {
+        if (bucketWidth <= 0) {
+            throw new IllegalArgumentException(ILLEGAL_BUCKET_WIDTH_MESSAGE.formatted(bucketWidth));
+        } else if (capacity <= 0) {
+            throw new IllegalArgumentException(ILLEGAL_CAPACITY_MESSAGE.formatted(capacity));
+        }
+        this.unit = unit;
+        this.bucketWidth = bucketWidth;
+        this.capacity = capacity;
+        this.bucketNumbers = new long[capacity];
+        this.epochs = new int[capacity];
+        this.counts = new int[capacity];
+        this.sums = new double[capacity];
+        this.mins = new double[capacity];
+        this.maxs = new double[capacity];
+        this.firsts = new double[capacity];
+        this.lasts = new double[capacity];
+        this.minTimes = new long[capacity];
+        this.maxTimes = new long[capacity];
+        this.firstTimes = new long[capacity];
+        this.lastTimes = new long[capacity];
+    }
+
+    /**
+     * Adds a sample to its bucket. Samples may arrive out of order, as long as their bucket is still in the window.
+     *
+     * @return {@code true} if the sample was added, {@code false} if its bucket is older than the window
+     * @throws IllegalArgumentException if the unit is not a unit of the quantity of this series
+     */
+    public boolean add(long timestamp, double value, PhysicalQuantity.Unit unit) {
+        checkUnit(unit);
+        return record(timestamp, unit.toBaseUnit(value));
+    }
+
+    /**
+     * Adds a sample to its bucket.
+     *
+     * @return {@code true} if the sample was added, {@code false} if its bucket is older than the window
+     * @throws IllegalArgumentException if the quantity is not of the quantity of this series
+     */
+    public boolean add(long timestamp, PhysicalQuantity quantity) {
+        checkUnit(quantity.getInternalUnit());
+        return record(timestamp, quantity.valueInBaseUnit);
+    }
+
+    private boolean record(long timestamp, double value) {
+        long bucket = Math.floorDiv(timestamp, bucketWidth);
+        if (size == 0) {
+            newest = bucket;
+            size = 1;
+        } else if (bucket > newest) {
+            long gap = bucket - newest;
+            size = gap < 0 || gap >= capacity - size ? capacity : size + (int) gap;
+            newest = bucket;
+        } else if (newest - bucket >= size) {
+            return false;
+        }
+
+        int slot = slot(bucket);
+        if (epochs[slot] != epoch || bucketNumbers[slot] != bucket) {
+            epochs[slot] = epoch;
+            bucketNumbers[slot] = bucket;
+            counts[slot] = 1;
+            sums[slot] = value;
+            mins[slot] = maxs[slot] = firsts[slot] = lasts[slot] = value;
+            minTimes[slot] = maxTimes[slot] = firstTimes[slot] = lastTimes[slot] = timestamp;
+            return true;
+        }
+        counts[slot]++;
+        sums[slot] += value;
+        if (value < mins[slot]) {
+            mins[slot] = value;
+            minTimes[slot] = timestamp;
+        }
+        if (value > maxs[slot]) {
+            maxs[slot] = value;
+            maxTimes[slot] = timestamp;
+        }
+        if (timestamp < firstTimes[slot]) {
+            firsts[slot] = value;
+            firstTimes[slot] = timestamp;
+        }
+        if (timestamp >= lastTimes[slot]) {
+            lasts[slot] = value;
+            lastTimes[slot] = timestamp;
+        }
+        return true;
+    }
+
+    private void checkUnit(PhysicalQuantity.Unit unit) {
+        if (unit.getClass() != this.unit.getClass()) {
+            throw new IllegalArgumentException(INCOMPATIBLE_UNIT_MESSAGE.formatted(unit, this.unit));
+        }
+    }
+
+    private int slot(long bucket) {
+        return Math.floorMod(bucket, capacity);
+    }
+
+    private boolean isFilled(long bucket) {
+        int slot = slot(bucket);
+        return epochs[slot] == epoch && bucketNumbers[slot] == bucket;
+    }
+
+    /**
+     * Passes every non-empty bucket of the window to the given consumer, from the oldest to the newest, with all
+     * values converted to the given unit.
+     *
+     * @return the number of non-empty buckets
+     * @throws IllegalArgumentException if the unit is not a unit of the quantity of this series
+     */
+    public int forEachBucket(PhysicalQuantity.Unit unit, BucketConsumer action) {
+        checkUnit(unit);
+        int buckets = 0;
+        for (int i = 0; i < size; i++) {
+            long bucket = newest - size + 1 + i;
+            if (isFilled(bucket)) {
+                int slot = slot(bucket);
+                action.accept(bucket * bucketWidth, unit.fromBaseUnit(mins[slot]), unit.fromBaseUnit(maxs[slot]),
+                        unit.fromBaseUnit(sums[slot] / counts[slot]), unit.fromBaseUnit(lasts[slot]), counts[slot]);
+                buckets++;
+            }
+        }
+        return buckets;
+    }
+
+    /**
+     * Selects one point per non-empty bucket with the Largest-Triangle-Three-Buckets algorithm and writes them to the
+     * given arrays, from the oldest to the newest. The first bucket contributes its first sample and the last bucket
+     * its last sample. Every other bucket contributes the candidate, that spans the largest triangle with the point
+     * selected for the previous bucket and the mean of the next bucket. Arrays of length {@link #size()} are always
+     * large enough.
+     *
+     * @return the number of points written
+     * @throws IllegalArgumentException if the unit is not a unit of the quantity of this series, or if the arrays are
+     *                                  too small
+     */
+    public int lttb(PhysicalQuantity.Unit unit, long[] timestamps, double[] values) {
+        checkUnit(unit);
+        int points = 0;
+        int current = -1;
+        long previousTime = 0L;
+        double previousValue = 0.0;
+        for (int i = 0; i < size; i++) {
+            long bucket = newest - size + 1 + i;
+            if (!isFilled(bucket)) {
+                continue;
+            }
+            int next = slot(bucket);
+            if (current >= 0) {
+                long time;
+                double value;
+                if (points == 0) {
+                    time = firstTimes[current];
+                    value = firsts[current];
+                } else {
+                    long nextTime = firstTimes[next] + (lastTimes[next] - firstTimes[next]) / 2;
+                    double nextValue = sums[next] / counts[next];
+                    int candidate = largestTriangle(current, previousTime, previousValue, nextTime, nextValue);
+                    time = candidateTime(current, candidate);
+                    value = candidateValue(current, candidate);
+                }
+                write(timestamps, values, points++, time, unit.fromBaseUnit(value));
+                previousTime = time;
+                previousValue = value;
+            }
+            current = next;
+        }
+        if (current >= 0) {
+            write(timestamps, values, points++, lastTimes[current], unit.fromBaseUnit(lasts[current]));
+        }
+        return points;
+    }
+
+    /**
+     * Returns the index of the candidate of the given slot, that spans the largest triangle with the two given points.
+     * The candidates are the first, minimum, maximum and last sample, in this order.
+     */
+    private int largestTriangle(int slot, long previousTime, double previousValue, long nextTime, double nextValue) {
+        int largest = 0;
+        double largestArea = -1.0;
+        for (int candidate = 0; candidate < 4; candidate++) {
+            double area = Math.abs(
+                    (double) (candidateTime(slot, candidate) - previousTime) * (nextValue - previousValue)
+                    - (double) (nextTime - previousTime) * (candidateValue(slot, candidate) - previousValue));
+            if (area > largestArea) {
+                largest = candidate;
+                largestArea = area;
+            }
+        }
+        return largest;
+    }
+
+    private long candidateTime(int slot, int candidate) {
+        return switch (candidate) {
+            case 0 -> firstTimes[slot];
+            case 1 -> minTimes[slot];
+            case 2 -> maxTimes[slot];
+            default -> lastTimes[slot];
+        };
+    }
+
+    private double candidateValue(int slot, int candidate) {
+        return switch (candidate) {
+            case 0 -> firsts[slot];
+            case 1 -> mins[slot];
+            case 2 -> maxs[slot];
+            default -> lasts[slot];
+        };
+    }
+
+    private static void write(long[] timestamps, double[] values, int index, long time, double value) {
+        if (index >= timestamps.length || index >= values.length) {
+            throw new IllegalArgumentException(DESTINATION_TOO_SMALL_MESSAGE.formatted(timestamps.length,
+                    values.length));
+        }
+        timestamps[index] = time;
+        values[index] = value;
+    }
+
+    /**
+     * Drops the oldest buckets, so that only the newest {@code newSize} bucket positions remain in the window.
+     *
+     * @return the old size
+     * @throws IllegalArgumentException if the new size is negative or greater than the current size
+     */
+    @Override
+    public int shrink(int newSize) {
+        int oldSize = size;
+        if (newSize < 0) {
+            throw new IllegalArgumentException(NEGATIVE_RESIZE_MESSAGE.formatted(newSize));
+        } else if (newSize > oldSize) {
+            throw new IllegalArgumentException(SIZE_TOO_LARGE_MESSAGE.formatted(newSize, oldSize));
+        }
+        if (newSize == 0) {
+            clear();
+        } else {
+            size = newSize;
+        }
+        return oldSize;
+    }
+
+    /**
+     * Removes all buckets in constant time, by invalidating the slots instead of overwriting them.
+     */
+    public void clear() {
+        size = 0;
+        if (++epoch == 0) {
+            Arrays.fill(epochs, 0);
+            epoch = 1;
+        }
+    }
+
+    /**
+     * Returns the number of bucket positions in the window, including empty buckets.
+     */
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    public long getBucketWidth() {
+        return bucketWidth;
+    }
+
+    public PhysicalQuantity.Unit getUnit() {
+        return unit;
+    }
+
+    /**
+     * Consumer of the aggregates of a bucket.
+     */
+    @FunctionalInterface
+    public interface BucketConsumer {
+        void accept(long bucketStart, double min, double max, double mean, double last, int count);
+    }
+}
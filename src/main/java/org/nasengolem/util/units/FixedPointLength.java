@@ -0,0 +1,220 @@
+package org.nasengolem.util.units;
+
+/**
+ * Exact fixed-point length, stored as a {@code long} count of nanometres. Since every {@link Length.Unit} is an
+ * integer multiple of a nanometre, whole values in any unit are represented exactly, and {@code equals},
+ * {@code hashCode} and {@code compareTo} don't depend on floating-point rounding. Arithmetic and rounding only use
+ * {@code long} operations and throw an {@code ArithmeticException} on overflow, so the representable range is about
+ * &plusmn;9.2 million kilometres.
+ *
+ * @author Paul Steinbach
+ * @see Length
+ */
+public final class FixedPointLength implements Comparable<FixedPointLength> {
+    private static final String ILLEGAL_DECIMAL_PLACES_MESSAGE = "Illegal number of %d decimal places. The number "
+            + "must be between 0 and 18.";
+    private static final String OUT_OF_RANGE_MESSAGE = "The value %s %s is out of the range of a FixedPointLength.";
+
+    private static final Length.Unit INTERNAL_UNIT = Length.Unit.METRE;
+    private static final int DEFAULT_DECIMAL_PLACES = 2;
+    private static final int MAX_DECIMAL_PLACES = 18;
+    private static final long[] POWERS_OF_TEN = new long[MAX_DECIMAL_PLACES + 1];
+
+    public static final FixedPointLength ZERO = new FixedPointLength(0L);
+
+    static {
+        POWERS_OF_TEN[0] = 1L;
+        for (int i = 1; i <= MAX_DECIMAL_PLACES; i++) {
+            POWERS_OF_TEN[i] = 10 * POWERS_OF_TEN[i - 1];
+        }
+    }
+
+    private final long nanometres;
+
+    private FixedPointLength(long nanometres) {
+        this.nanometres = nanometres;
+    }
+
+    public static FixedPointLength ofNanometres(long nanometres) {
+        return new FixedPointLength(nanometres);
+    }
+
+    public static FixedPointLength of(long value, Length.Unit unit) {
+        return new FixedPointLength(Math.multiplyExact(value, unit.getNanometres()));
+    }
+
+    /**
+     * Creates a length from a floating-point value, rounded to the nearest nanometre.
+     *
+     * @throws ArithmeticException if the value is not finite or out of range
+     */
+    public static FixedPointLength of(double value, Length.Unit unit) {
+        double nanometres = Math.rint(value * unit.getNanometres());
+        if (!(Math.abs(nanometres) < 0x1p63)) {
+            throw new ArithmeticException(OUT_OF_RANGE_MESSAGE.formatted(value, unit.getAbbreviation()));
+        }
+        return new FixedPointLength((long) nanometres);
+    }
+
+    public static FixedPointLength of(Length length) {
+        return of(length.getValue(INTERNAL_UNIT), INTERNAL_UNIT);
+    }
+
+    public long getNanometres() {
+        return nanometres;
+    }
+
+    public double getValue(Length.Unit unit) {
+        long factor = unit.getNanometres();
+        return (double) (nanometres / factor) + (double) (nanometres % factor) / factor;
+    }
+
+    /**
+     * Returns the value in the given unit, scaled by {@code 10^decimalPlaces} and rounded half up, i.e. the unscaled
+     * value of the rounded decimal. The ratio of the scale and the unit is reduced by their greatest common divisor
+     * first, so the result is exact as long as it fits into a {@code long}.
+     *
+     * @throws IllegalArgumentException if the number of decimal places is not between 0 and 18
+     * @throws ArithmeticException      if the scaled value overflows
+     */
+    public long getScaledValue(Length.Unit unit, int decimalPlaces) {
+        if (decimalPlaces < 0 || decimalPlaces > MAX_DECIMAL_PLACES) {
+            throw new IllegalArgumentException(ILLEGAL_DECIMAL_PLACES_MESSAGE.formatted(decimalPlaces));
+        }
+        long scale = POWERS_OF_TEN[decimalPlaces];
+        long factor = unit.getNanometres();
+        long gcd = gcd(scale, factor);
+        return divideHalfUp(Math.multiplyExact(nanometres, scale / gcd), factor / gcd);
+    }
+
+    public FixedPointLength roundTo(Length.Unit unit) {
+        return of(divideHalfUp(nanometres, unit.getNanometres()), unit);
+    }
+
+    public FixedPointLength plus(FixedPointLength other) {
+        return new FixedPointLength(Math.addExact(nanometres, other.nanometres));
+    }
+
+    public FixedPointLength minus(FixedPointLength other) {
+        return new FixedPointLength(Math.subtractExact(nanometres, other.nanometres));
+    }
+
+    public FixedPointLength multipliedBy(long factor) {
+        return new FixedPointLength(Math.multiplyExact(nanometres, factor));
+    }
+
+    /**
+     * Divides this length by the given divisor, rounded half up to the nearest nanometre.
+     *
+     * @throws ArithmeticException if the divisor is zero
+     */
+    public FixedPointLength dividedBy(long divisor) {
+        return new FixedPointLength(divideHalfUp(nanometres, divisor));
+    }
+
+    public FixedPointLength negated() {
+        return new FixedPointLength(Math.negateExact(nanometres));
+    }
+
+    public FixedPointLength abs() {
+        return nanometres < 0 ? negated() : this;
+    }
+
+    public int signum() {
+        return Long.signum(nanometres);
+    }
+
+    public Length toLength() {
+        return new Length(getValue(INTERNAL_UNIT), INTERNAL_UNIT);
+    }
+
+    public String toString(Length.Unit unit, int decimalPlaces, boolean abbreviateUnitName) {
+        long scaledValue = getScaledValue(unit, decimalPlaces);
+        long scale = POWERS_OF_TEN[decimalPlaces];
+
+        String unitName;
+        if (abbreviateUnitName) {
+            unitName = unit.getAbbreviation();
+        } else if (scaledValue == scale) {
+            unitName = unit.getSingularName();
+        } else {
+            unitName = unit.getPluralName();
+        }
+
+        return formatScaled(scaledValue, decimalPlaces) + " " + unitName;
+    }
+
+    public String toString(Length.Unit unit, int decimalPlaces) {
+        return toString(unit, decimalPlaces, false);
+    }
+
+    public String toString(Length.Unit unit) {
+        return toString(unit, DEFAULT_DECIMAL_PLACES);
+    }
+
+    @Override
+    public String toString() {
+        return toString(INTERNAL_UNIT);
+    }
+
+    @Override
+    public int compareTo(FixedPointLength other) {
+        return Long.compare(nanometres, other.nanometres);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof FixedPointLength other && nanometres == other.nanometres;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(nanometres);
+    }
+
+    private static String formatScaled(long scaledValue, int decimalPlaces) {
+        String digits = Long.toString(Math.abs(scaledValue));
+        if (scaledValue == Long.MIN_VALUE) {
+            digits = digits.substring(1);
+        }
+        StringBuilder builder = new StringBuilder(digits.length() + decimalPlaces + 3);
+        if (scaledValue < 0) {
+            builder.append('-');
+        }
+        if (decimalPlaces == 0) {
+            return builder.append(digits).toString();
+        }
+        if (digits.length() <= decimalPlaces) {
+            builder.append("0.").repeat('0', decimalPlaces - digits.length()).append(digits);
+        } else {
+            int point = digits.length() - decimalPlaces;
+            builder.append(digits, 0, point).append('.').append(digits, point, digits.length());
+        }
+        return builder.toString();
+    }
+
+    private static long gcd(long a, long b) {
+        while (b != 0) {
+            long t = a % b;
+            a = b;
+            b = t;
+        }
+        return a;
+    }
+
+    /**
+     * Divides the numerator by the denominator and rounds half away from zero, like {@code RoundingMode.HALF_UP}.
+     */
+    private static long divideHalfUp(long numerator, long denominator) {
+        if (denominator < 0) {
+            numerator = Math.negateExact(numerator);
+            denominator = Math.negateExact(denominator);
+        }
+        long quotient = numerator / denominator;
+        long remainder = Math.abs(numerator % denominator);
+        if (remainder >= denominator - remainder) {
+            quotient += Long.signum(numerator);
+        }
+        return quotient;
+    }
+}
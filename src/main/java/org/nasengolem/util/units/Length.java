@@ -19,37 +19,38 @@ public class Length extends PhysicalQuantity {
     }
 
     public enum Unit implements PhysicalQuantity.Unit {
-        METRE("metre", "metres", "m"
+        METRE("metre", "metres", "m", 1_000_000_000L
                 , (double metres) -> metres
                 , (double metres) -> metres),
-        KILOMETRE("kilometre", "kilometres", "km"
+        KILOMETRE("kilometre", "kilometres", "km", 1_000_000_000_000L
                 , (double kilometres) -> 1000 * kilometres
                 , (double metres) -> metres / 1000),
-        CENTIMETRE("centimetre", "centimetres", "cm"
+        CENTIMETRE("centimetre", "centimetres", "cm", 10_000_000L
                 , (double centimetres) -> centimetres / 100
                 , (double metres) -> 100 * metres),
-        MILLIMETRE("millimetre", "millimetres", "mm"
+        MILLIMETRE("millimetre", "millimetres", "mm", 1_000_000L
                 , (double millimetres) -> millimetres / 1000
                 , (double metres) -> 1000 * metres),
-        INCH("inch", "inches", "in"
+        INCH("inch", "inches", "in", 25_400_000L
                 , (double inches) -> 0.0254 * inches
                 , (double metres) -> metres / 0.0254),
-        FOOT("foot", "feet", "ft"
+        FOOT("foot", "feet", "ft", 304_800_000L
                 , (double feet) -> 0.3048 * feet
                 , (double metres) -> metres / 0.3048),
-        YARD("yard", "yards", "yd"
+        YARD("yard", "yards", "yd", 914_400_000L
                 , (double yards) -> 0.9144 * yards
                 , (double metres) -> metres / 0.9144),
-        MILE("mile", "miles", "mi"
+        MILE("mile", "miles", "mi", 1_609_344_000_000L
                 , (double miles) -> 1609.344 * miles
                 , (double metres) -> metres / 1609.344),
-        NAUTICAL_MILE("nautical mile", "nautical miles", "nmi"
+        NAUTICAL_MILE("nautical mile", "nautical miles", "nmi", 1_852_000_000_000L
                 , (double nauticalMiles) -> 1852 * nauticalMiles
                 , (double metres) -> metres / 1852);
 
         private final String singularName;
         private final String pluralName;
         private final String abbreviation;
+        private final long nanometres;
         private final ToMetreConverter toMetreConverter;
         private final FromMetreConverter fromMetreConverter;
 
@@ -63,11 +64,12 @@ public class Length extends PhysicalQuantity {
             double fromMetre(double length);
         }
 
-        Unit(String singularName, String pluralName, String abbreviation, ToMetreConverter toMetreConverter
-                , FromMetreConverter fromMetreConverter) {
+        Unit(String singularName, String pluralName, String abbreviation, long nanometres
+                , ToMetreConverter toMetreConverter, FromMetreConverter fromMetreConverter) {
             this.singularName = singularName;
             this.pluralName = pluralName;
             this.abbreviation = abbreviation;
+            this.nanometres = nanometres;
             this.toMetreConverter = toMetreConverter;
             this.fromMetreConverter = fromMetreConverter;
         }
@@ -96,5 +98,13 @@ public class Length extends PhysicalQuantity {
         public String getAbbreviation() {
             return abbreviation;
         }
+
+        /**
+         * Returns the exact length of one unit in nanometres. All units of this enum are integer multiples of a
+         * nanometre, which makes them usable by {@link FixedPointLength}.
+         */
+        public long getNanometres() {
+            return nanometres;
+        }
     }
 }
\ No newline at end of file
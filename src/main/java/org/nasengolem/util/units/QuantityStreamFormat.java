@@ -0,0 +1,104 @@
+package org.nasengolem.util.units;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Constants and helpers shared by {@link QuantityStreamWriter} and {@link QuantityStreamReader}.
+ *
+ * <p>A stream starts with a header of {@value #HEADER_SIZE} bytes:
+ *
+ * <pre>
+ *      int    magic number
+ *      byte   format version
+ *      byte   quantity type (0 = length, 1 = temperature)
+ *      byte   ordinal of the unit in its enum
+ *      byte   encoding (0 = raw doubles, 1 = quantized)
+ *      double quantum of the quantized encoding
+ *      int    maximum number of values per block
+ * </pre>
+ *
+ * <p>The header is followed by blocks, each consisting of an {@code int} payload length in bytes, an {@code int} value
+ * count and the payload. Every block starts with a fresh delta state, so blocks can be decoded independently. In the
+ * quantized encoding, a value is stored as the zigzag-encoded difference of its multiple of the quantum to the
+ * previous one, written as an unsigned variable-length integer with 7 bits per byte. In the raw encoding, the XOR of
+ * the bits of a value with the bits of the previous value is packed into a bit stream, most significant bit first:
+ *
+ * <pre>
+ *      0                                   the value equals the previous one
+ *      10 bits                             the XOR fits into the window of leading and trailing zeros of the last
+ *                                          value stored with a new window, only the bits inside the window follow
+ *      11 leading(6) length-1(6) bits      the XOR is stored with a new window of the given number of leading zeros
+ *                                          and meaningful bits
+ * </pre>
+ *
+ * <p>The bit stream of a block is padded with zeros to whole bytes. Values that change slowly or have few significant
+ * mantissa bits, like integer readings, only need a few bits each.
+ *
+ * @author Paul Steinbach
+ */
+final class QuantityStreamFormat {
+    static final int MAGIC = 0x51535452;
+    static final byte VERSION = 1;
+    static final int HEADER_SIZE = 20;
+    static final int BLOCK_HEADER_SIZE = 8;
+    /**
+     * The maximum number of bytes per value, which is the size of the longest variable-length integer. A raw value
+     * needs at most 78 bits.
+     */
+    static final int MAX_VALUE_SIZE = 10;
+
+    static final byte LENGTH = 0;
+    static final byte TEMPERATURE = 1;
+
+    static final byte RAW = 0;
+    static final byte QUANTIZED = 1;
+
+    private static final String UNSUPPORTED_UNIT_MESSAGE = "The unit '%s' is not supported by the binary format.";
+
+    private QuantityStreamFormat() {
+    }
+
+    static byte quantityType(PhysicalQuantity.Unit unit) {
+        if (unit instanceof Length.Unit) {
+            return LENGTH;
+        } else if (unit instanceof Temperature.Unit) {
+            return TEMPERATURE;
+        }
+        throw new IllegalArgumentException(UNSUPPORTED_UNIT_MESSAGE.formatted(unit));
+    }
+
+    static byte unitOrdinal(PhysicalQuantity.Unit unit) {
+        return (byte) ((Enum<?>) unit).ordinal();
+    }
+
+    /**
+     * Returns the unit with the given codes, or {@code null} if the codes are unknown.
+     */
+    static PhysicalQuantity.Unit unit(byte quantityType, byte unitOrdinal) {
+        PhysicalQuantity.Unit[] units = switch (quantityType) {
+            case LENGTH -> Length.Unit.values();
+            case TEMPERATURE -> Temperature.Unit.values();
+            default -> null;
+        };
+        if (units == null || unitOrdinal < 0 || unitOrdinal >= units.length) {
+            return null;
+        }
+        return units[unitOrdinal];
+    }
+
+    static void putVarLong(ByteBuffer buffer, long value) {
+        while ((value & ~0x7FL) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
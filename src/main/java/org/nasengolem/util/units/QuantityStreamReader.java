@@ -0,0 +1,250 @@
+package org.nasengolem.util.units;
+
+import org.nasengolem.util.datastructures.CappedList;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Objects;
+
+/**
+ * Reads a stream of quantity values written by a {@link QuantityStreamWriter} from a memory-mapped file. The values
+ * are decoded block by block straight into a {@code double[]} or a {@link CappedList}, without creating a
+ * {@link PhysicalQuantity} per value. Large files are mapped in windows, so the file size is not limited by the size
+ * of a single mapping.
+ *
+ * @author Paul Steinbach
+ * @see QuantityStreamWriter
+ */
+public class QuantityStreamReader implements Closeable {
+    private static final String ILLEGAL_HEADER_MESSAGE = "The file '%s' does not start with a valid header.";
+    private static final String ILLEGAL_QUANTUM_MESSAGE = "The file '%s' has an illegal quantum of %s. The quantum "
+            + "must be positive and finite.";
+    private static final String CORRUPTED_BLOCK_MESSAGE = "The block at position %d of the file '%s' is corrupted.";
+
+    private static final int WINDOW_SIZE = 1 << 26;
+
+    private final Path path;
+    private final FileChannel channel;
+    private final long fileSize;
+    private final PhysicalQuantity.Unit unit;
+    private final double quantum;
+
+    private MappedByteBuffer window;
+    private long windowStart;
+    private long nextBlock;
+    private int index;
+    private int remaining;
+    private long previous;
+    private int previousLeading;
+    private int previousTrailing;
+    private long pendingBits;
+    private int pendingBitCount;
+
+    private QuantityStreamReader(Path path, FileChannel channel) throws IOException {
+        this.path = path;
+        this.channel = channel;
+        this.fileSize = channel.size();
+        if (fileSize < QuantityStreamFormat.HEADER_SIZE) {
+            throw new IOException(ILLEGAL_HEADER_MESSAGE.formatted(path));
+        }
+        map(0L, QuantityStreamFormat.HEADER_SIZE);
+        ByteBuffer header = window;
+        PhysicalQuantity.Unit headerUnit = QuantityStreamFormat.unit(header.get(5), header.get(6));
+        byte encoding = header.get(7);
+        if (header.getInt(0) != QuantityStreamFormat.MAGIC || header.get(4) != QuantityStreamFormat.VERSION
+                || headerUnit == null
+                || (encoding != QuantityStreamFormat.RAW && encoding != QuantityStreamFormat.QUANTIZED)) {
+            throw new IOException(ILLEGAL_HEADER_MESSAGE.formatted(path));
+        }
+        this.unit = headerUnit;
+        this.quantum = encoding == QuantityStreamFormat.RAW ? 0.0 : header.getDouble(8);
+        if (encoding == QuantityStreamFormat.QUANTIZED && !(quantum > 0.0 && quantum < Double.POSITIVE_INFINITY)) {
+            throw new IOException(ILLEGAL_QUANTUM_MESSAGE.formatted(path, quantum));
+        }
+        this.nextBlock = QuantityStreamFormat.HEADER_SIZE;
+    }
+
+    /**
+     * Opens the given file and reads its header.
+     *
+     * @throws IOException if the file can't be opened or has no valid header
+     */
+    public static QuantityStreamReader open(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            return new QuantityStreamReader(path, channel);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    public PhysicalQuantity.Unit getUnit() {
+        return unit;
+    }
+
+    public double getQuantum() {
+        return quantum;
+    }
+
+    /**
+     * Decodes up to {@code length} values into the given array.
+     *
+     * @return the number of decoded values, or {@code -1} if the end of the stream was reached
+     * @throws IOException if the file is corrupted
+     */
+    public int read(double[] destination, int offset, int length) throws IOException {
+        Objects.checkFromIndexSize(offset, length, destination.length);
+        int read = 0;
+        while (read < length) {
+            if (remaining == 0 && !nextBlock()) {
+                return read == 0 ? -1 : read;
+            }
+            int n = Math.min(length - read, remaining);
+            decode(destination, offset + read, n);
+            read += n;
+        }
+        return read;
+    }
+
+    public int read(double[] destination) throws IOException {
+        return read(destination, 0, destination.length);
+    }
+
+    /**
+     * Decodes values and appends them to the given list, until the list is full or the stream ends.
+     *
+     * @return the number of decoded values, or {@code -1} if the end of the stream was reached
+     * @throws IOException if the file is corrupted
+     */
+    public int read(CappedList<? super Double> destination) throws IOException {
+        double[] buffer = new double[Math.min(destination.capacity() - destination.size(), 1024)];
+        int read = 0;
+        while (buffer.length > 0 && !destination.isFull()) {
+            int n = read(buffer, 0, Math.min(buffer.length, destination.capacity() - destination.size()));
+            if (n < 0) {
+                return read == 0 ? -1 : read;
+            }
+            for (int i = 0; i < n; i++) {
+                destination.add(buffer[i]);
+            }
+            read += n;
+        }
+        return read;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private void decode(double[] destination, int offset, int length) throws IOException {
+        for (int i = offset; i < offset + length; i++) {
+            if (quantum == 0.0) {
+                previous ^= readXor();
+                destination[i] = Double.longBitsToDouble(previous);
+            } else {
+                previous += QuantityStreamFormat.unzigzag(readVarLong());
+                destination[i] = previous * quantum;
+            }
+        }
+        remaining -= length;
+    }
+
+    /**
+     * Reads the XOR of a raw value with the previous one from the bit stream of the current block.
+     */
+    private long readXor() throws IOException {
+        if (readBits(1) == 0L) {
+            return 0L;
+        }
+        if (readBits(1) == 1L) {
+            previousLeading = (int) readBits(6);
+            previousTrailing = 64 - previousLeading - ((int) readBits(6) + 1);
+            if (previousTrailing < 0) {
+                throw new IOException(CORRUPTED_BLOCK_MESSAGE.formatted(nextBlock, path));
+            }
+        } else if (previousLeading < 0) {
+            throw new IOException(CORRUPTED_BLOCK_MESSAGE.formatted(nextBlock, path));
+        }
+        return readBits(64 - previousLeading - previousTrailing) << previousTrailing;
+    }
+
+    /**
+     * Reads the next {@code n} bits from the bit stream of the current block.
+     */
+    private long readBits(int n) throws IOException {
+        if (n > 32) {
+            long high = readBits(n - 32);
+            return (high << 32) | readBits(32);
+        }
+        while (pendingBitCount < n) {
+            if (index >= window.limit()) {
+                throw new IOException(CORRUPTED_BLOCK_MESSAGE.formatted(nextBlock, path));
+            }
+            pendingBits = (pendingBits << 8) | (window.get(index++) & 0xFF);
+            pendingBitCount += 8;
+        }
+        pendingBitCount -= n;
+        return (pendingBits >>> pendingBitCount) & ((1L << n) - 1);
+    }
+
+    private long readVarLong() throws IOException {
+        long value = 0L;
+        for (int shift = 0; shift < 64; shift += 7) {
+            if (index >= window.limit()) {
+                throw new IOException(CORRUPTED_BLOCK_MESSAGE.formatted(nextBlock, path));
+            }
+            byte b = window.get(index++);
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IOException(CORRUPTED_BLOCK_MESSAGE.formatted(nextBlock, path));
+    }
+
+    private boolean nextBlock() throws IOException {
+        if (nextBlock >= fileSize) {
+            return false;
+        } else if (fileSize - nextBlock < QuantityStreamFormat.BLOCK_HEADER_SIZE) {
+            throw new EOFException(CORRUPTED_BLOCK_MESSAGE.formatted(nextBlock, path));
+        }
+        map(nextBlock, QuantityStreamFormat.BLOCK_HEADER_SIZE);
+        int start = (int) (nextBlock - windowStart);
+        int payloadSize = window.getInt(start);
+        int count = window.getInt(start + 4);
+        long blockSize = QuantityStreamFormat.BLOCK_HEADER_SIZE + (long) payloadSize;
+        if (payloadSize < 0 || count < 0 || blockSize > fileSize - nextBlock || blockSize > Integer.MAX_VALUE) {
+            throw new IOException(CORRUPTED_BLOCK_MESSAGE.formatted(nextBlock, path));
+        }
+        map(nextBlock, (int) blockSize);
+        index = (int) (nextBlock - windowStart) + QuantityStreamFormat.BLOCK_HEADER_SIZE;
+        window.limit(index + payloadSize);
+        remaining = count;
+        previous = 0L;
+        previousLeading = -1;
+        pendingBitCount = 0;
+        nextBlock += blockSize;
+        return true;
+    }
+
+    /**
+     * Makes sure that the given range of the file is mapped.
+     */
+    private void map(long position, int length) throws IOException {
+        if (window != null && position >= windowStart && position + length <= windowStart + window.capacity()) {
+            window.limit(window.capacity());
+            return;
+        }
+        long size = Math.min(Math.max(length, WINDOW_SIZE), fileSize - position);
+        window = channel.map(FileChannel.MapMode.READ_ONLY, position, size);
+        windowStart = position;
+    }
+}
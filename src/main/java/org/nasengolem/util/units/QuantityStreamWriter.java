@@ -0,0 +1,235 @@
+package org.nasengolem.util.units;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.Objects;
+
+/**
+ * Writes a stream of quantity values in a compact binary format to a {@link WritableByteChannel}. All values of a
+ * stream are given in the same unit, which is recorded in the header. The values are either stored as raw doubles,
+ * XOR-encoded against the previous value with the leading and trailing zeros of the XOR omitted, or quantized to
+ * multiples of a fixed quantum and delta-encoded. A quantum
+ * of {@code 0.001} for lengths in metres, for example, stores millimetre precision in one or two bytes per value for
+ * slowly changing readings.
+ *
+ * <p>The values are buffered in blocks, which are written to the channel when they are full, on {@link #flush()} and
+ * on {@link #close()}. The format is described in {@link QuantityStreamFormat}.
+ *
+ * @author Paul Steinbach
+ * @see QuantityStreamReader
+ */
+public class QuantityStreamWriter implements Closeable {
+    private static final String ILLEGAL_QUANTUM_MESSAGE = "Illegal quantum of %s. The quantum must be positive and "
+            + "finite, or 0 for raw values.";
+    private static final String ILLEGAL_BLOCK_SIZE_MESSAGE = "Illegal block size of %d. The block size must be "
+            + "between 1 and %d.";
+    private static final String ILLEGAL_VALUE_MESSAGE = "The value %s can't be quantized to a quantum of %s.";
+    private static final String INCOMPATIBLE_UNIT_MESSAGE = "The unit '%s' is not compatible with the unit '%s' of "
+            + "this stream.";
+
+    public static final int DEFAULT_BLOCK_SIZE = 4096;
+    private static final int MAX_BLOCK_SIZE = 1 << 24;
+
+    private final WritableByteChannel channel;
+    private final PhysicalQuantity.Unit unit;
+    private final double quantum;
+    private final int blockSize;
+    private final ByteBuffer block;
+    private int count;
+    private long previous;
+    private int previousLeading = -1;
+    private int previousTrailing;
+    private long pendingBits;
+    private int pendingBitCount;
+
+    public QuantityStreamWriter(WritableByteChannel channel, PhysicalQuantity.Unit unit) throws IOException {
+        this(channel, unit, 0.0);
+    }
+
+    public QuantityStreamWriter(WritableByteChannel channel, PhysicalQuantity.Unit unit, double quantum)
+            throws IOException {
+        this(channel, unit, quantum, DEFAULT_BLOCK_SIZE);
+    }
+
+    /**
+     * Creates a writer and writes the header of the stream to the channel.
+     *
+     * @param channel   the channel to write to
+     * @param unit      the unit of all values of the stream, a constant of {@link Length.Unit} or
+     *                  {@link Temperature.Unit}
+     * @param quantum   the quantum in the given unit, or {@code 0} to store the raw values
+     * @param blockSize the maximum number of values per block
+     * @throws IllegalArgumentException if the unit is not supported or the quantum or block size is illegal
+     * @throws IOException              if the header can't be written
+     */
+    public QuantityStreamWriter(WritableByteChannel channel, PhysicalQuantity.Unit unit, double quantum, int blockSize)
+            throws IOException {
+        if (!(quantum >= 0.0 && quantum < Double.POSITIVE_INFINITY)) {
+            throw new IllegalArgumentException(ILLEGAL_QUANTUM_MESSAGE.formatted(quantum));
+        } else if (blockSize <= 0 || blockSize > MAX_BLOCK_SIZE) {
+            throw new IllegalArgumentException(ILLEGAL_BLOCK_SIZE_MESSAGE.formatted(blockSize, MAX_BLOCK_SIZE));
+        }
+        this.channel = Objects.requireNonNull(channel);
+        this.unit = unit;
+        this.quantum = quantum;
+        this.blockSize = blockSize;
+
+        ByteBuffer header = ByteBuffer.allocate(QuantityStreamFormat.HEADER_SIZE)
+                .putInt(QuantityStreamFormat.MAGIC)
+                .put(QuantityStreamFormat.VERSION)
+                .put(QuantityStreamFormat.quantityType(unit))
+                .put(QuantityStreamFormat.unitOrdinal(unit))
+                .put(quantum == 0.0 ? QuantityStreamFormat.RAW : QuantityStreamFormat.QUANTIZED)
+                .putDouble(quantum)
+                .putInt(blockSize)
+                .flip();
+        writeFully(header);
+
+        this.block = ByteBuffer.allocate(QuantityStreamFormat.BLOCK_HEADER_SIZE
+                + blockSize * QuantityStreamFormat.MAX_VALUE_SIZE);
+        this.block.position(QuantityStreamFormat.BLOCK_HEADER_SIZE);
+    }
+
+    /**
+     * Writes a value given in the unit of this stream.
+     *
+     * @throws IllegalArgumentException if the stream is quantized and the value is not finite or too large
+     * @throws IOException              if a full block can't be written
+     */
+    public void write(double value) throws IOException {
+        if (quantum == 0.0) {
+            long bits = Double.doubleToRawLongBits(value);
+            putXor(bits ^ previous);
+            previous = bits;
+        } else {
+            double multiple = Math.rint(value / quantum);
+            if (!(Math.abs(multiple) < 0x1p62)) {
+                throw new IllegalArgumentException(ILLEGAL_VALUE_MESSAGE.formatted(value, quantum));
+            }
+            long quantized = (long) multiple;
+            QuantityStreamFormat.putVarLong(block, QuantityStreamFormat.zigzag(quantized - previous));
+            previous = quantized;
+        }
+        if (++count == blockSize) {
+            flush();
+        }
+    }
+
+    /**
+     * Packs the XOR of a raw value with the previous one into the bit stream of the current block.
+     */
+    private void putXor(long xor) {
+        if (xor == 0L) {
+            putBits(0L, 1);
+            return;
+        }
+        int leading = Long.numberOfLeadingZeros(xor);
+        int trailing = Long.numberOfTrailingZeros(xor);
+        int meaningful = 64 - leading - trailing;
+        int window = 64 - previousLeading - previousTrailing;
+        // A new window costs 12 more bits, so the previous one is only kept if it doesn't waste more than that
+        if (previousLeading >= 0 && leading >= previousLeading && trailing >= previousTrailing
+                && window <= meaningful + 12) {
+            putBits(0b10L, 2);
+            putBits(xor >>> previousTrailing, window);
+        } else {
+            putBits(0b11L, 2);
+            putBits(leading, 6);
+            putBits(meaningful - 1, 6);
+            putBits(xor >>> trailing, meaningful);
+            previousLeading = leading;
+            previousTrailing = trailing;
+        }
+    }
+
+    /**
+     * Appends the lowest {@code n} bits of the given value to the bit stream of the current block. All higher bits of
+     * the value must be zero.
+     */
+    private void putBits(long value, int n) {
+        if (n > 32) {
+            putBits(value >>> 32, n - 32);
+            putBits(value & 0xFFFFFFFFL, 32);
+            return;
+        }
+        pendingBits = (pendingBits << n) | value;
+        pendingBitCount += n;
+        while (pendingBitCount >= 8) {
+            pendingBitCount -= 8;
+            block.put((byte) (pendingBits >>> pendingBitCount));
+        }
+    }
+
+    public void write(double[] values, int offset, int length) throws IOException {
+        Objects.checkFromIndexSize(offset, length, values.length);
+        for (int i = offset; i < offset + length; i++) {
+            write(values[i]);
+        }
+    }
+
+    /**
+     * Writes a quantity, converted to the unit of this stream.
+     *
+     * @throws IllegalArgumentException if the quantity is not of the quantity of this stream, or if the stream is
+     *                                  quantized and the value is not finite or too large
+     * @throws IOException              if a full block can't be written
+     */
+    public void write(PhysicalQuantity quantity) throws IOException {
+        PhysicalQuantity.Unit quantityUnit = quantity.getInternalUnit();
+        if (quantityUnit.getClass() != unit.getClass()) {
+            throw new IllegalArgumentException(INCOMPATIBLE_UNIT_MESSAGE.formatted(quantityUnit, unit));
+        }
+        write(quantity.getValue(unit));
+    }
+
+    /**
+     * Writes the current block to the channel, even if it is not full.
+     *
+     * @throws IOException if the block can't be written
+     */
+    public void flush() throws IOException {
+        if (count == 0) {
+            return;
+        }
+        if (pendingBitCount > 0) {
+            block.put((byte) (pendingBits << (8 - pendingBitCount)));
+            pendingBitCount = 0;
+        }
+        block.putInt(0, block.position() - QuantityStreamFormat.BLOCK_HEADER_SIZE);
+        block.putInt(4, count);
+        block.flip();
+        writeFully(block);
+        block.clear().position(QuantityStreamFormat.BLOCK_HEADER_SIZE);
+        count = 0;
+        previous = 0L;
+        previousLeading = -1;
+    }
+
+    public PhysicalQuantity.Unit getUnit() {
+        return unit;
+    }
+
+    public double getQuantum() {
+        return quantum;
+    }
+
+    /**
+     * Writes the current block and closes the channel.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            channel.close();
+        }
+    }
+
+    private void writeFully(ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+}
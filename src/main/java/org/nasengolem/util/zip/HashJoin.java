@@ -0,0 +1,139 @@
+package org.nasengolem.util.zip;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * Hash join of two iterables that are not sorted by their key. The right iterable is the <i>build side</i>: it is read
+ * completely into a hash table when the join is first accessed. The left iterable is the <i>probe side</i> and is
+ * streamed, so the join runs in {@code O(n + m)} time and {@code O(m)} memory.
+ *
+ * <p>The build side is bounded: if the right iterable contains more elements than the given maximum, an
+ * {@code IllegalStateException} is thrown instead of exhausting the memory. The smaller iterable should therefore be
+ * passed as the right one. If both iterables are sorted by their key, a {@link MergeJoin} should be preferred.
+ *
+ * <p>For each left element, the matching right elements are returned in the order of the right iterable. For
+ * {@link Join.Type#FULL_OUTER} joins, the unmatched right elements are returned after all left elements, grouped by
+ * their key in the order in which the keys first appear in the right iterable.
+ *
+ * @param <A> the type of elements in the left iterable.
+ * @param <B> the type of elements in the right iterable.
+ * @param <K> the type of the join key, which must implement {@code equals} and {@code hashCode} consistently.
+ * @author Paul Steinbach
+ * @see MergeJoin
+ */
+public class HashJoin<A, B, K> extends Join<A, B> {
+    private static final String ILLEGAL_BUILD_SIZE_MESSAGE = "Illegal maximum build size of %d. The maximum build "
+        + "size must be non-negative.";
+    private static final String BUILD_SIDE_TOO_LARGE_MESSAGE = "The right iterable contains more than the maximum of "
+        + "%d elements.";
+
+    private static final class Bucket<B> {
+        private final List<B> elements = new ArrayList<>(1);
+        private boolean matched;
+    }
+
+    private final Iterator<? extends A> leftItr;
+    private final Iterable<? extends B> right;
+    private final Function<? super A, ? extends K> leftKey;
+    private final Function<? super B, ? extends K> rightKey;
+    private final int maxBuildSize;
+
+    private Map<K, Bucket<B>> table;
+    private Iterator<Bucket<B>> unmatchedBuckets;
+    private Bucket<B> currentBucket;
+    private A currentLeft;
+    private int bucketIndex;
+
+    /**
+     * Constructs a {@code HashJoin} of the given iterables. The right iterable is read on the first access of the join.
+     *
+     * @param left         the left iterable (probe side).
+     * @param right        the right iterable (build side).
+     * @param leftKey      the function extracting the key of a left element.
+     * @param rightKey     the function extracting the key of a right element.
+     * @param type         the kind of join.
+     * @param maxBuildSize the maximum number of elements in the right iterable.
+     * @throws NullPointerException     if one of the arguments is null.
+     * @throws IllegalArgumentException if the maximum build size is negative.
+     */
+    public HashJoin(Iterable<? extends A> left, Iterable<? extends B> right, Function<? super A, ? extends K> leftKey,
+                    Function<? super B, ? extends K> rightKey, Type type, int maxBuildSize) {
+        super(type);
+        if (maxBuildSize < 0) {
+            throw new IllegalArgumentException(ILLEGAL_BUILD_SIZE_MESSAGE.formatted(maxBuildSize));
+        }
+        this.leftKey = Objects.requireNonNull(leftKey);
+        this.rightKey = Objects.requireNonNull(rightKey);
+        this.right = Objects.requireNonNull(right);
+        this.maxBuildSize = maxBuildSize;
+        this.leftItr = left.iterator();
+    }
+
+    private void build() {
+        Map<K, Bucket<B>> buckets = new LinkedHashMap<>();
+        int size = 0;
+        for (B element : right) {
+            if (++size > maxBuildSize) {
+                throw new IllegalStateException(BUILD_SIDE_TOO_LARGE_MESSAGE.formatted(maxBuildSize));
+            }
+            buckets.computeIfAbsent(rightKey.apply(element), key -> new Bucket<>()).elements.add(element);
+        }
+        table = buckets;
+    }
+
+    @Override
+    protected boolean advance(BiConsumer<? super A, ? super B> action) {
+        if (table == null) {
+            build();
+        }
+        while (true) {
+            if (currentBucket != null) {
+                A matchedLeft = currentLeft;
+                B matchedRight = currentBucket.elements.get(bucketIndex++);
+                if (bucketIndex == currentBucket.elements.size()) {
+                    currentBucket = null;
+                    currentLeft = null;
+                }
+                action.accept(matchedLeft, matchedRight);
+                return true;
+            }
+
+            if (leftItr.hasNext()) {
+                A element = leftItr.next();
+                Bucket<B> bucket = table.get(leftKey.apply(element));
+                if (bucket != null) {
+                    bucket.matched = true;
+                    currentBucket = bucket;
+                    currentLeft = element;
+                    bucketIndex = 0;
+                } else if (type != Type.INNER) {
+                    action.accept(element, null);
+                    return true;
+                }
+                continue;
+            }
+
+            if (type != Type.FULL_OUTER) {
+                return false;
+            }
+            if (unmatchedBuckets == null) {
+                unmatchedBuckets = table.values().iterator();
+            }
+            if (!unmatchedBuckets.hasNext()) {
+                return false;
+            }
+            Bucket<B> bucket = unmatchedBuckets.next();
+            if (!bucket.matched) {
+                currentBucket = bucket;
+                bucketIndex = 0;
+            }
+        }
+    }
+}
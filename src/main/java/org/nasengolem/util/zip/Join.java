@@ -0,0 +1,111 @@
+package org.nasengolem.util.zip;
+
+import org.jooq.lambda.tuple.Tuple2;
+
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.function.BiConsumer;
+
+/**
+ * Abstract base class for iterators that pair the elements of two iterables by a key instead of by position. The
+ * resulting pairs are returned as {@link Tuple2}s, just like with {@link Zip2}. For outer joins, the missing side of an
+ * unmatched element is {@code null}.
+ *
+ * <p>Besides the tuple-based iteration, every join offers {@link #forEachPair(BiConsumer)}, which passes the components
+ * of each pair as separate arguments and therefore does not allocate any tuples.
+ *
+ * @param <A> the type of elements in the left iterable.
+ * @param <B> the type of elements in the right iterable.
+ * @author Paul Steinbach
+ * @see MergeJoin
+ * @see HashJoin
+ */
+public abstract class Join<A, B> extends Zip<Tuple2<A, B>> {
+
+    /**
+     * The kind of join, which determines how unmatched elements are treated.
+     */
+    public enum Type {
+        /**
+         * Only pairs of matching elements are returned.
+         */
+        INNER,
+        /**
+         * Additionally, every unmatched left element is returned with {@code null} as right component.
+         */
+        LEFT_OUTER,
+        /**
+         * Additionally, every unmatched left or right element is returned with {@code null} as the other component.
+         */
+        FULL_OUTER
+    }
+
+    protected final Type type;
+
+    private final BiConsumer<A, B> pendingSetter = this::setPending;
+    private A pendingLeft;
+    private B pendingRight;
+    private boolean hasPending;
+
+    protected Join(Type type) {
+        this.type = Objects.requireNonNull(type);
+    }
+
+    private void setPending(A left, B right) {
+        pendingLeft = left;
+        pendingRight = right;
+    }
+
+    /**
+     * Passes the next pair of this join to the given action.
+     *
+     * @param action the action to perform on the components of the pair
+     * @return {@code false} if the join is exhausted, otherwise {@code true}
+     */
+    protected abstract boolean advance(BiConsumer<? super A, ? super B> action);
+
+    /**
+     * Returns {@code true} if the join has more pairs.
+     *
+     * @return {@code true} if there are remaining pairs, otherwise {@code false}.
+     */
+    @Override
+    public boolean hasNext() {
+        if (!hasPending) {
+            hasPending = advance(pendingSetter);
+        }
+        return hasPending;
+    }
+
+    /**
+     * Returns the next {@link Tuple2} of this join.
+     *
+     * @return the next pair.
+     * @throws NoSuchElementException if the join is exhausted.
+     */
+    @Override
+    public Tuple2<A, B> next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        hasPending = false;
+        return new Tuple2<>(pendingLeft, pendingRight);
+    }
+
+    /**
+     * Performs the given action on the components of each remaining pair, without creating any tuples.
+     *
+     * @param action the action to perform.
+     * @throws NullPointerException if the action is null.
+     */
+    public void forEachPair(BiConsumer<? super A, ? super B> action) {
+        Objects.requireNonNull(action);
+        if (hasPending) {
+            hasPending = false;
+            action.accept(pendingLeft, pendingRight);
+        }
+        while (advance(action)) {
+            // all work is done by the action
+        }
+    }
+}
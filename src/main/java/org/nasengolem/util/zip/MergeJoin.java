@@ -0,0 +1,170 @@
+package org.nasengolem.util.zip;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * Streaming merge join of two iterables that are sorted by a key. Both iterables are traversed exactly once, so the
+ * join runs in {@code O(n + m)} time.
+ *
+ * <p>The join only buffers the current run of right elements that share the same key. If the keys of the right
+ * iterable are unique, the join therefore runs in constant memory. Duplicate keys on both sides produce the cross
+ * product of the matching elements, just like in SQL.
+ *
+ * <p>Both iterables must be sorted in ascending order according to the given comparator. If the join detects a key
+ * that is smaller than its predecessor, an {@code IllegalStateException} is thrown.
+ *
+ * <pre>
+ *      for (Tuple2&lt;Event, Event&gt; pair : new MergeJoin&lt;&gt;(requests, responses,
+ *              Event::timestamp, Event::timestamp, Comparator.naturalOrder(), Join.Type.INNER)) {
+ *          ...
+ *      }
+ * </pre>
+ *
+ * @param <A> the type of elements in the left iterable.
+ * @param <B> the type of elements in the right iterable.
+ * @param <K> the type of the join key.
+ * @author Paul Steinbach
+ * @see HashJoin
+ */
+public class MergeJoin<A, B, K> extends Join<A, B> {
+    private static final String UNSORTED_MESSAGE = "The %s iterable is not sorted: the key '%s' follows the key '%s'.";
+
+    private final Iterator<? extends A> leftItr;
+    private final Iterator<? extends B> rightItr;
+    private final Function<? super A, ? extends K> leftKey;
+    private final Function<? super B, ? extends K> rightKey;
+    private final Comparator<? super K> comparator;
+
+    private A left;
+    private K leftKeyValue;
+    private boolean hasLeft;
+    private B right;
+    private K rightKeyValue;
+    private boolean hasRight;
+
+    private final List<B> group = new ArrayList<>();
+    private K groupKey;
+    private int groupIndex;
+    private boolean emittingGroup;
+
+    /**
+     * Constructs a {@code MergeJoin} of the given sorted iterables.
+     *
+     * @param left       the left iterable, sorted by {@code leftKey}.
+     * @param right      the right iterable, sorted by {@code rightKey}.
+     * @param leftKey    the function extracting the key of a left element.
+     * @param rightKey   the function extracting the key of a right element.
+     * @param comparator the comparator defining the order of the keys.
+     * @param type       the kind of join.
+     * @throws NullPointerException if one of the arguments is null.
+     */
+    public MergeJoin(Iterable<? extends A> left, Iterable<? extends B> right, Function<? super A, ? extends K> leftKey,
+                     Function<? super B, ? extends K> rightKey, Comparator<? super K> comparator, Type type) {
+        super(type);
+        this.leftKey = Objects.requireNonNull(leftKey);
+        this.rightKey = Objects.requireNonNull(rightKey);
+        this.comparator = Objects.requireNonNull(comparator);
+        this.leftItr = left.iterator();
+        this.rightItr = right.iterator();
+        pullLeft();
+        pullRight();
+    }
+
+    private void pullLeft() {
+        hasLeft = leftItr.hasNext();
+        if (hasLeft) {
+            K previous = leftKeyValue;
+            left = leftItr.next();
+            leftKeyValue = leftKey.apply(left);
+            if (previous != null && comparator.compare(previous, leftKeyValue) > 0) {
+                throw new IllegalStateException(UNSORTED_MESSAGE.formatted("left", leftKeyValue, previous));
+            }
+        } else {
+            left = null;
+        }
+    }
+
+    private void pullRight() {
+        hasRight = rightItr.hasNext();
+        if (hasRight) {
+            K previous = rightKeyValue;
+            right = rightItr.next();
+            rightKeyValue = rightKey.apply(right);
+            if (previous != null && comparator.compare(previous, rightKeyValue) > 0) {
+                throw new IllegalStateException(UNSORTED_MESSAGE.formatted("right", rightKeyValue, previous));
+            }
+        } else {
+            right = null;
+        }
+    }
+
+    @Override
+    protected boolean advance(BiConsumer<? super A, ? super B> action) {
+        while (true) {
+            if (emittingGroup) {
+                A matchedLeft = left;
+                B matchedRight = group.get(groupIndex++);
+                if (groupIndex == group.size()) {
+                    emittingGroup = false;
+                    pullLeft();
+                }
+                action.accept(matchedLeft, matchedRight);
+                return true;
+            }
+
+            if (!hasLeft) {
+                if (type == Type.FULL_OUTER && hasRight) {
+                    B unmatched = right;
+                    pullRight();
+                    action.accept(null, unmatched);
+                    return true;
+                }
+                return false;
+            }
+
+            if (!group.isEmpty()) {
+                if (comparator.compare(leftKeyValue, groupKey) == 0) {
+                    groupIndex = 0;
+                    emittingGroup = true;
+                    continue;
+                }
+                group.clear();
+            }
+
+            if (hasRight) {
+                int comparison = comparator.compare(leftKeyValue, rightKeyValue);
+                if (comparison > 0) {
+                    B unmatched = right;
+                    pullRight();
+                    if (type == Type.FULL_OUTER) {
+                        action.accept(null, unmatched);
+                        return true;
+                    }
+                    continue;
+                } else if (comparison == 0) {
+                    groupKey = rightKeyValue;
+                    do {
+                        group.add(right);
+                        pullRight();
+                    } while (hasRight && comparator.compare(rightKeyValue, groupKey) == 0);
+                    continue;
+                }
+            } else if (type == Type.INNER) {
+                return false;
+            }
+
+            A unmatched = left;
+            pullLeft();
+            if (type != Type.INNER) {
+                action.accept(unmatched, null);
+                return true;
+            }
+        }
+    }
+}
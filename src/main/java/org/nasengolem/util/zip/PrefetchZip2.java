@@ -0,0 +1,120 @@
+package org.nasengolem.util.zip;
+
+import org.jooq.lambda.tuple.Tuple2;
+
+import java.util.Iterator;
+
+/**
+ * The {@code PrefetchZip2} class combines two iterables into a single iterable of pairs (tuples), just like
+ * {@link Zip2}. Unlike {@code Zip2}, each iterable is drained on its own virtual thread into a bounded buffer. This is
+ * useful if the iterables are backed by I/O (e.g. file readers or paginated database cursors), since the latencies of
+ * the sources overlap instead of adding up. A call to {@link #next()} only blocks until the heads of both buffers are
+ * available.
+ *
+ * <p>Each source is read at most {@code bufferDepth} elements ahead of the consumer. If a buffer is full, the thread
+ * draining the corresponding source blocks until the consumer catches up (back-pressure).
+ *
+ * <p>If a source throws an exception, the exception is rethrown by {@link #hasNext()} or {@link #next()} in the
+ * consuming thread and both sources are shut down. The sources are also shut down as soon as {@code hasNext()}
+ * returns {@code false}. If the iteration is abandoned early, {@link #close()} must be called to stop the threads,
+ * which is most easily done with a try-with-resources statement:
+ *
+ * <pre>
+ *      try (var zip = new PrefetchZip2&lt;&gt;(lines, rows)) {
+ *          for (Tuple2&lt;String, Row&gt; tuple : zip) {
+ *              ...
+ *          }
+ *      }
+ * </pre>
+ *
+ * @param <V1> the type of elements in the first iterable.
+ * @param <V2> the type of elements in the second iterable.
+ * @param <I1> the type of the first iterable, which must be an {@code Iterable<V1>}.
+ * @param <I2> the type of the second iterable, which must be an {@code Iterable<V2>}.
+ * @author Paul Steinbach
+ * @see Zip2
+ */
+public class PrefetchZip2<V1, V2, I1 extends Iterable<V1>, I2 extends Iterable<V2>>
+        extends Zip<Tuple2<V1, V2>> implements AutoCloseable {
+
+    /**
+     * The buffer depth used by {@link #PrefetchZip2(Iterable, Iterable)}.
+     */
+    public static final int DEFAULT_BUFFER_DEPTH = 64;
+
+    private final Prefetcher<V1> itr1;
+    private final Prefetcher<V2> itr2;
+
+    /**
+     * Constructs a {@code PrefetchZip2} instance with a buffer depth of {@value #DEFAULT_BUFFER_DEPTH} and starts
+     * draining both iterables.
+     *
+     * @param iterable1 the first iterable to zip.
+     * @param iterable2 the second iterable to zip.
+     */
+    public PrefetchZip2(I1 iterable1, I2 iterable2) {
+        this(iterable1, iterable2, DEFAULT_BUFFER_DEPTH);
+    }
+
+    /**
+     * Constructs a {@code PrefetchZip2} instance and starts draining both iterables.
+     *
+     * @param iterable1   the first iterable to zip.
+     * @param iterable2   the second iterable to zip.
+     * @param bufferDepth the maximum number of elements fetched ahead of the consumer, per iterable.
+     * @throws IllegalArgumentException if the buffer depth is not positive.
+     */
+    public PrefetchZip2(I1 iterable1, I2 iterable2, int bufferDepth) {
+        Iterator<V1> source1 = iterable1.iterator();
+        Iterator<V2> source2 = iterable2.iterator();
+        this.itr1 = new Prefetcher<>(source1, bufferDepth);
+        this.itr2 = new Prefetcher<>(source2, bufferDepth);
+    }
+
+    /**
+     * Returns {@code true} if both iterables have more elements to iterate. Blocks until this can be decided.
+     *
+     * @return {@code true} if both iterables have remaining elements, otherwise {@code false}.
+     * @throws RuntimeException      the exception thrown by one of the iterables, if any.
+     * @throws IllegalStateException if this zip is closed or the waiting thread is interrupted.
+     */
+    @Override
+    public boolean hasNext() {
+        try {
+            if (itr1.hasNext() && itr2.hasNext()) {
+                return true;
+            }
+        } catch (Throwable e) {
+            close();
+            throw e;
+        }
+        close();
+        return false;
+    }
+
+    /**
+     * Returns the next {@link Tuple2} of elements from the two iterables. Blocks until both elements are available.
+     *
+     * @return the next tuple containing one element from each iterable.
+     * @throws RuntimeException      the exception thrown by one of the iterables, if any.
+     * @throws IllegalStateException if this zip is closed or the waiting thread is interrupted.
+     */
+    @Override
+    public Tuple2<V1, V2> next() {
+        try {
+            return new Tuple2<>(itr1.next(), itr2.next());
+        } catch (Throwable e) {
+            close();
+            throw e;
+        }
+    }
+
+    /**
+     * Stops the threads draining the iterables and discards all buffered elements.
+     */
+    @Override
+    public void close() {
+        itr1.close();
+        itr2.close();
+    }
+}
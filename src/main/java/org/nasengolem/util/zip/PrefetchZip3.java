@@ -0,0 +1,109 @@
+package org.nasengolem.util.zip;
+
+import org.jooq.lambda.tuple.Tuple3;
+
+import java.util.Iterator;
+
+/**
+ * The {@code PrefetchZip3} class combines three iterables into a single iterable of triples (tuples), just like
+ * {@link Zip3}. Unlike {@code Zip3}, each iterable is drained on its own virtual thread into a bounded buffer, so the
+ * latencies of I/O-backed sources overlap instead of adding up. A call to {@link #next()} only blocks until the heads
+ * of all three buffers are available.
+ *
+ * <p>Back-pressure, exception propagation and shutdown behave exactly as described for {@link PrefetchZip2}.
+ *
+ * @param <V1> the type of elements in the first iterable.
+ * @param <V2> the type of elements in the second iterable.
+ * @param <V3> the type of elements in the third iterable.
+ * @param <I1> the type of the first iterable, which must be an {@code Iterable<V1>}.
+ * @param <I2> the type of the second iterable, which must be an {@code Iterable<V2>}.
+ * @param <I3> the type of the third iterable, which must be an {@code Iterable<V3>}.
+ * @author Paul Steinbach
+ * @see Zip3
+ * @see PrefetchZip2
+ */
+public class PrefetchZip3<V1, V2, V3, I1 extends Iterable<V1>, I2 extends Iterable<V2>, I3 extends Iterable<V3>>
+        extends Zip<Tuple3<V1, V2, V3>> implements AutoCloseable {
+
+    private final Prefetcher<V1> itr1;
+    private final Prefetcher<V2> itr2;
+    private final Prefetcher<V3> itr3;
+
+    /**
+     * Constructs a {@code PrefetchZip3} instance with a buffer depth of {@value PrefetchZip2#DEFAULT_BUFFER_DEPTH} and
+     * starts draining all three iterables.
+     *
+     * @param iterable1 the first iterable to zip.
+     * @param iterable2 the second iterable to zip.
+     * @param iterable3 the third iterable to zip.
+     */
+    public PrefetchZip3(I1 iterable1, I2 iterable2, I3 iterable3) {
+        this(iterable1, iterable2, iterable3, PrefetchZip2.DEFAULT_BUFFER_DEPTH);
+    }
+
+    /**
+     * Constructs a {@code PrefetchZip3} instance and starts draining all three iterables.
+     *
+     * @param iterable1   the first iterable to zip.
+     * @param iterable2   the second iterable to zip.
+     * @param iterable3   the third iterable to zip.
+     * @param bufferDepth the maximum number of elements fetched ahead of the consumer, per iterable.
+     * @throws IllegalArgumentException if the buffer depth is not positive.
+     */
+    public PrefetchZip3(I1 iterable1, I2 iterable2, I3 iterable3, int bufferDepth) {
+        Iterator<V1> source1 = iterable1.iterator();
+        Iterator<V2> source2 = iterable2.iterator();
+        Iterator<V3> source3 = iterable3.iterator();
+        this.itr1 = new Prefetcher<>(source1, bufferDepth);
+        this.itr2 = new Prefetcher<>(source2, bufferDepth);
+        this.itr3 = new Prefetcher<>(source3, bufferDepth);
+    }
+
+    /**
+     * Returns {@code true} if all three iterables have more elements to iterate. Blocks until this can be decided.
+     *
+     * @return {@code true} if all three iterables have remaining elements, otherwise {@code false}.
+     * @throws RuntimeException      the exception thrown by one of the iterables, if any.
+     * @throws IllegalStateException if this zip is closed or the waiting thread is interrupted.
+     */
+    @Override
+    public boolean hasNext() {
+        try {
+            if (itr1.hasNext() && itr2.hasNext() && itr3.hasNext()) {
+                return true;
+            }
+        } catch (Throwable e) {
+            close();
+            throw e;
+        }
+        close();
+        return false;
+    }
+
+    /**
+     * Returns the next {@link Tuple3} of elements from the three iterables. Blocks until all elements are available.
+     *
+     * @return the next tuple containing one element from each iterable.
+     * @throws RuntimeException      the exception thrown by one of the iterables, if any.
+     * @throws IllegalStateException if this zip is closed or the waiting thread is interrupted.
+     */
+    @Override
+    public Tuple3<V1, V2, V3> next() {
+        try {
+            return new Tuple3<>(itr1.next(), itr2.next(), itr3.next());
+        } catch (Throwable e) {
+            close();
+            throw e;
+        }
+    }
+
+    /**
+     * Stops the threads draining the iterables and discards all buffered elements.
+     */
+    @Override
+    public void close() {
+        itr1.close();
+        itr2.close();
+        itr3.close();
+    }
+}
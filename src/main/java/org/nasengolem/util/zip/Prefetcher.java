@@ -0,0 +1,172 @@
+package org.nasengolem.util.zip;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Iterator that drains a source iterator on its own virtual thread into a bounded buffer. The producing thread blocks
+ * as soon as the buffer is full, so the source is never read more than {@code bufferDepth} elements ahead of the
+ * consumer.
+ *
+ * <p>Any exception thrown by the source, including a checked exception thrown without being declared, is handed over
+ * to the consuming thread and rethrown there by {@link #hasNext()} or {@link #next()} once all elements produced
+ * before the failure have been consumed.
+ *
+ * @param <V> the type of elements returned by this iterator
+ * @author Paul Steinbach
+ * @see PrefetchZip2
+ * @see PrefetchZip3
+ */
+final class Prefetcher<V> implements Iterator<V>, AutoCloseable {
+    private static final String ILLEGAL_DEPTH_MESSAGE = "Illegal buffer depth of %d. The buffer depth must be "
+        + "positive.";
+    private static final String INTERRUPTED_MESSAGE = "Interrupted while waiting for the next prefetched element.";
+    private static final String CLOSED_MESSAGE = "The prefetching iterator has already been closed.";
+
+    private static final long CLOSE_CHECK_MILLIS = 50;
+
+    private static final Object NULL = new Object();
+    private static final Object END = new Object();
+
+    private record Failure(Throwable cause) {
+    }
+
+    private final BlockingQueue<Object> buffer;
+    private volatile boolean closed;
+
+    private Object head;
+
+    /**
+     * Starts a virtual thread that drains the given iterator into a buffer of the given depth.
+     *
+     * @param source      the iterator to drain
+     * @param bufferDepth the maximum number of elements that are fetched ahead of the consumer
+     * @throws IllegalArgumentException if the buffer depth is not positive
+     */
+    Prefetcher(Iterator<? extends V> source, int bufferDepth) {
+        if (bufferDepth <= 0) {
+            throw new IllegalArgumentException(ILLEGAL_DEPTH_MESSAGE.formatted(bufferDepth));
+        }
+        this.buffer = new ArrayBlockingQueue<>(bufferDepth);
+        Thread.ofVirtual()
+            .name("prefetch-zip-source")
+            .start(() -> drain(source));
+    }
+
+    private void drain(Iterator<? extends V> source) {
+        Object item;
+        try {
+            while (!closed && source.hasNext()) {
+                V element = source.next();
+                if (!hand(element == null ? NULL : element)) {
+                    return;
+                }
+            }
+            item = END;
+        } catch (InterruptedException e) {
+            return;
+        } catch (Throwable e) {
+            item = new Failure(e);
+        }
+        try {
+            hand(item);
+        } catch (InterruptedException ignored) {
+            // Nobody is waiting for the final item of a producer that is interrupted from outside.
+        }
+    }
+
+    /**
+     * Waits until the given item fits into the buffer. The producer is never interrupted, since that would close an
+     * interruptible channel the source may be reading from, so it checks regularly whether this iterator was closed.
+     *
+     * @return {@code false} if this iterator was closed before the item was buffered
+     */
+    private boolean hand(Object item) throws InterruptedException {
+        while (!closed) {
+            if (buffer.offer(item, CLOSE_CHECK_MILLIS, TimeUnit.MILLISECONDS)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private Object head() {
+        if (head == null) {
+            if (closed) {
+                throw new IllegalStateException(CLOSED_MESSAGE);
+            }
+            try {
+                head = buffer.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(INTERRUPTED_MESSAGE, e);
+            }
+            if (closed) {
+                head = null;
+                throw new IllegalStateException(CLOSED_MESSAGE);
+            }
+        }
+        if (head instanceof Failure failure) {
+            throw Prefetcher.<RuntimeException>rethrow(failure.cause());
+        }
+        return head;
+    }
+
+    /**
+     * Throws the given throwable without wrapping it, even if it is a checked exception.
+     */
+    @SuppressWarnings("unchecked")
+    private static <T extends Throwable> T rethrow(Throwable throwable) throws T {
+        throw (T) throwable;
+    }
+
+    /**
+     * Blocks until the next element of the source is buffered or the source is exhausted.
+     *
+     * @return {@code true} if the source has more elements
+     * @throws RuntimeException      the exception thrown by the source, if it failed
+     * @throws IllegalStateException if this iterator is closed or the waiting thread is interrupted
+     */
+    @Override
+    public boolean hasNext() {
+        return head() != END;
+    }
+
+    /**
+     * Blocks until the next element of the source is buffered and returns it.
+     *
+     * @return the next element of the source
+     * @throws NoSuchElementException if the source is exhausted
+     * @throws RuntimeException       the exception thrown by the source, if it failed
+     * @throws IllegalStateException  if this iterator is closed or the waiting thread is interrupted
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public V next() {
+        Object element = head();
+        if (element == END) {
+            throw new NoSuchElementException();
+        }
+        head = null;
+        return element == NULL ? null : (V) element;
+    }
+
+    /**
+     * Stops the producing thread and discards all buffered elements. The producer is not interrupted, so a source that
+     * reads from an interruptible channel doesn't get its channel closed. A producer that is currently inside the
+     * source stops as soon as the source returns control, and a producer waiting for room in the buffer stops within
+     * {@value #CLOSE_CHECK_MILLIS} milliseconds. A consumer that is waiting for the next element on another thread is
+     * woken up and fails with an {@link IllegalStateException}. Closing an already closed iterator has no effect.
+     */
+    @Override
+    public void close() {
+        if (!closed) {
+            closed = true;
+            buffer.clear();
+            buffer.offer(END);
+        }
+    }
+}
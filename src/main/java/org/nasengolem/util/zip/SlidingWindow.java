@@ -0,0 +1,153 @@
+package org.nasengolem.util.zip;
+
+import org.jooq.lambda.tuple.Tuple2;
+
+import java.util.AbstractList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.RandomAccess;
+
+/**
+ * The {@code SlidingWindow} class iterates over all windows of {@code size} consecutive elements of an iterable, like
+ * {@code windowed} in Kotlin. For the elements {@code 1, 2, 3, 4} and a size of 3, the windows are {@code [1, 2, 3]}
+ * and {@code [2, 3, 4]}. If the iterable has fewer elements than the window size, there are no windows.
+ *
+ * <p>The elements are kept in a ring buffer. {@link #next()} returns the same read-only {@link List} view of the ring
+ * on every call, which advances by one element in constant time, so no array is copied per window. The view must
+ * therefore not be stored. Use {@code List.copyOf(window)} to keep a window.
+ *
+ * <p>{@link #pairwise(Iterable)} is a shorthand for windows of two elements, that returns the windows as
+ * {@link Tuple2}s.
+ *
+ * @param <V> the type of elements in the iterable.
+ * @author Paul Steinbach
+ * @see ZipWithIndex
+ */
+public class SlidingWindow<V> implements Iterator<List<V>>, Iterable<List<V>> {
+
+    private static final String ILLEGAL_SIZE_MESSAGE = "Illegal window size of %d. The size must be positive.";
+
+    private final Iterator<V> itr;
+    private final Object[] ring;
+    private final Window view = new Window();
+    private int start;
+    private int count;
+
+    /**
+     * Constructs a {@code SlidingWindow} instance.
+     *
+     * @param iterable the iterable to slide over.
+     * @param size     the number of elements per window.
+     * @throws IllegalArgumentException if the size is not positive.
+     */
+    public SlidingWindow(Iterable<V> iterable, int size) {
+        if (size <= 0) {
+            throw new IllegalArgumentException(ILLEGAL_SIZE_MESSAGE.formatted(size));
+        }
+        this.itr = iterable.iterator();
+        this.ring = new Object[size];
+    }
+
+    /**
+     * Returns the consecutive pairs of elements of the given iterable. For the elements {@code 1, 2, 3}, the pairs are
+     * {@code (1, 2)} and {@code (2, 3)}.
+     *
+     * @param iterable the iterable to pair up.
+     * @param <V>      the type of elements in the iterable.
+     * @return a zip over the consecutive pairs.
+     */
+    public static <V> Zip<Tuple2<V, V>> pairwise(Iterable<V> iterable) {
+        return new Pairwise<>(iterable.iterator());
+    }
+
+    private void push(V element) {
+        if (count < ring.length) {
+            ring[count++] = element;
+        } else {
+            ring[start] = element;
+            if (++start == ring.length) {
+                start = 0;
+            }
+        }
+    }
+
+    /**
+     * Returns {@code true} if there is another window.
+     *
+     * @return {@code true} if the iterable has enough remaining elements for another window, otherwise {@code false}.
+     */
+    @Override
+    public boolean hasNext() {
+        while (count < ring.length - 1 && itr.hasNext()) {
+            push(itr.next());
+        }
+        return count >= ring.length - 1 && itr.hasNext();
+    }
+
+    /**
+     * Advances the window by one element and returns it. The returned view is the same object on every call.
+     *
+     * @return a read-only view of the next window.
+     * @throws NoSuchElementException if there is no further window.
+     */
+    @Override
+    public List<V> next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        push(itr.next());
+        return view;
+    }
+
+    @Override
+    public Iterator<List<V>> iterator() {
+        return this;
+    }
+
+    private final class Window extends AbstractList<V> implements RandomAccess {
+        @Override
+        @SuppressWarnings("unchecked")
+        public V get(int index) {
+            Objects.checkIndex(index, count);
+            int slot = start + index;
+            return (V) ring[slot < ring.length ? slot : slot - ring.length];
+        }
+
+        @Override
+        public int size() {
+            return count;
+        }
+    }
+
+    private static final class Pairwise<V> extends Zip<Tuple2<V, V>> {
+        private final Iterator<V> itr;
+        private V previous;
+        private boolean started;
+
+        private Pairwise(Iterator<V> itr) {
+            this.itr = itr;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (!started && itr.hasNext()) {
+                previous = itr.next();
+                started = true;
+            }
+            return started && itr.hasNext();
+        }
+
+        @Override
+        public Tuple2<V, V> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            V current = itr.next();
+            Tuple2<V, V> pair = new Tuple2<>(previous, current);
+            previous = current;
+            return pair;
+        }
+    }
+}
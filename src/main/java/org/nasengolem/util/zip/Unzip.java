@@ -0,0 +1,395 @@
+package org.nasengolem.util.zip;
+
+import org.jooq.lambda.tuple.Tuple2;
+import org.jooq.lambda.tuple.Tuple3;
+import org.nasengolem.util.datastructures.CappedList;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.function.IntSupplier;
+import java.util.function.ToDoubleFunction;
+import java.util.stream.Collector;
+
+/**
+ * The {@code Unzip} class provides the reverse operation of {@link Zip2} and {@link Zip3}. It splits pairs or triples
+ * into two or three columns, without creating an intermediate list of tuples.
+ *
+ * <p>If the number of elements is known in advance, the columns are {@link CappedList}s or primitive arrays of that
+ * capacity, and every element is written directly into its column. Together with {@code Zip2} and {@code Zip3}, this
+ * makes zipping and unzipping a round trip:
+ *
+ * <pre>
+ *      Tuple2&lt;CappedList&lt;A&gt;, CappedList&lt;B&gt;&gt; columns = pairs.stream().collect(Unzip.toCappedLists(n));
+ *      for (Tuple2&lt;A, B&gt; pair : new Zip2&lt;&gt;(columns.v1, columns.v2)) {
+ *          ...
+ *      }
+ * </pre>
+ *
+ * <p>All collectors support parallel streams. The first partial result of a collector is preallocated with the full
+ * capacity, so a sequential stream writes every element straight into its final column. The further partial results
+ * of a parallel stream start small and grow by doubling, up to the given capacity, so the memory they use is
+ * proportional to the number of elements they hold. Two partial results are merged into the one that can hold both
+ * without growing, if there is one. Since only the first partial result is preallocated, a collector should not be
+ * reused for several streams.
+ *
+ * @author Paul Steinbach
+ * @see Zip2
+ * @see Zip3
+ */
+public final class Unzip {
+    private static final String NEGATIVE_SIZE_MESSAGE = "Illegal size of %d. The size must be non-negative.";
+    private static final String TOO_MANY_ELEMENTS_MESSAGE = "Can't unzip more than the expected %d elements.";
+
+    private static final int INITIAL_PARTIAL_CAPACITY = 16;
+
+    private Unzip() {
+    }
+
+    /**
+     * Returns a {@code Collector} that splits pairs into two {@link CappedList}s of the given capacity.
+     *
+     * @param capacity the maximum number of pairs
+     * @param <A>      the type of the first components
+     * @param <B>      the type of the second components
+     * @return a collector that unzips pairs into two columns
+     * @throws IllegalArgumentException if the capacity is negative
+     * @throws IllegalStateException    (by the collector) if there are more pairs than the capacity
+     */
+    public static <A, B> Collector<Tuple2<? extends A, ? extends B>, ?, Tuple2<CappedList<A>, CappedList<B>>>
+            toCappedLists(int capacity) {
+        return toCappedLists(capacity, Tuple2::v1, Tuple2::v2);
+    }
+
+    /**
+     * Returns a {@code Collector} that splits elements into two {@link CappedList}s of the given capacity, using the
+     * given functions to extract the components. This avoids the creation of tuples altogether.
+     *
+     * @param capacity the maximum number of elements
+     * @param first    the function extracting the first component of an element
+     * @param second   the function extracting the second component of an element
+     * @param <T>      the type of the input elements
+     * @param <A>      the type of the first components
+     * @param <B>      the type of the second components
+     * @return a collector that unzips elements into two columns
+     * @throws IllegalArgumentException if the capacity is negative
+     * @throws NullPointerException     if one of the functions is null
+     * @throws IllegalStateException    (by the collector) if there are more elements than the capacity
+     */
+    public static <T, A, B> Collector<T, ?, Tuple2<CappedList<A>, CappedList<B>>>
+            toCappedLists(int capacity, Function<? super T, ? extends A> first, Function<? super T, ? extends B> second) {
+        checkSize(capacity);
+        Objects.requireNonNull(first);
+        Objects.requireNonNull(second);
+        IntSupplier partialCapacities = partialCapacities(capacity);
+        return Collector.of(
+            () -> new ListColumns(2, capacity, partialCapacities.getAsInt()),
+            (columns, element) -> columns.add(first.apply(element), second.apply(element)),
+            ListColumns::merge,
+            columns -> new Tuple2<>(columns.<A>toCappedList(0), columns.<B>toCappedList(1))
+        );
+    }
+
+    /**
+     * Returns a {@code Collector} that splits triples into three {@link CappedList}s of the given capacity.
+     *
+     * @param capacity the maximum number of triples
+     * @param <A>      the type of the first components
+     * @param <B>      the type of the second components
+     * @param <C>      the type of the third components
+     * @return a collector that unzips triples into three columns
+     * @throws IllegalArgumentException if the capacity is negative
+     * @throws IllegalStateException    (by the collector) if there are more triples than the capacity
+     */
+    public static <A, B, C>
+            Collector<Tuple3<? extends A, ? extends B, ? extends C>, ?,
+                Tuple3<CappedList<A>, CappedList<B>, CappedList<C>>> toCappedLists3(int capacity) {
+        return toCappedLists(capacity, Tuple3::v1, Tuple3::v2, Tuple3::v3);
+    }
+
+    /**
+     * Returns a {@code Collector} that splits elements into three {@link CappedList}s of the given capacity, using the
+     * given functions to extract the components.
+     *
+     * @param capacity the maximum number of elements
+     * @param first    the function extracting the first component of an element
+     * @param second   the function extracting the second component of an element
+     * @param third    the function extracting the third component of an element
+     * @param <T>      the type of the input elements
+     * @param <A>      the type of the first components
+     * @param <B>      the type of the second components
+     * @param <C>      the type of the third components
+     * @return a collector that unzips elements into three columns
+     * @throws IllegalArgumentException if the capacity is negative
+     * @throws NullPointerException     if one of the functions is null
+     * @throws IllegalStateException    (by the collector) if there are more elements than the capacity
+     */
+    public static <T, A, B, C> Collector<T, ?, Tuple3<CappedList<A>, CappedList<B>, CappedList<C>>>
+            toCappedLists(int capacity, Function<? super T, ? extends A> first,
+                          Function<? super T, ? extends B> second, Function<? super T, ? extends C> third) {
+        checkSize(capacity);
+        Objects.requireNonNull(first);
+        Objects.requireNonNull(second);
+        Objects.requireNonNull(third);
+        IntSupplier partialCapacities = partialCapacities(capacity);
+        return Collector.of(
+            () -> new ListColumns(3, capacity, partialCapacities.getAsInt()),
+            (columns, element) -> columns.add(first.apply(element), second.apply(element), third.apply(element)),
+            ListColumns::merge,
+            columns -> new Tuple3<>(columns.<A>toCappedList(0), columns.<B>toCappedList(1),
+                columns.<C>toCappedList(2))
+        );
+    }
+
+    /**
+     * Returns a {@code Collector} that splits elements into primitive {@code double} columns. The result contains one
+     * array per extractor. Each array has the length of the number of collected elements, which is at most the given
+     * size. The arrays are preallocated with the given size, and they are only trimmed if fewer elements were
+     * collected.
+     *
+     * @param size       the maximum number of elements
+     * @param extractors the functions extracting the columns from an element
+     * @param <T>        the type of the input elements
+     * @return a collector that unzips elements into {@code double} columns
+     * @throws IllegalArgumentException if the size is negative
+     * @throws NullPointerException     if one of the extractors is null
+     * @throws IllegalStateException    (by the collector) if there are more elements than the given size
+     */
+    @SafeVarargs
+    public static <T> Collector<T, ?, double[][]> toDoubleArrays(int size, ToDoubleFunction<? super T>... extractors) {
+        checkSize(size);
+        List<ToDoubleFunction<? super T>> columns = new ArrayList<>(extractors.length);
+        for (ToDoubleFunction<? super T> extractor : extractors) {
+            columns.add(Objects.requireNonNull(extractor));
+        }
+        IntSupplier partialCapacities = partialCapacities(size);
+        return Collector.of(
+            () -> new DoubleColumns(columns.size(), size, partialCapacities.getAsInt()),
+            (target, element) -> target.add(columns, element),
+            DoubleColumns::merge,
+            DoubleColumns::toArrays
+        );
+    }
+
+    /**
+     * Splits the given pairs into the given lists. The lists are usually preallocated {@link CappedList}s.
+     *
+     * @param pairs  the pairs to unzip, e.g. a {@link Zip2}
+     * @param first  the list receiving the first components
+     * @param second the list receiving the second components
+     * @param <A>    the type of the first components
+     * @param <B>    the type of the second components
+     * @return the number of unzipped pairs
+     * @throws NullPointerException  if one of the arguments is null
+     * @throws IllegalStateException if one of the lists reached its capacity
+     */
+    public static <A, B> int unzip(Iterable<? extends Tuple2<? extends A, ? extends B>> pairs,
+                                   CappedList<? super A> first, CappedList<? super B> second) {
+        Objects.requireNonNull(first);
+        Objects.requireNonNull(second);
+        int count = 0;
+        for (Tuple2<? extends A, ? extends B> pair : pairs) {
+            first.add(pair.v1);
+            second.add(pair.v2);
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Splits the given triples into the given lists. The lists are usually preallocated {@link CappedList}s.
+     *
+     * @param triples the triples to unzip, e.g. a {@link Zip3}
+     * @param first   the list receiving the first components
+     * @param second  the list receiving the second components
+     * @param third   the list receiving the third components
+     * @param <A>     the type of the first components
+     * @param <B>     the type of the second components
+     * @param <C>     the type of the third components
+     * @return the number of unzipped triples
+     * @throws NullPointerException  if one of the arguments is null
+     * @throws IllegalStateException if one of the lists reached its capacity
+     */
+    public static <A, B, C> int unzip(Iterable<? extends Tuple3<? extends A, ? extends B, ? extends C>> triples,
+                                      CappedList<? super A> first, CappedList<? super B> second,
+                                      CappedList<? super C> third) {
+        Objects.requireNonNull(first);
+        Objects.requireNonNull(second);
+        Objects.requireNonNull(third);
+        int count = 0;
+        for (Tuple3<? extends A, ? extends B, ? extends C> triple : triples) {
+            first.add(triple.v1);
+            second.add(triple.v2);
+            third.add(triple.v3);
+            count++;
+        }
+        return count;
+    }
+
+    private static void checkSize(int size) {
+        if (size < 0) {
+            throw new IllegalArgumentException(NEGATIVE_SIZE_MESSAGE.formatted(size));
+        }
+    }
+
+    /**
+     * Returns the initial capacities of the partial results of a collector: the full capacity for the first one, and a
+     * small one for all further ones, which are only created by parallel streams.
+     */
+    private static IntSupplier partialCapacities(int capacity) {
+        AtomicBoolean first = new AtomicBoolean(true);
+        return () -> first.getAndSet(false) ? capacity : Math.min(capacity, INITIAL_PARTIAL_CAPACITY);
+    }
+
+    /**
+     * Returns the capacity a partial result of the given capacity grows to, in order to hold {@code minCapacity}
+     * elements. The capacity is doubled at least, but never exceeds the maximum capacity.
+     *
+     * @throws IllegalStateException if the minimum capacity exceeds the maximum capacity
+     */
+    private static int grownCapacity(int currentCapacity, int minCapacity, int maxCapacity) {
+        if (minCapacity > maxCapacity) {
+            throw new IllegalStateException(TOO_MANY_ELEMENTS_MESSAGE.formatted(maxCapacity));
+        }
+        return (int) Math.min(Math.max(minCapacity, 2L * currentCapacity), maxCapacity);
+    }
+
+    private static final class ListColumns {
+        private final List<CappedList<Object>> columns;
+        private final int capacity;
+
+        private ListColumns(int columnCount, int capacity, int initialCapacity) {
+            this.columns = new ArrayList<>(columnCount);
+            this.capacity = capacity;
+            for (int i = 0; i < columnCount; i++) {
+                columns.add(new CappedList<>(initialCapacity));
+            }
+        }
+
+        private int size() {
+            return columns.getFirst().size();
+        }
+
+        private int partialCapacity() {
+            return columns.getFirst().capacity();
+        }
+
+        private void ensureCapacity(int minCapacity) {
+            int currentCapacity = columns.getFirst().capacity();
+            if (minCapacity > currentCapacity) {
+                int newCapacity = grownCapacity(currentCapacity, minCapacity, capacity);
+                columns.replaceAll(column -> new CappedList<>(column, newCapacity));
+            }
+        }
+
+        private void add(Object first, Object second) {
+            ensureCapacity(size() + 1);
+            columns.get(0).add(first);
+            columns.get(1).add(second);
+        }
+
+        private void add(Object first, Object second, Object third) {
+            ensureCapacity(size() + 1);
+            columns.get(0).add(first);
+            columns.get(1).add(second);
+            columns.get(2).add(third);
+        }
+
+        private ListColumns merge(ListColumns other) {
+            int mergedSize = size() + other.size();
+            if (mergedSize > partialCapacity() && mergedSize <= other.partialCapacity()) {
+                for (int i = 0; i < columns.size(); i++) {
+                    other.columns.get(i).addAll(0, columns.get(i));
+                }
+                return other;
+            }
+            ensureCapacity(mergedSize);
+            for (int i = 0; i < columns.size(); i++) {
+                columns.get(i).addAll(other.columns.get(i));
+            }
+            return this;
+        }
+
+        @SuppressWarnings("unchecked")
+        private <E> CappedList<E> toCappedList(int index) {
+            CappedList<Object> column = columns.get(index);
+            if (column.capacity() != capacity) {
+                column = new CappedList<>(column, capacity);
+            }
+            return (CappedList<E>) (CappedList<?>) column;
+        }
+    }
+
+    private static final class DoubleColumns {
+        private final double[][] columns;
+        private final int capacity;
+        private int size;
+
+        private DoubleColumns(int columnCount, int capacity, int initialCapacity) {
+            this.columns = new double[columnCount][initialCapacity];
+            this.capacity = capacity;
+        }
+
+        private int partialCapacity() {
+            return columns.length == 0 ? capacity : columns[0].length;
+        }
+
+        private void ensureCapacity(int minCapacity) {
+            int currentCapacity = partialCapacity();
+            if (minCapacity > currentCapacity) {
+                int newCapacity = grownCapacity(currentCapacity, minCapacity, capacity);
+                for (int i = 0; i < columns.length; i++) {
+                    columns[i] = Arrays.copyOf(columns[i], newCapacity);
+                }
+            } else if (minCapacity > capacity) {
+                throw new IllegalStateException(TOO_MANY_ELEMENTS_MESSAGE.formatted(capacity));
+            }
+        }
+
+        private <T> void add(List<ToDoubleFunction<? super T>> extractors, T element) {
+            ensureCapacity(size + 1);
+            for (int i = 0; i < columns.length; i++) {
+                columns[i][size] = extractors.get(i).applyAsDouble(element);
+            }
+            size++;
+        }
+
+        private DoubleColumns merge(DoubleColumns other) {
+            int mergedSize = size + other.size;
+            if (mergedSize > partialCapacity() && mergedSize <= other.partialCapacity()) {
+                for (int i = 0; i < columns.length; i++) {
+                    System.arraycopy(other.columns[i], 0,
+                        other.columns[i], size,
+                        other.size);
+                    System.arraycopy(columns[i], 0,
+                        other.columns[i], 0,
+                        size);
+                }
+                other.size = mergedSize;
+                return other;
+            }
+            ensureCapacity(mergedSize);
+            for (int i = 0; i < columns.length; i++) {
+                System.arraycopy(other.columns[i], 0,
+                    columns[i], size,
+                    other.size);
+            }
+            size += other.size;
+            return this;
+        }
+
+        private double[][] toArrays() {
+            if (columns.length == 0 || size == columns[0].length) {
+                return columns;
+            }
+            double[][] result = new double[columns.length][];
+            for (int i = 0; i < columns.length; i++) {
+                result[i] = Arrays.copyOf(columns[i], size);
+            }
+            return result;
+        }
+    }
+}
@@ -3,6 +3,9 @@ package org.nasengolem.util.zip;
 import org.jooq.lambda.tuple.Tuple2;
 
 import java.util.Iterator;
+import java.util.function.BiFunction;
+import java.util.function.BiPredicate;
+import java.util.stream.Stream;
 
 /**
  * The {@code Zip2} class combines two iterables into a single iterable of pairs (tuples).
@@ -26,8 +29,11 @@ import java.util.Iterator;
 public class Zip2<V1, V2, I1 extends Iterable<V1>, I2 extends Iterable<V2>>
         extends Zip<Tuple2<V1, V2>> {
 
+    private final I1 iterable1;
+    private final I2 iterable2;
     private final Iterator<V1> itr1;
     private final Iterator<V2> itr2;
+    private long position;
 
     /**
      * Constructs a {@code Zip2} instance by initializing iterators for the provided iterables.
@@ -36,6 +42,8 @@ public class Zip2<V1, V2, I1 extends Iterable<V1>, I2 extends Iterable<V2>>
      * @param iterable2 the second iterable to zip.
      */
     public Zip2(I1 iterable1, I2 iterable2) {
+        this.iterable1 = iterable1;
+        this.iterable2 = iterable2;
         this.itr1 = iterable1.iterator();
         this.itr2 = iterable2.iterator();
     }
@@ -57,6 +65,42 @@ public class Zip2<V1, V2, I1 extends Iterable<V1>, I2 extends Iterable<V2>>
      */
     @Override
     public Tuple2<V1, V2> next() {
-        return new Tuple2<>(itr1.next(), itr2.next());
+        Tuple2<V1, V2> tuple = new Tuple2<>(itr1.next(), itr2.next());
+        position++;
+        return tuple;
+    }
+
+    /**
+     * Returns a lazy pipeline over the remaining pairs of this zip. The pipeline passes the components of each pair as
+     * separate arguments to its functions, so no {@link Tuple2} is created. This zip must not be used afterwards.
+     *
+     * @return a pipeline over the remaining pairs.
+     * @see ZipPipeline2
+     */
+    public ZipPipeline2<V1, V2> pipeline() {
+        return new ZipPipeline2<>(iterable1, iterable2, itr1, itr2, position);
+    }
+
+    /**
+     * Shorthand for {@code pipeline().filter(predicate)}.
+     *
+     * @param predicate the predicate to apply to the components of each pair.
+     * @return a pipeline over the remaining pairs that match the predicate.
+     * @see ZipPipeline2#filter(BiPredicate)
+     */
+    public ZipPipeline2<V1, V2> filter(BiPredicate<? super V1, ? super V2> predicate) {
+        return pipeline().filter(predicate);
+    }
+
+    /**
+     * Shorthand for {@code pipeline().map(mapper)}.
+     *
+     * @param mapper the function to apply to the components of each pair.
+     * @param <R>    the element type of the returned stream.
+     * @return a stream of the mapped pairs.
+     * @see ZipPipeline2#map(BiFunction)
+     */
+    public <R> Stream<R> map(BiFunction<? super V1, ? super V2, ? extends R> mapper) {
+        return pipeline().map(mapper);
     }
 }
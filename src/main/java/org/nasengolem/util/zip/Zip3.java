@@ -1,8 +1,10 @@
 package org.nasengolem.util.zip;
 
+import org.jooq.lambda.function.Function3;
 import org.jooq.lambda.tuple.Tuple3;
 
 import java.util.Iterator;
+import java.util.stream.Stream;
 
 /**
  * The {@code Zip3} class combines three iterables into a single iterable of triples (tuples).
@@ -28,9 +30,13 @@ import java.util.Iterator;
 public class Zip3<V1, V2, V3, I1 extends Iterable<V1>, I2 extends Iterable<V2>, I3 extends Iterable<V3>>
         extends Zip<Tuple3<V1, V2, V3>> {
 
+    private final I1 iterable1;
+    private final I2 iterable2;
+    private final I3 iterable3;
     private final Iterator<V1> itr1;
     private final Iterator<V2> itr2;
     private final Iterator<V3> itr3;
+    private long position;
 
     /**
      * Constructs a {@code Zip3} instance by initializing iterators for the provided iterables.
@@ -40,6 +46,9 @@ public class Zip3<V1, V2, V3, I1 extends Iterable<V1>, I2 extends Iterable<V2>,
      * @param iterable3 the third iterable to zip.
      */
     public Zip3(I1 iterable1, I2 iterable2, I3 iterable3) {
+        this.iterable1 = iterable1;
+        this.iterable2 = iterable2;
+        this.iterable3 = iterable3;
         this.itr1 = iterable1.iterator();
         this.itr2 = iterable2.iterator();
         this.itr3 = iterable3.iterator();
@@ -62,6 +71,42 @@ public class Zip3<V1, V2, V3, I1 extends Iterable<V1>, I2 extends Iterable<V2>,
      */
     @Override
     public Tuple3<V1, V2, V3> next() {
-        return new Tuple3<>(itr1.next(), itr2.next(), itr3.next());
+        Tuple3<V1, V2, V3> tuple = new Tuple3<>(itr1.next(), itr2.next(), itr3.next());
+        position++;
+        return tuple;
+    }
+
+    /**
+     * Returns a lazy pipeline over the remaining triples of this zip. The pipeline passes the components of each triple
+     * as separate arguments to its functions, so no {@link Tuple3} is created. This zip must not be used afterwards.
+     *
+     * @return a pipeline over the remaining triples.
+     * @see ZipPipeline3
+     */
+    public ZipPipeline3<V1, V2, V3> pipeline() {
+        return new ZipPipeline3<>(iterable1, iterable2, iterable3, itr1, itr2, itr3, position);
+    }
+
+    /**
+     * Shorthand for {@code pipeline().filter(predicate)}.
+     *
+     * @param predicate the predicate to apply to the components of each triple.
+     * @return a pipeline over the remaining triples that match the predicate.
+     * @see ZipPipeline3#filter(ZipPipeline3.Predicate3)
+     */
+    public ZipPipeline3<V1, V2, V3> filter(ZipPipeline3.Predicate3<? super V1, ? super V2, ? super V3> predicate) {
+        return pipeline().filter(predicate);
+    }
+
+    /**
+     * Shorthand for {@code pipeline().map(mapper)}.
+     *
+     * @param mapper the function to apply to the components of each triple.
+     * @param <R>    the element type of the returned stream.
+     * @return a stream of the mapped triples.
+     * @see ZipPipeline3#map(Function3)
+     */
+    public <R> Stream<R> map(Function3<? super V1, ? super V2, ? super V3, ? extends R> mapper) {
+        return pipeline().map(mapper);
     }
 }
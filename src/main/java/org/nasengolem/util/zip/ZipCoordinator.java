@@ -0,0 +1,241 @@
+package org.nasengolem.util.zip;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+/**
+ * The subscription shared by {@link ZipPublisher2} and {@link ZipPublisher3}. It subscribes to every source with an
+ * inner subscriber, that requests {@code prefetch} items up front and replenishes them in batches, whenever three
+ * quarters of them have been consumed. So no source gets more than {@code prefetch} items ahead of the slowest one.
+ *
+ * <p>All signals to the downstream subscriber are emitted by a single drain loop, that is entered by whichever thread
+ * signals new items, demand or termination, and that is left only after all of its missed work has been done. A
+ * tuple is emitted when every source has an item buffered and the downstream has outstanding demand. The zip completes
+ * as soon as one source completed and its buffer is empty, and fails as soon as one source fails. In both cases, and
+ * on cancellation, all other sources are cancelled.
+ *
+ * @param <T> the type of the tuples emitted downstream.
+ * @author Paul Steinbach
+ */
+final class ZipCoordinator<T> implements Flow.Subscription {
+
+    private static final String ILLEGAL_PREFETCH_MESSAGE = "Illegal prefetch of %d. The prefetch must be positive.";
+    private static final String ILLEGAL_REQUEST_MESSAGE = "Illegal request of %d items. Requests must be positive.";
+
+    private final Flow.Subscriber<? super T> downstream;
+    private final Function<Object[], T> zipper;
+    private final List<Inner> inners;
+    private final AtomicLong requested = new AtomicLong();
+    private final AtomicInteger wip = new AtomicInteger();
+    private final AtomicReference<Throwable> error = new AtomicReference<>();
+    private volatile boolean cancelled;
+
+    ZipCoordinator(Flow.Subscriber<? super T> downstream, int sources, int prefetch, Function<Object[], T> zipper) {
+        this.downstream = Objects.requireNonNull(downstream);
+        this.zipper = zipper;
+        this.inners = new ArrayList<>(sources);
+        for (int i = 0; i < sources; i++) {
+            inners.add(new Inner(prefetch));
+        }
+    }
+
+    static void checkPrefetch(int prefetch) {
+        if (prefetch <= 0) {
+            throw new IllegalArgumentException(ILLEGAL_PREFETCH_MESSAGE.formatted(prefetch));
+        }
+    }
+
+    /**
+     * Hands this subscription to the downstream subscriber and subscribes to all sources.
+     */
+    void subscribe(List<? extends Flow.Publisher<?>> sources) {
+        downstream.onSubscribe(this);
+        for (int i = 0; i < inners.size() && !cancelled; i++) {
+            sources.get(i).subscribe(inners.get(i));
+        }
+    }
+
+    @Override
+    public void request(long n) {
+        if (n <= 0) {
+            error.compareAndSet(null, new IllegalArgumentException(ILLEGAL_REQUEST_MESSAGE.formatted(n)));
+        } else {
+            long current;
+            long next;
+            do {
+                current = requested.get();
+                next = current + n < 0 ? Long.MAX_VALUE : current + n;
+            } while (current != Long.MAX_VALUE && !requested.compareAndSet(current, next));
+        }
+        drain();
+    }
+
+    @Override
+    public void cancel() {
+        if (!cancelled) {
+            cancelled = true;
+            cancelAll();
+            if (wip.getAndIncrement() == 0) {
+                clearAll();
+            }
+        }
+    }
+
+    private void cancelAll() {
+        for (Inner inner : inners) {
+            inner.cancel();
+        }
+    }
+
+    private void clearAll() {
+        for (Inner inner : inners) {
+            inner.queue.clear();
+        }
+    }
+
+    private void terminate() {
+        cancelled = true;
+        cancelAll();
+        clearAll();
+    }
+
+    private void drain() {
+        if (wip.getAndIncrement() != 0) {
+            return;
+        }
+        int missed = 1;
+        do {
+            long demand = requested.get();
+            long emitted = 0L;
+            while (true) {
+                if (cancelled) {
+                    clearAll();
+                    return;
+                }
+                Throwable throwable = error.get();
+                if (throwable != null) {
+                    terminate();
+                    downstream.onError(throwable);
+                    return;
+                }
+                boolean empty = false;
+                for (Inner inner : inners) {
+                    boolean done = inner.done;
+                    if (inner.queue.peek() == null) {
+                        if (done) {
+                            terminate();
+                            downstream.onComplete();
+                            return;
+                        }
+                        empty = true;
+                    }
+                }
+                if (empty || emitted == demand) {
+                    break;
+                }
+
+                Object[] values = new Object[inners.size()];
+                for (int i = 0; i < values.length; i++) {
+                    values[i] = inners.get(i).queue.poll();
+                }
+                T tuple;
+                try {
+                    tuple = zipper.apply(values);
+                } catch (Throwable t) {
+                    terminate();
+                    downstream.onError(t);
+                    return;
+                }
+                downstream.onNext(tuple);
+                emitted++;
+                for (Inner inner : inners) {
+                    inner.replenish();
+                }
+            }
+            if (emitted != 0L && demand != Long.MAX_VALUE) {
+                requested.addAndGet(-emitted);
+            }
+            missed = wip.addAndGet(-missed);
+        } while (missed != 0);
+    }
+
+    private final class Inner implements Flow.Subscriber<Object> {
+        private final Queue<Object> queue = new ConcurrentLinkedQueue<>();
+        private final AtomicReference<Flow.Subscription> subscription = new AtomicReference<>();
+        private final int prefetch;
+        private final int limit;
+        private volatile boolean done;
+        private int consumed;
+
+        private Inner(int prefetch) {
+            this.prefetch = prefetch;
+            this.limit = prefetch - (prefetch >> 2);
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription s) {
+            if (subscription.compareAndSet(null, s)) {
+                s.request(prefetch);
+            } else {
+                s.cancel();
+            }
+        }
+
+        @Override
+        public void onNext(Object item) {
+            queue.offer(Objects.requireNonNull(item));
+            drain();
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            error.compareAndSet(null, throwable);
+            done = true;
+            drain();
+        }
+
+        @Override
+        public void onComplete() {
+            done = true;
+            drain();
+        }
+
+        /**
+         * Called by the drain loop for every consumed item. Requests the next batch once {@code limit} items were
+         * consumed.
+         */
+        private void replenish() {
+            if (++consumed == limit) {
+                consumed = 0;
+                subscription.get().request(limit);
+            }
+        }
+
+        private void cancel() {
+            Flow.Subscription s = subscription.getAndSet(CancelledSubscription.INSTANCE);
+            if (s != null) {
+                s.cancel();
+            }
+        }
+    }
+
+    private enum CancelledSubscription implements Flow.Subscription {
+        INSTANCE;
+
+        @Override
+        public void request(long n) {
+        }
+
+        @Override
+        public void cancel() {
+        }
+    }
+}
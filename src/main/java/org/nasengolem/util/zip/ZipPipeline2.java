@@ -0,0 +1,364 @@
+package org.nasengolem.util.zip;
+
+import org.jooq.lambda.function.Consumer3;
+import org.jooq.lambda.function.Function3;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.BiPredicate;
+import java.util.function.Consumer;
+import java.util.function.DoubleConsumer;
+import java.util.function.Supplier;
+import java.util.function.ToDoubleBiFunction;
+import java.util.stream.DoubleStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Lazy pipeline over two zipped iterables. All intermediate operations ({@link #filter}, {@link #skip} and
+ * {@link #limit}) are fused into a single loop that is only run by a terminal operation. The components of each pair
+ * are passed to the functions as separate arguments, so no {@link org.jooq.lambda.tuple.Tuple2} is created between the
+ * stages:
+ *
+ * <pre>
+ *      new Zip2&lt;&gt;(a, b)
+ *          .filter((x, y) -&gt; pred(x, y))
+ *          .map((x, y) -&gt; f(x, y))
+ *          .toList();
+ * </pre>
+ *
+ * <p>If both iterables are {@link RandomAccess} lists, the pipeline reads them by index. In that case, {@code skip} and
+ * {@code limit} run in constant time as long as they are not preceded by a {@code filter}.
+ *
+ * <p>Like the {@link Zip} it is created from, a pipeline is a single-use object. The intermediate operations modify
+ * and return this pipeline, and the pipeline can only be traversed once.
+ *
+ * @param <V1> the type of elements in the first iterable.
+ * @param <V2> the type of elements in the second iterable.
+ * @author Paul Steinbach
+ * @see Zip2#pipeline()
+ */
+public final class ZipPipeline2<V1, V2> {
+    private static final String NEGATIVE_COUNT_MESSAGE = "Illegal count of %d. The count must be non-negative.";
+
+    static final int PASS = 0;
+    static final int DROP = 1;
+    static final int LAST = 2;
+    static final int STOP = 3;
+
+    @FunctionalInterface
+    private interface Stage<V1, V2> {
+        int apply(V1 v1, V2 v2);
+    }
+
+    private final Iterator<V1> itr1;
+    private final Iterator<V2> itr2;
+    private final List<V1> list1;
+    private final List<V2> list2;
+    private int index;
+    private int end;
+
+    @SuppressWarnings("unchecked")
+    private Stage<V1, V2>[] stages = (Stage<V1, V2>[]) new Stage<?, ?>[0];
+    private boolean done;
+
+    @SuppressWarnings("unchecked")
+    ZipPipeline2(Iterable<V1> iterable1, Iterable<V2> iterable2, Iterator<V1> itr1, Iterator<V2> itr2, long position) {
+        this.itr1 = itr1;
+        this.itr2 = itr2;
+        if (iterable1 instanceof List<?> l1 && l1 instanceof RandomAccess
+            && iterable2 instanceof List<?> l2 && l2 instanceof RandomAccess) {
+            this.list1 = (List<V1>) l1;
+            this.list2 = (List<V2>) l2;
+            this.end = Math.min(l1.size(), l2.size());
+            this.index = (int) Math.min(position, end);
+        } else {
+            this.list1 = null;
+            this.list2 = null;
+        }
+    }
+
+    private ZipPipeline2<V1, V2> addStage(Stage<V1, V2> stage) {
+        stages = Arrays.copyOf(stages, stages.length + 1);
+        stages[stages.length - 1] = stage;
+        return this;
+    }
+
+    private static long checkCount(long n) {
+        if (n < 0) {
+            throw new IllegalArgumentException(NEGATIVE_COUNT_MESSAGE.formatted(n));
+        }
+        return n;
+    }
+
+    /**
+     * Keeps only the pairs that match the given predicate.
+     *
+     * @param predicate the predicate to apply to the components of each pair
+     * @return this pipeline
+     * @throws NullPointerException if the predicate is null
+     */
+    public ZipPipeline2<V1, V2> filter(BiPredicate<? super V1, ? super V2> predicate) {
+        Objects.requireNonNull(predicate);
+        return addStage((v1, v2) -> predicate.test(v1, v2) ? PASS : DROP);
+    }
+
+    /**
+     * Discards the first {@code n} pairs that reach this stage.
+     *
+     * @param n the number of pairs to skip
+     * @return this pipeline
+     * @throws IllegalArgumentException if {@code n} is negative
+     */
+    public ZipPipeline2<V1, V2> skip(long n) {
+        checkCount(n);
+        if (list1 != null && stages.length == 0) {
+            index = (int) Math.min(end, index + n);
+            return this;
+        }
+        long[] remaining = {n};
+        return addStage((v1, v2) -> {
+            if (remaining[0] > 0) {
+                remaining[0]--;
+                return DROP;
+            }
+            return PASS;
+        });
+    }
+
+    /**
+     * Truncates the pipeline after {@code n} pairs have reached this stage.
+     *
+     * @param n the maximum number of pairs to keep
+     * @return this pipeline
+     * @throws IllegalArgumentException if {@code n} is negative
+     */
+    public ZipPipeline2<V1, V2> limit(long n) {
+        checkCount(n);
+        if (n == 0) {
+            done = true;
+            return this;
+        }
+        if (list1 != null && stages.length == 0) {
+            end = (int) Math.min(end, index + n);
+            return this;
+        }
+        long[] remaining = {n};
+        return addStage((v1, v2) -> {
+            if (remaining[0] == 0) {
+                return STOP;
+            }
+            return --remaining[0] == 0 ? LAST : PASS;
+        });
+    }
+
+    /**
+     * Passes the next pair that survives all stages to the given action.
+     *
+     * @param action the action to perform on the components of the pair
+     * @return {@code false} if the pipeline is exhausted, otherwise {@code true}
+     */
+    private boolean advance(BiConsumer<? super V1, ? super V2> action) {
+        while (!done) {
+            V1 v1;
+            V2 v2;
+            if (list1 != null) {
+                if (index >= end) {
+                    done = true;
+                    return false;
+                }
+                v1 = list1.get(index);
+                v2 = list2.get(index);
+                index++;
+            } else {
+                if (!(itr1.hasNext() && itr2.hasNext())) {
+                    done = true;
+                    return false;
+                }
+                v1 = itr1.next();
+                v2 = itr2.next();
+            }
+
+            int result = PASS;
+            for (Stage<V1, V2> stage : stages) {
+                int r = stage.apply(v1, v2);
+                if (r == STOP) {
+                    done = true;
+                    return false;
+                } else if (r == LAST) {
+                    done = true;
+                } else if (r == DROP) {
+                    result = DROP;
+                    break;
+                }
+            }
+            if (result == PASS) {
+                action.accept(v1, v2);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Performs the given action on the components of each remaining pair.
+     *
+     * @param action the action to perform
+     * @throws NullPointerException if the action is null
+     */
+    public void forEach(BiConsumer<? super V1, ? super V2> action) {
+        Objects.requireNonNull(action);
+        while (advance(action)) {
+            // all work is done by the action
+        }
+    }
+
+    /**
+     * Returns a stream of the results of applying the given function to the components of each remaining pair. The
+     * stream is lazy and pulls the pairs through this pipeline on demand.
+     *
+     * @param mapper the function to apply to the components of each pair
+     * @param <R>    the element type of the returned stream
+     * @return a sequential stream of the mapped pairs
+     * @throws NullPointerException if the mapper is null
+     */
+    public <R> Stream<R> map(BiFunction<? super V1, ? super V2, ? extends R> mapper) {
+        Objects.requireNonNull(mapper);
+        MappingSpliterator<R> spliterator = new MappingSpliterator<>(mapper, estimateSize(), characteristics());
+        return StreamSupport.stream(spliterator, false);
+    }
+
+    /**
+     * Returns a {@code DoubleStream} of the results of applying the given function to the components of each remaining
+     * pair. No boxing takes place.
+     *
+     * @param mapper the function to apply to the components of each pair
+     * @return a sequential stream of the mapped pairs
+     * @throws NullPointerException if the mapper is null
+     */
+    public DoubleStream mapToDouble(ToDoubleBiFunction<? super V1, ? super V2> mapper) {
+        Objects.requireNonNull(mapper);
+        DoubleMappingSpliterator spliterator = new DoubleMappingSpliterator(mapper, estimateSize(), characteristics());
+        return StreamSupport.doubleStream(spliterator, false);
+    }
+
+    /**
+     * Folds the remaining pairs into a single result.
+     *
+     * @param identity    the initial value of the result
+     * @param accumulator the function combining the previous result and the components of a pair to a new result
+     * @param <R>         the type of the result
+     * @return the result of the reduction
+     * @throws NullPointerException if the accumulator is null
+     */
+    public <R> R reduce(R identity, Function3<? super R, ? super V1, ? super V2, ? extends R> accumulator) {
+        Objects.requireNonNull(accumulator);
+        Reduction<R> reduction = new Reduction<>(identity, accumulator);
+        forEach(reduction);
+        return reduction.result;
+    }
+
+    /**
+     * Accumulates the remaining pairs into a mutable result container, such as a collection.
+     *
+     * @param supplier    the function creating the result container
+     * @param accumulator the function adding the components of a pair to the container
+     * @param <R>         the type of the result container
+     * @return the result container
+     * @throws NullPointerException if the supplier or the accumulator is null
+     */
+    public <R> R collect(Supplier<? extends R> supplier, Consumer3<? super R, ? super V1, ? super V2> accumulator) {
+        Objects.requireNonNull(accumulator);
+        R container = supplier.get();
+        forEach((v1, v2) -> accumulator.accept(container, v1, v2));
+        return container;
+    }
+
+    private int characteristics() {
+        return list1 != null && stages.length == 0 ? Spliterator.ORDERED | Spliterator.SIZED : Spliterator.ORDERED;
+    }
+
+    private long estimateSize() {
+        return list1 != null && stages.length == 0 ? (done ? 0 : end - index) : Long.MAX_VALUE;
+    }
+
+    private final class Reduction<R> implements BiConsumer<V1, V2> {
+        private final Function3<? super R, ? super V1, ? super V2, ? extends R> accumulator;
+        private R result;
+
+        private Reduction(R identity, Function3<? super R, ? super V1, ? super V2, ? extends R> accumulator) {
+            this.result = identity;
+            this.accumulator = accumulator;
+        }
+
+        @Override
+        public void accept(V1 v1, V2 v2) {
+            result = accumulator.apply(result, v1, v2);
+        }
+    }
+
+    private final class MappingSpliterator<R> extends Spliterators.AbstractSpliterator<R>
+            implements BiConsumer<V1, V2> {
+        private final BiFunction<? super V1, ? super V2, ? extends R> mapper;
+        private Consumer<? super R> action;
+
+        private MappingSpliterator(BiFunction<? super V1, ? super V2, ? extends R> mapper,
+                                   long estimatedSize, int characteristics) {
+            super(estimatedSize, characteristics);
+            this.mapper = mapper;
+        }
+
+        @Override
+        public void accept(V1 v1, V2 v2) {
+            action.accept(mapper.apply(v1, v2));
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super R> action) {
+            this.action = Objects.requireNonNull(action);
+            return advance(this);
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super R> action) {
+            this.action = Objects.requireNonNull(action);
+            ZipPipeline2.this.forEach(this);
+        }
+    }
+
+    private final class DoubleMappingSpliterator extends Spliterators.AbstractDoubleSpliterator
+            implements BiConsumer<V1, V2> {
+        private final ToDoubleBiFunction<? super V1, ? super V2> mapper;
+        private DoubleConsumer action;
+
+        private DoubleMappingSpliterator(ToDoubleBiFunction<? super V1, ? super V2> mapper,
+                                         long estimatedSize, int characteristics) {
+            super(estimatedSize, characteristics);
+            this.mapper = mapper;
+        }
+
+        @Override
+        public void accept(V1 v1, V2 v2) {
+            action.accept(mapper.applyAsDouble(v1, v2));
+        }
+
+        @Override
+        public boolean tryAdvance(DoubleConsumer action) {
+            this.action = Objects.requireNonNull(action);
+            return advance(this);
+        }
+
+        @Override
+        public void forEachRemaining(DoubleConsumer action) {
+            this.action = Objects.requireNonNull(action);
+            ZipPipeline2.this.forEach(this);
+        }
+    }
+}
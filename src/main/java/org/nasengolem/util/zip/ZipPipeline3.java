@@ -0,0 +1,401 @@
+package org.nasengolem.util.zip;
+
+import org.jooq.lambda.function.Consumer3;
+import org.jooq.lambda.function.Consumer4;
+import org.jooq.lambda.function.Function3;
+import org.jooq.lambda.function.Function4;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.function.DoubleConsumer;
+import java.util.function.Supplier;
+import java.util.stream.DoubleStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Lazy pipeline over three zipped iterables. All intermediate operations ({@link #filter}, {@link #skip} and
+ * {@link #limit}) are fused into a single loop that is only run by a terminal operation. The components of each triple
+ * are passed to the functions as separate arguments, so no {@link org.jooq.lambda.tuple.Tuple3} is created between the
+ * stages:
+ *
+ * <pre>
+ *      new Zip3&lt;&gt;(a, b, c)
+ *          .filter((x, y, z) -&gt; pred(x, y, z))
+ *          .map((x, y, z) -&gt; f(x, y, z))
+ *          .toList();
+ * </pre>
+ *
+ * <p>If all three iterables are {@link RandomAccess} lists, the pipeline reads them by index. In that case,
+ * {@code skip} and {@code limit} run in constant time as long as they are not preceded by a {@code filter}.
+ *
+ * <p>Like the {@link Zip} it is created from, a pipeline is a single-use object. The intermediate operations modify
+ * and return this pipeline, and the pipeline can only be traversed once.
+ *
+ * @param <V1> the type of elements in the first iterable.
+ * @param <V2> the type of elements in the second iterable.
+ * @param <V3> the type of elements in the third iterable.
+ * @author Paul Steinbach
+ * @see Zip3#pipeline()
+ * @see ZipPipeline2
+ */
+public final class ZipPipeline3<V1, V2, V3> {
+    private static final String NEGATIVE_COUNT_MESSAGE = "Illegal count of %d. The count must be non-negative.";
+
+    private static final int PASS = ZipPipeline2.PASS;
+    private static final int DROP = ZipPipeline2.DROP;
+    private static final int LAST = ZipPipeline2.LAST;
+    private static final int STOP = ZipPipeline2.STOP;
+
+    /**
+     * Represents a predicate of three arguments.
+     *
+     * @param <T1> the type of the first argument
+     * @param <T2> the type of the second argument
+     * @param <T3> the type of the third argument
+     */
+    @FunctionalInterface
+    public interface Predicate3<T1, T2, T3> {
+        boolean test(T1 t1, T2 t2, T3 t3);
+    }
+
+    /**
+     * Represents a function of three arguments that produces a {@code double}.
+     *
+     * @param <T1> the type of the first argument
+     * @param <T2> the type of the second argument
+     * @param <T3> the type of the third argument
+     */
+    @FunctionalInterface
+    public interface ToDoubleFunction3<T1, T2, T3> {
+        double applyAsDouble(T1 t1, T2 t2, T3 t3);
+    }
+
+    @FunctionalInterface
+    private interface Stage<V1, V2, V3> {
+        int apply(V1 v1, V2 v2, V3 v3);
+    }
+
+    private final Iterator<V1> itr1;
+    private final Iterator<V2> itr2;
+    private final Iterator<V3> itr3;
+    private final List<V1> list1;
+    private final List<V2> list2;
+    private final List<V3> list3;
+    private int index;
+    private int end;
+
+    @SuppressWarnings("unchecked")
+    private Stage<V1, V2, V3>[] stages = (Stage<V1, V2, V3>[]) new Stage<?, ?, ?>[0];
+    private boolean done;
+
+    @SuppressWarnings("unchecked")
+    ZipPipeline3(Iterable<V1> iterable1, Iterable<V2> iterable2, Iterable<V3> iterable3,
+                 Iterator<V1> itr1, Iterator<V2> itr2, Iterator<V3> itr3, long position) {
+        this.itr1 = itr1;
+        this.itr2 = itr2;
+        this.itr3 = itr3;
+        if (iterable1 instanceof List<?> l1 && l1 instanceof RandomAccess
+            && iterable2 instanceof List<?> l2 && l2 instanceof RandomAccess
+            && iterable3 instanceof List<?> l3 && l3 instanceof RandomAccess) {
+            this.list1 = (List<V1>) l1;
+            this.list2 = (List<V2>) l2;
+            this.list3 = (List<V3>) l3;
+            this.end = Math.min(l1.size(), Math.min(l2.size(), l3.size()));
+            this.index = (int) Math.min(position, end);
+        } else {
+            this.list1 = null;
+            this.list2 = null;
+            this.list3 = null;
+        }
+    }
+
+    private ZipPipeline3<V1, V2, V3> addStage(Stage<V1, V2, V3> stage) {
+        stages = Arrays.copyOf(stages, stages.length + 1);
+        stages[stages.length - 1] = stage;
+        return this;
+    }
+
+    private static long checkCount(long n) {
+        if (n < 0) {
+            throw new IllegalArgumentException(NEGATIVE_COUNT_MESSAGE.formatted(n));
+        }
+        return n;
+    }
+
+    /**
+     * Keeps only the triples that match the given predicate.
+     *
+     * @param predicate the predicate to apply to the components of each triple
+     * @return this pipeline
+     * @throws NullPointerException if the predicate is null
+     */
+    public ZipPipeline3<V1, V2, V3> filter(Predicate3<? super V1, ? super V2, ? super V3> predicate) {
+        Objects.requireNonNull(predicate);
+        return addStage((v1, v2, v3) -> predicate.test(v1, v2, v3) ? PASS : DROP);
+    }
+
+    /**
+     * Discards the first {@code n} triples that reach this stage.
+     *
+     * @param n the number of triples to skip
+     * @return this pipeline
+     * @throws IllegalArgumentException if {@code n} is negative
+     */
+    public ZipPipeline3<V1, V2, V3> skip(long n) {
+        checkCount(n);
+        if (list1 != null && stages.length == 0) {
+            index = (int) Math.min(end, index + n);
+            return this;
+        }
+        long[] remaining = {n};
+        return addStage((v1, v2, v3) -> {
+            if (remaining[0] > 0) {
+                remaining[0]--;
+                return DROP;
+            }
+            return PASS;
+        });
+    }
+
+    /**
+     * Truncates the pipeline after {@code n} triples have reached this stage.
+     *
+     * @param n the maximum number of triples to keep
+     * @return this pipeline
+     * @throws IllegalArgumentException if {@code n} is negative
+     */
+    public ZipPipeline3<V1, V2, V3> limit(long n) {
+        checkCount(n);
+        if (n == 0) {
+            done = true;
+            return this;
+        }
+        if (list1 != null && stages.length == 0) {
+            end = (int) Math.min(end, index + n);
+            return this;
+        }
+        long[] remaining = {n};
+        return addStage((v1, v2, v3) -> {
+            if (remaining[0] == 0) {
+                return STOP;
+            }
+            return --remaining[0] == 0 ? LAST : PASS;
+        });
+    }
+
+    /**
+     * Passes the next triple that survives all stages to the given action.
+     *
+     * @param action the action to perform on the components of the triple
+     * @return {@code false} if the pipeline is exhausted, otherwise {@code true}
+     */
+    private boolean advance(Consumer3<? super V1, ? super V2, ? super V3> action) {
+        while (!done) {
+            V1 v1;
+            V2 v2;
+            V3 v3;
+            if (list1 != null) {
+                if (index >= end) {
+                    done = true;
+                    return false;
+                }
+                v1 = list1.get(index);
+                v2 = list2.get(index);
+                v3 = list3.get(index);
+                index++;
+            } else {
+                if (!(itr1.hasNext() && itr2.hasNext() && itr3.hasNext())) {
+                    done = true;
+                    return false;
+                }
+                v1 = itr1.next();
+                v2 = itr2.next();
+                v3 = itr3.next();
+            }
+
+            int result = PASS;
+            for (Stage<V1, V2, V3> stage : stages) {
+                int r = stage.apply(v1, v2, v3);
+                if (r == STOP) {
+                    done = true;
+                    return false;
+                } else if (r == LAST) {
+                    done = true;
+                } else if (r == DROP) {
+                    result = DROP;
+                    break;
+                }
+            }
+            if (result == PASS) {
+                action.accept(v1, v2, v3);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Performs the given action on the components of each remaining triple.
+     *
+     * @param action the action to perform
+     * @throws NullPointerException if the action is null
+     */
+    public void forEach(Consumer3<? super V1, ? super V2, ? super V3> action) {
+        Objects.requireNonNull(action);
+        while (advance(action)) {
+            // all work is done by the action
+        }
+    }
+
+    /**
+     * Returns a stream of the results of applying the given function to the components of each remaining triple. The
+     * stream is lazy and pulls the triples through this pipeline on demand.
+     *
+     * @param mapper the function to apply to the components of each triple
+     * @param <R>    the element type of the returned stream
+     * @return a sequential stream of the mapped triples
+     * @throws NullPointerException if the mapper is null
+     */
+    public <R> Stream<R> map(Function3<? super V1, ? super V2, ? super V3, ? extends R> mapper) {
+        Objects.requireNonNull(mapper);
+        MappingSpliterator<R> spliterator = new MappingSpliterator<>(mapper, estimateSize(), characteristics());
+        return StreamSupport.stream(spliterator, false);
+    }
+
+    /**
+     * Returns a {@code DoubleStream} of the results of applying the given function to the components of each remaining
+     * triple. No boxing takes place.
+     *
+     * @param mapper the function to apply to the components of each triple
+     * @return a sequential stream of the mapped triples
+     * @throws NullPointerException if the mapper is null
+     */
+    public DoubleStream mapToDouble(ToDoubleFunction3<? super V1, ? super V2, ? super V3> mapper) {
+        Objects.requireNonNull(mapper);
+        DoubleMappingSpliterator spliterator = new DoubleMappingSpliterator(mapper, estimateSize(), characteristics());
+        return StreamSupport.doubleStream(spliterator, false);
+    }
+
+    /**
+     * Folds the remaining triples into a single result.
+     *
+     * @param identity    the initial value of the result
+     * @param accumulator the function combining the previous result and the components of a triple to a new result
+     * @param <R>         the type of the result
+     * @return the result of the reduction
+     * @throws NullPointerException if the accumulator is null
+     */
+    public <R> R reduce(R identity,
+                        Function4<? super R, ? super V1, ? super V2, ? super V3, ? extends R> accumulator) {
+        Objects.requireNonNull(accumulator);
+        Reduction<R> reduction = new Reduction<>(identity, accumulator);
+        forEach(reduction);
+        return reduction.result;
+    }
+
+    /**
+     * Accumulates the remaining triples into a mutable result container, such as a collection.
+     *
+     * @param supplier    the function creating the result container
+     * @param accumulator the function adding the components of a triple to the container
+     * @param <R>         the type of the result container
+     * @return the result container
+     * @throws NullPointerException if the supplier or the accumulator is null
+     */
+    public <R> R collect(Supplier<? extends R> supplier,
+                         Consumer4<? super R, ? super V1, ? super V2, ? super V3> accumulator) {
+        Objects.requireNonNull(accumulator);
+        R container = supplier.get();
+        forEach((v1, v2, v3) -> accumulator.accept(container, v1, v2, v3));
+        return container;
+    }
+
+    private int characteristics() {
+        return list1 != null && stages.length == 0 ? Spliterator.ORDERED | Spliterator.SIZED : Spliterator.ORDERED;
+    }
+
+    private long estimateSize() {
+        return list1 != null && stages.length == 0 ? (done ? 0 : end - index) : Long.MAX_VALUE;
+    }
+
+    private final class Reduction<R> implements Consumer3<V1, V2, V3> {
+        private final Function4<? super R, ? super V1, ? super V2, ? super V3, ? extends R> accumulator;
+        private R result;
+
+        private Reduction(R identity,
+                          Function4<? super R, ? super V1, ? super V2, ? super V3, ? extends R> accumulator) {
+            this.result = identity;
+            this.accumulator = accumulator;
+        }
+
+        @Override
+        public void accept(V1 v1, V2 v2, V3 v3) {
+            result = accumulator.apply(result, v1, v2, v3);
+        }
+    }
+
+    private final class MappingSpliterator<R> extends Spliterators.AbstractSpliterator<R>
+            implements Consumer3<V1, V2, V3> {
+        private final Function3<? super V1, ? super V2, ? super V3, ? extends R> mapper;
+        private Consumer<? super R> action;
+
+        private MappingSpliterator(Function3<? super V1, ? super V2, ? super V3, ? extends R> mapper,
+                                   long estimatedSize, int characteristics) {
+            super(estimatedSize, characteristics);
+            this.mapper = mapper;
+        }
+
+        @Override
+        public void accept(V1 v1, V2 v2, V3 v3) {
+            action.accept(mapper.apply(v1, v2, v3));
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super R> action) {
+            this.action = Objects.requireNonNull(action);
+            return advance(this);
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super R> action) {
+            this.action = Objects.requireNonNull(action);
+            ZipPipeline3.this.forEach(this);
+        }
+    }
+
+    private final class DoubleMappingSpliterator extends Spliterators.AbstractDoubleSpliterator
+            implements Consumer3<V1, V2, V3> {
+        private final ToDoubleFunction3<? super V1, ? super V2, ? super V3> mapper;
+        private DoubleConsumer action;
+
+        private DoubleMappingSpliterator(ToDoubleFunction3<? super V1, ? super V2, ? super V3> mapper,
+                                         long estimatedSize, int characteristics) {
+            super(estimatedSize, characteristics);
+            this.mapper = mapper;
+        }
+
+        @Override
+        public void accept(V1 v1, V2 v2, V3 v3) {
+            action.accept(mapper.applyAsDouble(v1, v2, v3));
+        }
+
+        @Override
+        public boolean tryAdvance(DoubleConsumer action) {
+            this.action = Objects.requireNonNull(action);
+            return advance(this);
+        }
+
+        @Override
+        public void forEachRemaining(DoubleConsumer action) {
+            this.action = Objects.requireNonNull(action);
+            ZipPipeline3.this.forEach(this);
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package org.nasengolem.util.zip;
+
+import java.util.List;
+import java.util.concurrent.Flow;
+
+/**
+ * The {@code ZipPublisher} class combines any number of {@link Flow.Publisher}s into a single publisher of lists: the
+ * n-th list holds the n-th item of each source, in the order of the sources. It is the n-ary variant of
+ * {@link ZipPublisher2} and {@link ZipPublisher3}, trading their typed tuples for unmodifiable lists of
+ * {@link Object}s.
+ *
+ * <p>Every subscriber gets its own subscription to all sources. Items are requested from the sources in coordinated
+ * batches: each source is asked for {@code prefetch} items up front, and for the next batch whenever three quarters
+ * of the previous items have been zipped. So a fast source never gets more than {@code prefetch} items ahead of a
+ * slow one. Lists are only emitted as requested by the subscriber via {@link Flow.Subscription#request(long)}.
+ *
+ * <p>The zip completes as soon as one of the sources completed and all of its items have been zipped, and fails as
+ * soon as one of the sources fails. In both cases the other sources are cancelled. Cancelling the subscription
+ * cancels all sources.
+ *
+ * @author Paul Steinbach
+ * @see ZipPublisher2
+ * @see ZipPublisher3
+ */
+public class ZipPublisher implements Flow.Publisher<List<Object>> {
+
+    /**
+     * The prefetch used by {@link #ZipPublisher(List)}.
+     */
+    public static final int DEFAULT_PREFETCH = 64;
+
+    private static final String NO_PUBLISHERS_MESSAGE = "At least one publisher is required.";
+
+    private final List<Flow.Publisher<?>> publishers;
+    private final int prefetch;
+
+    /**
+     * Constructs a {@code ZipPublisher} instance with a prefetch of {@value #DEFAULT_PREFETCH}.
+     *
+     * @param publishers the publishers to zip.
+     * @throws NullPointerException     if the list or one of the publishers is null.
+     * @throws IllegalArgumentException if the list is empty.
+     */
+    public ZipPublisher(List<? extends Flow.Publisher<?>> publishers) {
+        this(publishers, DEFAULT_PREFETCH);
+    }
+
+    /**
+     * Constructs a {@code ZipPublisher} instance.
+     *
+     * @param publishers the publishers to zip.
+     * @param prefetch   the maximum number of items requested ahead from each publisher.
+     * @throws NullPointerException     if the list or one of the publishers is null.
+     * @throws IllegalArgumentException if the list is empty or the prefetch is not positive.
+     */
+    public ZipPublisher(List<? extends Flow.Publisher<?>> publishers, int prefetch) {
+        ZipCoordinator.checkPrefetch(prefetch);
+        if (publishers.isEmpty()) {
+            throw new IllegalArgumentException(NO_PUBLISHERS_MESSAGE);
+        }
+        this.publishers = List.copyOf(publishers);
+        this.prefetch = prefetch;
+    }
+
+    /**
+     * Subscribes the given subscriber and all sources.
+     *
+     * @param subscriber the subscriber.
+     * @throws NullPointerException if the subscriber is null.
+     */
+    @Override
+    public void subscribe(Flow.Subscriber<? super List<Object>> subscriber) {
+        new ZipCoordinator<List<Object>>(subscriber, publishers.size(), prefetch, List::of).subscribe(publishers);
+    }
+}
@@ -0,0 +1,78 @@
+package org.nasengolem.util.zip;
+
+import org.jooq.lambda.tuple.Tuple2;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.Flow;
+
+/**
+ * The {@code ZipPublisher2} class is the push-based counterpart of {@link Zip2}. It combines two
+ * {@link Flow.Publisher}s into a single publisher of pairs (tuples): the n-th tuple holds the n-th item of each source.
+ *
+ * <p>Every subscriber gets its own subscription to both sources. Items are requested from the sources in coordinated
+ * batches: each source is asked for {@code prefetch} items up front, and for the next batch whenever three quarters
+ * of the previous items have been zipped. So a fast source never gets more than {@code prefetch} items ahead of a
+ * slow one. Tuples are only emitted as requested by the subscriber via {@link Flow.Subscription#request(long)}.
+ *
+ * <p>The zip completes as soon as one of the sources completed and all of its items have been zipped, and fails as
+ * soon as one of the sources fails. In both cases the other source is cancelled. Cancelling the subscription cancels
+ * both sources.
+ *
+ * @param <V1> the type of items of the first publisher.
+ * @param <V2> the type of items of the second publisher.
+ * @author Paul Steinbach
+ * @see Zip2
+ * @see ZipPublisher3
+ */
+public class ZipPublisher2<V1, V2> implements Flow.Publisher<Tuple2<V1, V2>> {
+
+    /**
+     * The prefetch used by {@link #ZipPublisher2(Flow.Publisher, Flow.Publisher)}.
+     */
+    public static final int DEFAULT_PREFETCH = 64;
+
+    private final Flow.Publisher<? extends V1> publisher1;
+    private final Flow.Publisher<? extends V2> publisher2;
+    private final int prefetch;
+
+    /**
+     * Constructs a {@code ZipPublisher2} instance with a prefetch of {@value #DEFAULT_PREFETCH}.
+     *
+     * @param publisher1 the first publisher to zip.
+     * @param publisher2 the second publisher to zip.
+     */
+    public ZipPublisher2(Flow.Publisher<? extends V1> publisher1, Flow.Publisher<? extends V2> publisher2) {
+        this(publisher1, publisher2, DEFAULT_PREFETCH);
+    }
+
+    /**
+     * Constructs a {@code ZipPublisher2} instance.
+     *
+     * @param publisher1 the first publisher to zip.
+     * @param publisher2 the second publisher to zip.
+     * @param prefetch   the maximum number of items requested ahead from each publisher.
+     * @throws IllegalArgumentException if the prefetch is not positive.
+     */
+    public ZipPublisher2(Flow.Publisher<? extends V1> publisher1, Flow.Publisher<? extends V2> publisher2,
+            int prefetch) {
+        ZipCoordinator.checkPrefetch(prefetch);
+        this.publisher1 = Objects.requireNonNull(publisher1);
+        this.publisher2 = Objects.requireNonNull(publisher2);
+        this.prefetch = prefetch;
+    }
+
+    /**
+     * Subscribes the given subscriber and both sources.
+     *
+     * @param subscriber the subscriber.
+     * @throws NullPointerException if the subscriber is null.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public void subscribe(Flow.Subscriber<? super Tuple2<V1, V2>> subscriber) {
+        new ZipCoordinator<Tuple2<V1, V2>>(subscriber, 2, prefetch,
+                values -> new Tuple2<>((V1) values[0], (V2) values[1])
+        ).subscribe(List.of(publisher1, publisher2));
+    }
+}
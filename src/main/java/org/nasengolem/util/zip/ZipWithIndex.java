@@ -0,0 +1,128 @@
+package org.nasengolem.util.zip;
+
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.function.ObjLongConsumer;
+
+/**
+ * The {@code ZipWithIndex} class pairs each element of an iterable with its index, like Python's {@code enumerate}.
+ * Unlike zipping the iterable with a stream of indices in a {@link Zip2}, the index is a primitive {@code long} and no
+ * tuple is created per element: {@link #next()} returns the same {@link Indexed} cursor every time, updated to the
+ * next element.
+ *
+ * <pre>
+ *      for (ZipWithIndex.Indexed&lt;String&gt; line : new ZipWithIndex&lt;&gt;(lines)) {
+ *          System.out.println(line.index() + ": " + line.value());
+ *      }
+ * </pre>
+ *
+ * <p>Since the cursor is reused, it must not be stored or passed to other threads. Use
+ * {@link #forEach(ObjLongConsumer)} to receive the index and the element as separate arguments instead.
+ *
+ * @param <V> the type of elements in the iterable.
+ * @author Paul Steinbach
+ * @see Zip2
+ */
+public class ZipWithIndex<V> implements Iterator<ZipWithIndex.Indexed<V>>, Iterable<ZipWithIndex.Indexed<V>> {
+
+    private final Iterator<V> itr;
+    private final Indexed<V> cursor;
+
+    /**
+     * Constructs a {@code ZipWithIndex} instance, whose indices start at 0.
+     *
+     * @param iterable the iterable whose elements are indexed.
+     */
+    public ZipWithIndex(Iterable<V> iterable) {
+        this(iterable, 0L);
+    }
+
+    /**
+     * Constructs a {@code ZipWithIndex} instance, whose indices start at the given value.
+     *
+     * @param iterable the iterable whose elements are indexed.
+     * @param start    the index of the first element.
+     */
+    public ZipWithIndex(Iterable<V> iterable, long start) {
+        this.itr = iterable.iterator();
+        this.cursor = new Indexed<>(start - 1);
+    }
+
+    /**
+     * Returns {@code true} if the iterable has more elements to iterate.
+     *
+     * @return {@code true} if the iterable has remaining elements, otherwise {@code false}.
+     */
+    @Override
+    public boolean hasNext() {
+        return itr.hasNext();
+    }
+
+    /**
+     * Advances the cursor to the next element and returns it. The returned cursor is the same object on every call.
+     *
+     * @return the cursor holding the next element and its index.
+     */
+    @Override
+    public Indexed<V> next() {
+        cursor.value = itr.next();
+        cursor.index++;
+        return cursor;
+    }
+
+    /**
+     * Performs the given action for each remaining element and its index, without creating any objects.
+     *
+     * @param action the action receiving each element and its index.
+     */
+    public void forEach(ObjLongConsumer<? super V> action) {
+        Objects.requireNonNull(action);
+        long index = cursor.index;
+        while (itr.hasNext()) {
+            action.accept(itr.next(), ++index);
+        }
+        cursor.index = index;
+    }
+
+    @Override
+    public Iterator<Indexed<V>> iterator() {
+        return this;
+    }
+
+    /**
+     * Mutable cursor holding the current element of a {@link ZipWithIndex} and its index.
+     *
+     * @param <V> the type of the element.
+     */
+    public static final class Indexed<V> {
+        private long index;
+        private V value;
+
+        private Indexed(long index) {
+            this.index = index;
+        }
+
+        /**
+         * Returns the index of the current element.
+         *
+         * @return the index of the current element.
+         */
+        public long index() {
+            return index;
+        }
+
+        /**
+         * Returns the current element.
+         *
+         * @return the current element.
+         */
+        public V value() {
+            return value;
+        }
+
+        @Override
+        public String toString() {
+            return "(" + index + ", " + value + ")";
+        }
+    }
+}
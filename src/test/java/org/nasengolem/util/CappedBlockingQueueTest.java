@@ -0,0 +1,129 @@
+package org.nasengolem.util;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.nasengolem.util.datastructures.CappedBlockingQueue;
+import org.nasengolem.util.datastructures.CappedList;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+public class CappedBlockingQueueTest {
+
+    @Test
+    public void testDrainToCappedListAcrossWrap() {
+        CappedBlockingQueue<Integer> queue = new CappedBlockingQueue<>(4);
+        queue.addAll(List.of(0, 1, 2));
+        Assertions.assertEquals(0, queue.poll());
+        Assertions.assertEquals(1, queue.poll());
+        queue.addAll(List.of(3, 4, 5));
+        Assertions.assertTrue(queue.remove(4));
+        Assertions.assertEquals(List.of(2, 3, 5), new ArrayList<>(queue));
+        Assertions.assertThrows(IllegalStateException.class, () -> queue.addAll(List.of(6, 7)));
+
+        CappedList<Integer> batch = new CappedList<>(3);
+        batch.add(-1);
+        Assertions.assertEquals(2, queue.drainTo(batch));
+        Assertions.assertEquals(List.of(-1, 2, 3), batch);
+        Assertions.assertEquals(List.of(5, 6), new ArrayList<>(queue));
+    }
+
+    @Test
+    public void testAwaitBatch() throws InterruptedException {
+        CappedBlockingQueue<Integer> queue = new CappedBlockingQueue<>(16, CappedBlockingQueue.Mode.SPSC);
+        Assertions.assertEquals(0, queue.awaitBatch(4, 10, TimeUnit.MILLISECONDS));
+        Thread producer = Thread.ofVirtual().start(() -> {
+            for (int i = 0; i < 8; i++) {
+                queue.offer(i);
+            }
+        });
+        Assertions.assertTrue(queue.awaitBatch(8, 10, TimeUnit.SECONDS) >= 8);
+        producer.join();
+        CappedList<Integer> batch = new CappedList<>(8);
+        Assertions.assertEquals(8, queue.drainTo(batch));
+        Assertions.assertEquals(IntStream.range(0, 8).boxed().toList(), batch);
+    }
+
+    @Test
+    public void testBlockingProducersAndConsumers() throws InterruptedException {
+        CappedBlockingQueue<Integer> queue = new CappedBlockingQueue<>(8, CappedBlockingQueue.Mode.MPSC);
+        List<Integer> consumed = new ArrayList<>();
+        Thread consumer = Thread.ofVirtual().start(() -> {
+            try {
+                for (int i = 0; i < 1_000; i++) {
+                    consumed.add(queue.take());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        try (ExecutorService producers = Executors.newFixedThreadPool(4)) {
+            for (int p = 0; p < 4; p++) {
+                int offset = p * 250;
+                producers.submit(() -> {
+                    for (int i = 0; i < 250; i++) {
+                        queue.put(offset + i);
+                    }
+                    return null;
+                });
+            }
+        }
+        consumer.join();
+        Assertions.assertEquals(IntStream.range(0, 1_000).boxed().toList(), consumed.stream().sorted().toList());
+        Assertions.assertTrue(queue.isEmpty());
+    }
+
+    @Test
+    public void testBulkRemovalAcrossWrap() {
+        CappedBlockingQueue<Integer> queue = new CappedBlockingQueue<>(6);
+        queue.addAll(List.of(-1, -2, -3, -4));
+        queue.drainTo(new ArrayList<>(), 4);
+        queue.addAll(List.of(0, 1, 2, 3, 4, 5));
+        Assertions.assertTrue(queue.removeIf(i -> i % 2 == 1));
+        Assertions.assertFalse(queue.removeIf(i -> i > 10));
+        Assertions.assertEquals(List.of(0, 2, 4), List.copyOf(queue));
+        Assertions.assertTrue(queue.removeAll(List.of(2)));
+        Assertions.assertTrue(queue.retainAll(List.of(4)));
+        Assertions.assertTrue(queue.remove((Object) 4));
+        Assertions.assertTrue(queue.isEmpty());
+        queue.addAll(List.of(6, 7, 8, 9, 10, 11));
+        Assertions.assertEquals(6, queue.poll());
+        Assertions.assertEquals(List.of(7, 8, 9, 10, 11), List.copyOf(queue));
+        Assertions.assertThrows(ArithmeticException.class, () -> queue.removeIf(i -> i / (i - 9) > 0));
+        Assertions.assertEquals(5, queue.size());
+    }
+
+    @Test
+    public void testFailedDrainSignalsProducer() throws InterruptedException {
+        CappedBlockingQueue<Integer> queue = new CappedBlockingQueue<>(2);
+        queue.addAll(List.of(0, 1));
+        Thread producer = Thread.ofVirtual().start(() -> {
+            try {
+                queue.put(2);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        while (producer.getState() != Thread.State.WAITING) {
+            Thread.onSpinWait();
+        }
+        List<Integer> target = new ArrayList<>() {
+            @Override
+            public boolean add(Integer element) {
+                if (!isEmpty()) {
+                    throw new IllegalStateException();
+                }
+                return super.add(element);
+            }
+        };
+        Assertions.assertThrows(IllegalStateException.class, () -> queue.drainTo(target));
+        Assertions.assertEquals(List.of(0), target);
+        Assertions.assertTrue(producer.join(Duration.ofSeconds(10)), "The producer should be signalled.");
+        Assertions.assertEquals(List.of(1, 2), new ArrayList<>(queue));
+    }
+}
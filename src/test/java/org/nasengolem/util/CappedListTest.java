@@ -231,4 +231,43 @@ public class CappedListTest {
         cappedResizableList.addAll(0, List.of(1, 2));
         Assertions.assertEquals(List.of(1, 2, 42), cappedResizableList);
     }
+
+    @Test
+    public void testSnapshot() {
+        cappedResizableList.add(1);
+        cappedResizableList.add(2);
+        List<Integer> snapshot = cappedResizableList.snapshot();
+        cappedResizableList.add(3);
+        Assertions.assertEquals(List.of(1, 2), snapshot, "Appending should not affect the snapshot.");
+        cappedResizableList.set(0, 5);
+        Assertions.assertEquals(List.of(1, 2), snapshot, "Overwriting an element should not affect the snapshot.");
+        Assertions.assertEquals(List.of(5, 2, 3), cappedResizableList);
+        Assertions.assertThrows(UnsupportedOperationException.class, () -> snapshot.add(4));
+        Assertions.assertThrows(UnsupportedOperationException.class, () -> snapshot.set(0, 4));
+    }
+
+    @Test
+    public void testSnapshotAfterShrink() {
+        cappedResizableList.addAll(List.of(1, 2, 3));
+        List<Integer> snapshot = cappedResizableList.snapshot();
+        cappedResizableList.shrink(1);
+        cappedResizableList.add(7);
+        cappedResizableList.add(0, 6);
+        Assertions.assertEquals(List.of(1, 2, 3), snapshot, "Refilling a shrunk list should not affect the snapshot.");
+        Assertions.assertEquals(List.of(6, 1, 7), cappedResizableList);
+        cappedResizableList.remove(0);
+        Assertions.assertEquals(List.of(1, 7), cappedResizableList.snapshot());
+    }
+
+    @Test
+    public void testAddAllCappedList() {
+        CappedList<Integer> other = new CappedList<>(List.of(1, 2), 4);
+        CappedList<Integer> list = new CappedList<>(List.of(3), 6);
+        Assertions.assertTrue(list.addAll(0, other));
+        Assertions.assertEquals(List.of(1, 2, 3), list);
+        Assertions.assertTrue(list.addAll(list));
+        Assertions.assertEquals(List.of(1, 2, 3, 1, 2, 3), list);
+        Assertions.assertThrows(IllegalStateException.class, () -> list.addAll(other));
+        Assertions.assertFalse(other.addAll(new CappedList<>(0)));
+    }
 }
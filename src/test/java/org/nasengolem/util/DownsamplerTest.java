@@ -0,0 +1,82 @@
+package org.nasengolem.util;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.nasengolem.util.units.Downsampler;
+import org.nasengolem.util.units.Length;
+import org.nasengolem.util.units.Temperature;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class DownsamplerTest {
+
+    private static List<double[]> buckets(Downsampler downsampler, Temperature.Unit unit) {
+        List<double[]> buckets = new ArrayList<>();
+        downsampler.forEachBucket(unit, (start, min, max, mean, last, count) ->
+                buckets.add(new double[]{start, min, max, mean, last, count}));
+        return buckets;
+    }
+
+    @Test
+    public void testAggregatesInAnyUnit() {
+        Downsampler downsampler = new Downsampler(Temperature.Unit.CELSIUS, 10L, 4);
+        downsampler.add(0L, 20.0, Temperature.Unit.CELSIUS);
+        downsampler.add(5L, 293.15 + 10.0, Temperature.Unit.KELVIN);
+        downsampler.add(3L, new Temperature(15.0, Temperature.Unit.CELSIUS));
+        downsampler.add(25L, 40.0, Temperature.Unit.CELSIUS);
+
+        List<double[]> buckets = buckets(downsampler, Temperature.Unit.CELSIUS);
+        Assertions.assertEquals(2, buckets.size());
+        Assertions.assertArrayEquals(new double[]{0.0, 15.0, 30.0, 65.0 / 3, 30.0, 3.0}, buckets.get(0), 1e-9);
+        Assertions.assertArrayEquals(new double[]{20.0, 40.0, 40.0, 40.0, 40.0, 1.0}, buckets.get(1), 1e-9);
+        Assertions.assertEquals(3, downsampler.size());
+
+        Assertions.assertEquals(313.15, buckets(downsampler, Temperature.Unit.KELVIN).get(1)[1], 1e-9);
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> downsampler.add(30L, 1.0, Length.Unit.METRE));
+    }
+
+    @Test
+    public void testRolloverShrinkAndClear() {
+        Downsampler downsampler = new Downsampler(Temperature.Unit.KELVIN, 1L, 3);
+        for (long t = 0; t < 10; t++) {
+            Assertions.assertTrue(downsampler.add(t, t, Temperature.Unit.KELVIN));
+        }
+        Assertions.assertFalse(downsampler.add(6L, 0.0, Temperature.Unit.KELVIN));
+        Assertions.assertTrue(downsampler.add(7L, 0.0, Temperature.Unit.KELVIN));
+        List<double[]> buckets = buckets(downsampler, Temperature.Unit.KELVIN);
+        Assertions.assertEquals(List.of(7.0, 8.0, 9.0), buckets.stream().map(b -> b[0]).toList());
+        Assertions.assertEquals(2.0, buckets.getFirst()[5]);
+
+        Assertions.assertEquals(3, downsampler.shrink(1));
+        Assertions.assertEquals(1, buckets(downsampler, Temperature.Unit.KELVIN).size());
+        Assertions.assertFalse(downsampler.add(8L, 0.0, Temperature.Unit.KELVIN));
+        Assertions.assertTrue(downsampler.add(10L, 10.0, Temperature.Unit.KELVIN));
+        Assertions.assertEquals(2, buckets(downsampler, Temperature.Unit.KELVIN).size());
+
+        downsampler.clear();
+        Assertions.assertTrue(downsampler.isEmpty());
+        Assertions.assertTrue(downsampler.add(9L, 1.0, Temperature.Unit.KELVIN));
+        List<double[]> cleared = buckets(downsampler, Temperature.Unit.KELVIN);
+        Assertions.assertEquals(1, cleared.size());
+        Assertions.assertEquals(1.0, cleared.getFirst()[5]);
+    }
+
+    @Test
+    public void testLttbKeepsSpikes() {
+        Downsampler downsampler = new Downsampler(Temperature.Unit.CELSIUS, 10L, 8);
+        for (long t = 0; t < 50; t++) {
+            downsampler.add(t, t == 23 ? 100.0 : 20.0, Temperature.Unit.CELSIUS);
+        }
+        long[] timestamps = new long[downsampler.size()];
+        double[] values = new double[downsampler.size()];
+        Assertions.assertEquals(5, downsampler.lttb(Temperature.Unit.CELSIUS, timestamps, values));
+        Assertions.assertEquals(0L, timestamps[0]);
+        Assertions.assertEquals(23L, timestamps[2]);
+        Assertions.assertEquals(100.0, values[2], 1e-9);
+        Assertions.assertEquals(49L, timestamps[4]);
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> downsampler.lttb(Temperature.Unit.CELSIUS, new long[4], new double[4]));
+    }
+}
@@ -0,0 +1,35 @@
+package org.nasengolem.util;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.nasengolem.util.units.FixedPointLength;
+import org.nasengolem.util.units.Length;
+
+public class FixedPointLengthTest {
+
+    @Test
+    public void testExactConversions() {
+        FixedPointLength foot = FixedPointLength.of(1, Length.Unit.FOOT);
+        Assertions.assertEquals(foot, FixedPointLength.of(12, Length.Unit.INCH));
+        Assertions.assertEquals(FixedPointLength.of(1, Length.Unit.MILE), FixedPointLength.of(1760, Length.Unit.YARD));
+        Assertions.assertEquals(FixedPointLength.of(0.3, Length.Unit.METRE),
+            FixedPointLength.of(0.1, Length.Unit.METRE).multipliedBy(3));
+        Assertions.assertEquals(foot.hashCode(), FixedPointLength.of(30.48, Length.Unit.CENTIMETRE).hashCode());
+        Assertions.assertTrue(foot.compareTo(FixedPointLength.of(1, Length.Unit.YARD)) < 0);
+    }
+
+    @Test
+    public void testRounding() {
+        FixedPointLength length = FixedPointLength.of(1, Length.Unit.INCH);
+        Assertions.assertEquals(3L, length.getScaledValue(Length.Unit.CENTIMETRE, 0));
+        Assertions.assertEquals(254L, length.getScaledValue(Length.Unit.CENTIMETRE, 2));
+        Assertions.assertEquals(-1L, length.negated().getScaledValue(Length.Unit.FOOT, 1));
+        Assertions.assertEquals("2.54 centimetres", length.toString(Length.Unit.CENTIMETRE));
+        Assertions.assertEquals("1.000 inch", length.toString(Length.Unit.INCH, 3));
+        Assertions.assertEquals("-0.08 ft", length.negated().toString(Length.Unit.FOOT, 2, true));
+        Assertions.assertEquals(FixedPointLength.of(2, Length.Unit.MILLIMETRE),
+            FixedPointLength.of(1.5, Length.Unit.MILLIMETRE).roundTo(Length.Unit.MILLIMETRE));
+        Assertions.assertThrows(ArithmeticException.class,
+            () -> FixedPointLength.of(Long.MAX_VALUE, Length.Unit.KILOMETRE));
+    }
+}
@@ -0,0 +1,69 @@
+package org.nasengolem.util;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.nasengolem.util.datastructures.GapCappedList;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class GapCappedListTest {
+
+    @Test
+    public void testLocalEdits() {
+        GapCappedList<Character> list = new GapCappedList<>(8);
+        for (char c : "helo".toCharArray()) {
+            list.add(c);
+        }
+        list.add(3, 'l');
+        list.add(0, '>');
+        Assertions.assertEquals(List.of('>', 'h', 'e', 'l', 'l', 'o'), list);
+        Assertions.assertEquals('e', list.remove(2));
+        Assertions.assertEquals('h', list.remove(1));
+        Assertions.assertEquals(List.of('>', 'l', 'l', 'o'), list);
+        list.addAll(1, List.of('a', 'b', 'c', 'd'));
+        Assertions.assertTrue(list.isFull());
+        Assertions.assertThrows(IllegalStateException.class, () -> list.add(2, 'x'));
+    }
+
+    @Test
+    public void testShrinkAcrossGap() {
+        GapCappedList<Integer> list = new GapCappedList<>(10);
+        list.addAll(List.of(0, 1, 2, 3, 4, 5));
+        list.add(2, 9);
+        Assertions.assertEquals(7, list.shrink(5));
+        Assertions.assertEquals(List.of(0, 1, 9, 2, 3), list);
+        list.shrink(1);
+        Assertions.assertEquals(List.of(0), list);
+        list.addAll(List.of(1, 2, 3, 4, 5, 6, 7, 8, 9));
+        Assertions.assertEquals(10, list.size());
+        Assertions.assertEquals(9, list.getLast());
+    }
+
+    @Test
+    public void testMatchesArrayList() {
+        Random random = new Random(42);
+        GapCappedList<Integer> list = new GapCappedList<>(64);
+        List<Integer> expected = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            int operation = random.nextInt(10);
+            if (operation < 5 && expected.size() < 64) {
+                int index = random.nextInt(expected.size() + 1);
+                list.add(index, i);
+                expected.add(index, i);
+            } else if (operation < 8 && !expected.isEmpty()) {
+                int index = random.nextInt(expected.size());
+                Assertions.assertEquals(expected.remove(index), list.remove(index));
+            } else if (operation < 9 && !expected.isEmpty()) {
+                int newSize = random.nextInt(expected.size());
+                list.shrink(newSize);
+                expected.subList(newSize, expected.size()).clear();
+            } else if (!expected.isEmpty()) {
+                int index = random.nextInt(expected.size());
+                Assertions.assertEquals(expected.set(index, -i), list.set(index, -i));
+            }
+            Assertions.assertEquals(expected, list);
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package org.nasengolem.util;
+
+import org.jooq.lambda.tuple.Tuple2;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.nasengolem.util.zip.HashJoin;
+import org.nasengolem.util.zip.Join;
+import org.nasengolem.util.zip.MergeJoin;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Function;
+
+public class JoinTest {
+
+    private final List<Integer> left = List.of(1, 2, 2, 4, 6, 7);
+    private final List<String> right = List.of("0a", "2a", "2b", "3a", "6a", "8a");
+    private final Function<String, Integer> rightKey = s -> s.charAt(0) - '0';
+
+    private MergeJoin<Integer, String, Integer> mergeJoin(Join.Type type) {
+        return new MergeJoin<>(left, right, Function.identity(), rightKey, Comparator.naturalOrder(), type);
+    }
+
+    private static <A, B> List<Tuple2<A, B>> toList(Join<A, B> join) {
+        List<Tuple2<A, B>> result = new ArrayList<>();
+        for (Tuple2<A, B> pair : join) {
+            result.add(pair);
+        }
+        return result;
+    }
+
+    @Test
+    public void testInnerMergeJoin() {
+        Assertions.assertEquals(List.of(
+            new Tuple2<>(2, "2a"), new Tuple2<>(2, "2b"),
+            new Tuple2<>(2, "2a"), new Tuple2<>(2, "2b"),
+            new Tuple2<>(6, "6a")
+        ), toList(mergeJoin(Join.Type.INNER)));
+    }
+
+    @Test
+    public void testLeftOuterMergeJoin() {
+        Assertions.assertEquals(List.of(
+            new Tuple2<>(1, null),
+            new Tuple2<>(2, "2a"), new Tuple2<>(2, "2b"),
+            new Tuple2<>(2, "2a"), new Tuple2<>(2, "2b"),
+            new Tuple2<>(4, null), new Tuple2<>(6, "6a"), new Tuple2<>(7, null)
+        ), toList(mergeJoin(Join.Type.LEFT_OUTER)));
+    }
+
+    @Test
+    public void testFullOuterMergeJoin() {
+        Assertions.assertEquals(List.of(
+            new Tuple2<>(null, "0a"), new Tuple2<>(1, null),
+            new Tuple2<>(2, "2a"), new Tuple2<>(2, "2b"),
+            new Tuple2<>(2, "2a"), new Tuple2<>(2, "2b"),
+            new Tuple2<>(null, "3a"), new Tuple2<>(4, null), new Tuple2<>(6, "6a"),
+            new Tuple2<>(7, null), new Tuple2<>(null, "8a")
+        ), toList(mergeJoin(Join.Type.FULL_OUTER)));
+    }
+
+    @Test
+    public void testMergeJoinDetectsUnsortedInput() {
+        MergeJoin<Integer, Integer, Integer> join = new MergeJoin<>(List.of(1, 3, 2), List.of(1, 2, 3),
+            Function.identity(), Function.identity(), Comparator.naturalOrder(), Join.Type.INNER);
+        Assertions.assertThrows(IllegalStateException.class, () -> toList(join));
+    }
+
+    @Test
+    public void testHashJoinMatchesMergeJoin() {
+        List<Integer> shuffledLeft = List.of(7, 2, 6, 1, 2, 4);
+        HashJoin<Integer, String, Integer> inner = new HashJoin<>(shuffledLeft, right, Function.identity(), rightKey,
+            Join.Type.INNER, right.size());
+        List<Tuple2<Integer, String>> expected = List.of(
+            new Tuple2<>(2, "2a"), new Tuple2<>(2, "2b"),
+            new Tuple2<>(6, "6a"),
+            new Tuple2<>(2, "2a"), new Tuple2<>(2, "2b")
+        );
+        Assertions.assertEquals(expected, toList(inner));
+
+        HashJoin<Integer, String, Integer> full = new HashJoin<>(shuffledLeft, right, Function.identity(), rightKey,
+            Join.Type.FULL_OUTER, right.size());
+        List<String> unmatchedRight = new ArrayList<>();
+        int[] unmatchedLeft = {0};
+        full.forEachPair((number, name) -> {
+            if (number == null) {
+                unmatchedRight.add(name);
+            } else if (name == null) {
+                unmatchedLeft[0]++;
+            }
+        });
+        Assertions.assertEquals(List.of("0a", "3a", "8a"), unmatchedRight);
+        Assertions.assertEquals(3, unmatchedLeft[0]);
+    }
+
+    @Test
+    public void testHashJoinBuildSideIsBounded() {
+        HashJoin<Integer, String, Integer> join = new HashJoin<>(left, right, Function.identity(), rightKey,
+            Join.Type.INNER, right.size() - 1);
+        Assertions.assertThrows(IllegalStateException.class, join::hasNext);
+        Assertions.assertThrows(IllegalStateException.class, join::hasNext);
+    }
+}
@@ -0,0 +1,69 @@
+package org.nasengolem.util;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.nasengolem.util.datastructures.CappedList;
+import org.nasengolem.util.datastructures.ListInstrumentation;
+import org.nasengolem.util.datastructures.ListMetrics;
+import org.nasengolem.util.datastructures.ShrinkableArrayList;
+
+import java.util.List;
+
+public class ListInstrumentationTest {
+
+    private final ListMetrics metrics = ListInstrumentation.metrics();
+
+    @BeforeEach
+    public void reset() {
+        Assumptions.assumeTrue(ListInstrumentation.ENABLED, "The tests only run with -D" + ListInstrumentation.PROPERTY);
+        ListInstrumentation.reset();
+    }
+
+    @Test
+    public void testAppendsAreNotShifts() {
+        CappedList<Integer> cappedList = new CappedList<>(8);
+        ShrinkableArrayList<Integer> shrinkableList = new ShrinkableArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            cappedList.add(i);
+            shrinkableList.add(i);
+        }
+        cappedList.addAll(List.of());
+        cappedList.removeLast();
+        cappedList.remove(cappedList.size() - 1);
+        shrinkableList.remove(shrinkableList.size() - 1);
+        Assertions.assertEquals(0, metrics.shifts());
+        Assertions.assertEquals(0, metrics.shiftedElements());
+        Assertions.assertEquals(1.0, metrics.occupancyHighWaterMark());
+    }
+
+    @Test
+    public void testMiddleInsertsAndRemovesAreShifts() {
+        CappedList<Integer> cappedList = new CappedList<>(List.of(0, 1, 2, 3, 4), 10);
+        ShrinkableArrayList<Integer> shrinkableList = new ShrinkableArrayList<>(List.of(0, 1, 2, 3, 4));
+        ListInstrumentation.reset();
+
+        cappedList.add(1, -1);
+        cappedList.remove(0);
+        cappedList.addAll(2, List.of(7, 8));
+        shrinkableList.add(0, -1);
+        shrinkableList.remove(3);
+
+        Assertions.assertEquals(5, metrics.shifts());
+        Assertions.assertEquals(4 + 5 + 3 + 5 + 2, metrics.shiftedElements());
+        long[] histogram = metrics.shiftDistanceHistogram();
+        Assertions.assertEquals(0, histogram[0]);
+        Assertions.assertEquals(2, histogram[2]);
+        Assertions.assertEquals(3, histogram[3]);
+    }
+
+    @Test
+    public void testFullRejections() {
+        CappedList<Integer> list = new CappedList<>(1);
+        list.add(0);
+        Assertions.assertThrows(IllegalStateException.class, () -> list.add(1));
+        Assertions.assertThrows(IllegalStateException.class, () -> list.addAll(List.of(1, 2)));
+        Assertions.assertEquals(2, metrics.fullRejections());
+    }
+}
@@ -0,0 +1,100 @@
+package org.nasengolem.util;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.nasengolem.util.datastructures.MappedCappedList;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+public class MappedCappedListTest {
+
+    @TempDir
+    Path directory;
+
+    private MappedCappedList<Integer> create(Path file, int capacity) throws IOException {
+        return MappedCappedList.create(file, capacity, MappedCappedList.RecordCodec.INT,
+                MappedCappedList.SyncPolicy.ON_CLOSE);
+    }
+
+    private MappedCappedList<Integer> open(Path file) throws IOException {
+        return MappedCappedList.open(file, MappedCappedList.RecordCodec.INT, MappedCappedList.SyncPolicy.ON_CLOSE);
+    }
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        Path file = directory.resolve("list.bin");
+        try (MappedCappedList<Integer> list = create(file, 8)) {
+            list.addAll(List.of(1, 2, 3, 4));
+        }
+        try (MappedCappedList<Integer> list = open(file)) {
+            Assertions.assertEquals(List.of(1, 2, 3, 4), list);
+            Assertions.assertEquals(8, list.capacity());
+            list.add(2, 10);
+            Assertions.assertEquals(List.of(1, 2, 10, 3, 4), list);
+            Assertions.assertEquals(2, list.remove(1));
+            Assertions.assertEquals(List.of(1, 10, 3, 4), list);
+            Assertions.assertEquals(4, list.shrink(2));
+        }
+        try (MappedCappedList<Integer> list = open(file)) {
+            Assertions.assertEquals(List.of(1, 10), list);
+        }
+        Assertions.assertThrows(IOException.class, () -> create(file, 8));
+    }
+
+    @Test
+    public void testFullList() throws IOException {
+        try (MappedCappedList<Integer> list = create(directory.resolve("full.bin"), 2)) {
+            list.add(1);
+            list.add(2);
+            Assertions.assertTrue(list.isFull());
+            Assertions.assertThrows(IllegalStateException.class, () -> list.add(3));
+            Assertions.assertThrows(IllegalStateException.class, () -> list.add(0, 3));
+            Assertions.assertEquals(List.of(1, 2), list);
+        }
+    }
+
+    @Test
+    public void testRejectedElementLeavesRecordsUnchanged() throws IOException {
+        try (MappedCappedList<Integer> list = create(directory.resolve("null.bin"), 4)) {
+            list.addAll(List.of(1, 2, 3));
+            Assertions.assertThrows(NullPointerException.class, () -> list.add(0, null));
+            Assertions.assertThrows(NullPointerException.class, () -> list.set(1, null));
+            Assertions.assertEquals(List.of(1, 2, 3), list);
+        }
+    }
+
+    @Test
+    public void testOpenRejectsInvalidHeader() throws IOException {
+        Path file = directory.resolve("corrupted.bin");
+        create(file, 4).close();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.allocate(4).putInt(0, 42), 0);
+        }
+        Assertions.assertThrows(IOException.class, () -> open(file));
+        Assertions.assertThrows(IOException.class, () -> MappedCappedList.open(file,
+                MappedCappedList.RecordCodec.LONG, MappedCappedList.SyncPolicy.MANUAL));
+    }
+
+    @Test
+    public void testCloseUnmapsFile() throws IOException {
+        Path file = directory.resolve("unmapped.bin");
+        MappedCappedList<Integer> list = MappedCappedList.create(file, 4, MappedCappedList.RecordCodec.INT,
+                MappedCappedList.SyncPolicy.EVERY_CHANGE);
+        list.addAll(List.of(1, 2, 3));
+        list.remove(0);
+        list.close();
+        Assertions.assertThrows(IllegalStateException.class, () -> list.get(0));
+        try (MappedCappedList<Integer> reopened = open(file)) {
+            Assertions.assertEquals(List.of(2, 3), reopened);
+        }
+        Files.delete(file);
+        Assertions.assertFalse(Files.exists(file));
+    }
+}
@@ -0,0 +1,182 @@
+package org.nasengolem.util;
+
+import org.jooq.lambda.tuple.Tuple2;
+import org.jooq.lambda.tuple.Tuple3;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.nasengolem.util.zip.PrefetchZip2;
+import org.nasengolem.util.zip.PrefetchZip3;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class PrefetchZipTest {
+
+    private static <T> Iterable<T> slow(List<T> elements, long delayMillis) {
+        return () -> new Iterator<>() {
+            private final Iterator<T> itr = elements.iterator();
+
+            @Override
+            public boolean hasNext() {
+                return itr.hasNext();
+            }
+
+            @Override
+            public T next() {
+                try {
+                    Thread.sleep(delayMillis);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return itr.next();
+            }
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T extends Throwable> RuntimeException sneakyThrow(Throwable throwable) throws T {
+        throw (T) throwable;
+    }
+
+    @Test
+    public void testZipsLikeZip2() {
+        List<Tuple2<Integer, String>> result = new ArrayList<>();
+        try (var zip = new PrefetchZip2<>(List.of(1, 2, 3), Arrays.asList("a", null, "c", "d"), 1)) {
+            for (Tuple2<Integer, String> tuple : zip) {
+                result.add(tuple);
+            }
+            Assertions.assertFalse(zip.hasNext(), "The zip should stay exhausted.");
+            Assertions.assertThrows(NoSuchElementException.class, zip::next);
+        }
+        Assertions.assertEquals(List.of(new Tuple2<>(1, "a"), new Tuple2<>(2, null), new Tuple2<>(3, "c")), result);
+    }
+
+    @Test
+    public void testLatenciesOverlap() {
+        List<Integer> elements = List.of(1, 2, 3, 4, 5, 6, 7, 8, 9, 10);
+        long start = System.nanoTime();
+        int count = 0;
+        try (var zip = new PrefetchZip3<>(slow(elements, 20), slow(elements, 20), slow(elements, 20))) {
+            for (Tuple3<Integer, Integer, Integer> tuple : zip) {
+                Assertions.assertEquals(tuple.v1, tuple.v2);
+                Assertions.assertEquals(tuple.v2, tuple.v3);
+                count++;
+            }
+        }
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        Assertions.assertEquals(10, count);
+        Assertions.assertTrue(elapsedMillis < 3 * 10 * 20,
+            "The sources should be drained concurrently, but the zip took " + elapsedMillis + " ms.");
+    }
+
+    @Test
+    public void testSourceExceptionIsRethrown() {
+        Iterable<Integer> failing = () -> new Iterator<>() {
+            private int next = 0;
+
+            @Override
+            public boolean hasNext() {
+                return true;
+            }
+
+            @Override
+            public Integer next() {
+                if (next == 2) {
+                    throw new UnsupportedOperationException("source failed");
+                }
+                return next++;
+            }
+        };
+        try (var zip = new PrefetchZip2<>(failing, List.of("a", "b", "c", "d"))) {
+            Assertions.assertEquals(new Tuple2<>(0, "a"), zip.next());
+            Assertions.assertEquals(new Tuple2<>(1, "b"), zip.next());
+            Exception exception = Assertions.assertThrows(UnsupportedOperationException.class, zip::hasNext);
+            Assertions.assertEquals("source failed", exception.getMessage());
+            Assertions.assertThrows(UnsupportedOperationException.class, zip::hasNext,
+                "The failure should be rethrown on every further access.");
+        }
+    }
+
+    @Test
+    public void testCloseStopsIteration() {
+        var zip = new PrefetchZip2<>(List.of(1, 2, 3), List.of(4, 5, 6));
+        Assertions.assertEquals(new Tuple2<>(1, 4), zip.next());
+        zip.close();
+        Assertions.assertThrows(IllegalStateException.class, zip::next);
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new PrefetchZip2<>(List.of(), List.of(), 0));
+    }
+
+    @Test
+    public void testUndeclaredCheckedExceptionIsRethrown() {
+        Iterable<Integer> failing = () -> new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return true;
+            }
+
+            @Override
+            public Integer next() {
+                throw PrefetchZipTest.<RuntimeException>sneakyThrow(new IOException("source failed"));
+            }
+        };
+        try (var zip = new PrefetchZip2<>(failing, List.of("a", "b"))) {
+            Assertions.assertTimeoutPreemptively(Duration.ofSeconds(10),
+                () -> Assertions.assertThrows(IOException.class, zip::hasNext));
+        }
+    }
+
+    @Test
+    public void testCloseWakesWaitingConsumer() {
+        var zip = new PrefetchZip2<>(slow(List.of(1), 60_000), List.of(2));
+        Thread.ofVirtual().start(() -> {
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            zip.close();
+        });
+        Assertions.assertTimeoutPreemptively(Duration.ofSeconds(10),
+            () -> Assertions.assertThrows(IllegalStateException.class, zip::next));
+    }
+
+    @Test
+    public void testCloseDoesNotInterruptSource() throws InterruptedException {
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicBoolean interrupted = new AtomicBoolean();
+        CountDownLatch returned = new CountDownLatch(1);
+        Iterable<Integer> blocking = () -> new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return true;
+            }
+
+            @Override
+            public Integer next() {
+                entered.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    interrupted.set(true);
+                }
+                returned.countDown();
+                return 0;
+            }
+        };
+        var zip = new PrefetchZip2<>(blocking, List.of(1, 2));
+        Assertions.assertTrue(entered.await(10, TimeUnit.SECONDS));
+        zip.close();
+        release.countDown();
+        Assertions.assertTrue(returned.await(10, TimeUnit.SECONDS));
+        Assertions.assertFalse(interrupted.get(), "Closing should not interrupt a producer inside the source.");
+    }
+}
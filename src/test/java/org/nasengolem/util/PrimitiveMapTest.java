@@ -0,0 +1,61 @@
+package org.nasengolem.util;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.nasengolem.util.datastructures.IntObjectMap;
+import org.nasengolem.util.datastructures.LongLongMap;
+import org.nasengolem.util.datastructures.LongObjectMap;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+public class PrimitiveMapTest {
+
+    @Test
+    public void testIntObjectMapMatchesHashMap() {
+        Random random = new Random(7);
+        IntObjectMap<Integer> map = new IntObjectMap<>();
+        Map<Integer, Integer> expected = new HashMap<>();
+        for (int i = 0; i < 50_000; i++) {
+            int key = random.nextInt(512);
+            if (random.nextInt(3) == 0) {
+                Assertions.assertEquals(expected.remove(key), map.remove(key));
+            } else {
+                Assertions.assertEquals(expected.put(key, i), map.put(key, i));
+            }
+            Assertions.assertEquals(expected.size(), map.size());
+        }
+        Map<Integer, Integer> actual = new HashMap<>();
+        map.forEach(actual::put);
+        Assertions.assertEquals(expected, actual);
+    }
+
+    @Test
+    public void testClearStartsNewEpoch() {
+        LongObjectMap<String> map = new LongObjectMap<>();
+        map.put(1L, "a");
+        map.put(Long.MIN_VALUE, "b");
+        map.clear();
+        Assertions.assertTrue(map.isEmpty());
+        Assertions.assertNull(map.get(1L));
+        Assertions.assertFalse(map.containsKey(Long.MIN_VALUE));
+        map.put(1L, "c");
+        Assertions.assertEquals("c", map.get(1L));
+        Assertions.assertEquals(1, map.size());
+    }
+
+    @Test
+    public void testFixedCapacity() {
+        LongLongMap counts = new LongLongMap(2, true);
+        Assertions.assertEquals(1L, counts.addTo(10L, 1L));
+        Assertions.assertEquals(3L, counts.addTo(10L, 2L));
+        counts.put(20L, 5L);
+        Assertions.assertThrows(IllegalStateException.class, () -> counts.put(30L, 1L));
+        Assertions.assertEquals(5L, counts.remove(20L));
+        Assertions.assertEquals(0L, counts.get(20L));
+        Assertions.assertEquals(7L, counts.getOrDefault(30L, 7L));
+        counts.put(30L, 1L);
+        Assertions.assertEquals(2, counts.capacity());
+    }
+}
@@ -0,0 +1,115 @@
+package org.nasengolem.util;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.nasengolem.util.datastructures.CappedList;
+import org.nasengolem.util.units.Length;
+import org.nasengolem.util.units.QuantityStreamReader;
+import org.nasengolem.util.units.QuantityStreamWriter;
+import org.nasengolem.util.units.Temperature;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+public class QuantityStreamTest {
+
+    @TempDir
+    Path directory;
+
+    private double[] readings() {
+        double[] readings = new double[10_000];
+        for (int i = 0; i < readings.length; i++) {
+            readings[i] = 20.0 + Math.sin(i / 100.0) * 5.0;
+        }
+        return readings;
+    }
+
+    @Test
+    public void testRawRoundTrip() throws IOException {
+        Path file = directory.resolve("raw.qs");
+        double[] readings = readings();
+        try (QuantityStreamWriter writer = new QuantityStreamWriter(
+            FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE), Temperature.Unit.CELSIUS,
+            0.0, 1000)) {
+            writer.write(readings, 0, readings.length);
+        }
+        Assertions.assertTrue(Files.size(file) < 6.75 * readings.length, "The XOR should omit the unchanged bits.");
+        try (QuantityStreamReader reader = QuantityStreamReader.open(file)) {
+            Assertions.assertEquals(Temperature.Unit.CELSIUS, reader.getUnit());
+            double[] decoded = new double[readings.length + 1];
+            Assertions.assertEquals(readings.length, reader.read(decoded, 0, decoded.length));
+            for (int i = 0; i < readings.length; i++) {
+                Assertions.assertEquals(readings[i], decoded[i]);
+            }
+            Assertions.assertEquals(-1, reader.read(decoded));
+        }
+    }
+
+    @Test
+    public void testQuantizedRoundTrip() throws IOException {
+        Path file = directory.resolve("quantized.qs");
+        double[] readings = readings();
+        try (QuantityStreamWriter writer = new QuantityStreamWriter(
+            FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE), Length.Unit.METRE,
+            0.001)) {
+            writer.write(readings, 0, readings.length);
+            writer.write(new Length(1, Length.Unit.FOOT));
+            Assertions.assertThrows(IllegalArgumentException.class,
+                () -> writer.write(new Temperature(20, Temperature.Unit.CELSIUS)));
+        }
+        Assertions.assertTrue(Files.size(file) < 3L * readings.length, "Slowly changing values should need few bytes.");
+        try (QuantityStreamReader reader = QuantityStreamReader.open(file)) {
+            CappedList<Double> decoded = new CappedList<>(readings.length + 10);
+            Assertions.assertEquals(readings.length + 1, reader.read(decoded));
+            for (int i = 0; i < readings.length; i++) {
+                Assertions.assertEquals(readings[i], decoded.get(i), 0.0005);
+            }
+            Assertions.assertEquals(0.305, decoded.getLast(), 1e-9);
+        }
+    }
+
+    @Test
+    public void testRawIntegerReadings() throws IOException {
+        Path file = directory.resolve("integers.qs");
+        double[] readings = new double[10_000];
+        for (int i = 0; i < readings.length; i++) {
+            readings[i] = Math.round(Math.sin(i / 100.0) * 40.0);
+        }
+        readings[42] = Double.NaN;
+        readings[43] = Double.NEGATIVE_INFINITY;
+        readings[44] = -0.0;
+        try (QuantityStreamWriter writer = new QuantityStreamWriter(
+            FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE),
+            Temperature.Unit.CELSIUS)) {
+            writer.write(readings, 0, readings.length);
+        }
+        Assertions.assertTrue(Files.size(file) < 2L * readings.length, "Integer readings should need few bytes.");
+        try (QuantityStreamReader reader = QuantityStreamReader.open(file)) {
+            double[] decoded = new double[readings.length];
+            Assertions.assertEquals(readings.length, reader.read(decoded));
+            Assertions.assertArrayEquals(readings, decoded);
+            Assertions.assertEquals(Double.doubleToRawLongBits(-0.0), Double.doubleToRawLongBits(decoded[44]));
+        }
+    }
+
+    @Test
+    public void testIllegalQuantumInHeader() throws IOException {
+        Path file = directory.resolve("corrupted.qs");
+        try (QuantityStreamWriter writer = new QuantityStreamWriter(
+            FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE), Length.Unit.METRE,
+            0.001)) {
+            writer.write(1.0);
+        }
+        for (double quantum : new double[]{0.0, -0.001, Double.NaN, Double.POSITIVE_INFINITY}) {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                channel.write(ByteBuffer.allocate(8).putDouble(0, quantum), 8);
+            }
+            Assertions.assertThrows(IOException.class, () -> QuantityStreamReader.open(file).close());
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package org.nasengolem.util;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.nasengolem.util.datastructures.SegmentedList;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+public class SegmentedListTest {
+
+    private static SegmentedList<Integer> range(int chunkSize, int size) {
+        SegmentedList<Integer> list = new SegmentedList<>(chunkSize);
+        IntStream.range(0, size).forEach(list::add);
+        return list;
+    }
+
+    @Test
+    public void testGetAndSetAcrossChunks() {
+        SegmentedList<Integer> list = range(4, 10);
+        Assertions.assertEquals(10, list.size());
+        Assertions.assertEquals(3, list.chunkCount());
+        for (int i = 0; i < 10; i++) {
+            Assertions.assertEquals(i, list.get(i));
+        }
+        Assertions.assertEquals(4, list.set(4, 40));
+        Assertions.assertEquals(40, list.get(4));
+        Assertions.assertEquals(List.of(40, 5, 6, 7), list.chunk(1));
+        Assertions.assertEquals(List.of(8, 9), list.chunk(2));
+        Assertions.assertThrows(IndexOutOfBoundsException.class, () -> list.get(10));
+        Assertions.assertThrows(IndexOutOfBoundsException.class, () -> list.get(-1));
+    }
+
+    @Test
+    public void testAddAndRemoveAtChunkBoundary() {
+        SegmentedList<Integer> list = range(4, 8);
+        for (int i = 0; i < 3; i++) {
+            list.add(8);
+            Assertions.assertEquals(3, list.chunkCount());
+            Assertions.assertEquals(8, list.removeLast());
+            Assertions.assertEquals(2, list.chunkCount());
+            Assertions.assertEquals(7, list.get(7));
+        }
+        list.addAll(List.of(8, 9, 10, 11, 12));
+        Assertions.assertEquals(13, list.size());
+        Assertions.assertEquals(12, list.get(12));
+        list.clear();
+        Assertions.assertTrue(list.isEmpty());
+        Assertions.assertThrows(NoSuchElementException.class, list::removeLast);
+        list.add(1);
+        Assertions.assertEquals(1, list.get(0));
+    }
+
+    @Test
+    public void testShrinkAcrossChunks() {
+        SegmentedList<Integer> list = range(4, 14);
+        Assertions.assertEquals(14, list.shrink(5));
+        Assertions.assertEquals(5, list.size());
+        Assertions.assertEquals(2, list.chunkCount());
+        Assertions.assertEquals(4, list.get(4));
+        IntStream.range(5, 12).forEach(i -> list.add(-i));
+        Assertions.assertEquals(-11, list.get(11));
+        Assertions.assertEquals(4, list.get(4));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> list.shrink(13));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> list.shrink(-1));
+    }
+
+    @Test
+    public void testIteratorAndStreams() {
+        SegmentedList<Integer> list = range(4, 11);
+        List<Integer> iterated = new ArrayList<>();
+        list.forEach(iterated::add);
+        Assertions.assertEquals(IntStream.range(0, 11).boxed().toList(), iterated);
+        Assertions.assertEquals(iterated, list.parallelStream().collect(Collectors.toList()));
+        Assertions.assertEquals(iterated, new SegmentedList<>(iterated).stream().toList());
+    }
+}
@@ -0,0 +1,38 @@
+package org.nasengolem.util;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.nasengolem.util.datastructures.ShrinkableArrayList;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+public class ShrinkableArrayListTest {
+
+    @Test
+    public void testGrowBeyondDefaultCapacity() {
+        ShrinkableArrayList<Integer> list = new ShrinkableArrayList<>();
+        IntStream.range(0, 100).forEach(list::add);
+        Assertions.assertEquals(100, list.size());
+        list.add(0, -1);
+        Assertions.assertEquals(-1, list.get(0));
+        Assertions.assertEquals(99, list.getLast());
+        list.shrink(50);
+        Assertions.assertEquals(50, list.size());
+        Assertions.assertEquals(48, list.getLast());
+    }
+
+    @Test
+    public void testLazyAllocation() {
+        ShrinkableArrayList<Integer> list = new ShrinkableArrayList<>();
+        Assertions.assertTrue(list.isEmpty());
+        Assertions.assertEquals(0, list.size());
+        Assertions.assertTrue(new ShrinkableArrayList<>(list).isEmpty());
+        list.add(1);
+        list.add(0, 0);
+        Assertions.assertEquals(List.of(0, 1), list);
+        ShrinkableArrayList<Integer> copy = new ShrinkableArrayList<>(List.of(1, 2, 3, 4, 5));
+        copy.add(6);
+        Assertions.assertEquals(List.of(1, 2, 3, 4, 5, 6), copy);
+    }
+}
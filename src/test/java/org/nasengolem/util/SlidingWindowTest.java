@@ -0,0 +1,63 @@
+package org.nasengolem.util;
+
+import org.jooq.lambda.tuple.Tuple2;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.nasengolem.util.zip.SlidingWindow;
+import org.nasengolem.util.zip.ZipWithIndex;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class SlidingWindowTest {
+
+    @Test
+    public void testZipWithIndex() {
+        List<String> indexed = new ArrayList<>();
+        ZipWithIndex.Indexed<String> previous = null;
+        for (ZipWithIndex.Indexed<String> element : new ZipWithIndex<>(List.of("a", "b", "c"), 10L)) {
+            indexed.add(element.index() + element.value());
+            Assertions.assertTrue(previous == null || previous == element);
+            previous = element;
+        }
+        Assertions.assertEquals(List.of("10a", "11b", "12c"), indexed);
+    }
+
+    @Test
+    public void testZipWithIndexForEach() {
+        ZipWithIndex<String> zip = new ZipWithIndex<>(List.of("a", "b", "c"));
+        Assertions.assertEquals(0L, zip.next().index());
+        List<String> indexed = new ArrayList<>();
+        zip.forEach((value, index) -> indexed.add(index + value));
+        Assertions.assertEquals(List.of("1b", "2c"), indexed);
+    }
+
+    @Test
+    public void testWindows() {
+        List<List<Integer>> windows = new ArrayList<>();
+        List<Integer> view = null;
+        for (List<Integer> window : new SlidingWindow<>(List.of(1, 2, 3, 4, 5), 3)) {
+            windows.add(List.copyOf(window));
+            Assertions.assertTrue(view == null || view == window);
+            view = window;
+        }
+        Assertions.assertEquals(List.of(List.of(1, 2, 3), List.of(2, 3, 4), List.of(3, 4, 5)), windows);
+        List<Integer> lastView = view;
+        Assertions.assertThrows(UnsupportedOperationException.class, () -> lastView.add(6));
+    }
+
+    @Test
+    public void testWindowsOfShortIterable() {
+        Assertions.assertFalse(new SlidingWindow<>(List.of(1, 2), 3).hasNext());
+        Assertions.assertTrue(new SlidingWindow<>(List.of(1, 2, 3), 3).hasNext());
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new SlidingWindow<>(List.of(1), 0));
+    }
+
+    @Test
+    public void testPairwise() {
+        List<Tuple2<Integer, Integer>> pairs = new ArrayList<>();
+        SlidingWindow.pairwise(List.of(1, 2, 3)).forEach(pairs::add);
+        Assertions.assertEquals(List.of(new Tuple2<>(1, 2), new Tuple2<>(2, 3)), pairs);
+        Assertions.assertFalse(SlidingWindow.pairwise(List.of(1)).hasNext());
+    }
+}
@@ -0,0 +1,117 @@
+package org.nasengolem.util;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.nasengolem.util.datastructures.SortedCappedList;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+public class SortedCappedListTest {
+
+    @Test
+    public void testAddKeepsOrder() {
+        SortedCappedList<Integer> list = new SortedCappedList<>(5, Comparator.naturalOrder());
+        list.addAll(List.of(5, 1, 4, 2));
+        Assertions.assertEquals(List.of(1, 2, 4, 5), list);
+        list.add(3);
+        Assertions.assertTrue(list.isFull());
+        Exception exception = Assertions.assertThrows(IllegalStateException.class, () -> list.add(0),
+            "Expected an IllegalStateException to be thrown when adding an element to a full list.");
+        Assertions.assertTrue(exception.getMessage().contains("full"), "Exception message should indicate that the list is full.");
+        Assertions.assertThrows(UnsupportedOperationException.class, () -> list.add(0, 0));
+        Assertions.assertThrows(UnsupportedOperationException.class, () -> list.set(0, 0));
+    }
+
+    @Test
+    public void testEqualElementsKeepInsertionOrder() {
+        SortedCappedList<String> list = new SortedCappedList<>(4, Comparator.comparing(String::length));
+        list.addAll(List.of("bb", "a1", "c", "a2"));
+        Assertions.assertEquals(List.of("c", "bb", "a1", "a2"), list);
+        Assertions.assertEquals(1, list.binarySearch("xx"), "The first of several equal elements should be found.");
+    }
+
+    @Test
+    public void testTopKEvictsLargest() {
+        SortedCappedList<Integer> topThree = new SortedCappedList<>(3, Comparator.reverseOrder(),
+            SortedCappedList.Mode.TOP_K);
+        Assertions.assertTrue(topThree.addAll(List.of(4, 9, 1, 7)));
+        Assertions.assertEquals(List.of(9, 7, 4), topThree);
+        Assertions.assertFalse(topThree.add(2), "An element worse than all kept elements should be discarded.");
+        Assertions.assertFalse(topThree.add(4), "An element equal to the worst kept element should be discarded.");
+        Assertions.assertTrue(topThree.add(8));
+        Assertions.assertEquals(List.of(9, 8, 7), topThree);
+    }
+
+    @Test
+    public void testBinarySearch() {
+        SortedCappedList<Integer> list = new SortedCappedList<>(10, Comparator.naturalOrder());
+        list.addAll(List.of(10, 20, 30));
+        Assertions.assertEquals(1, list.binarySearch(20));
+        Assertions.assertEquals(-1, list.binarySearch(5));
+        Assertions.assertEquals(-3, list.binarySearch(25));
+        Assertions.assertEquals(-4, list.binarySearch(35));
+    }
+
+    @Test
+    public void testRangeViews() {
+        SortedCappedList<Integer> list = new SortedCappedList<>(10, Comparator.naturalOrder());
+        list.addAll(List.of(1, 3, 5, 7, 9));
+        Assertions.assertEquals(List.of(1, 3), list.headList(5));
+        Assertions.assertEquals(List.of(5, 7, 9), list.tailList(4));
+        Assertions.assertEquals(List.of(3, 5), list.rangeList(3, 7));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> list.rangeList(7, 3));
+
+        list.tailList(6).clear();
+        Assertions.assertEquals(List.of(1, 3, 5), list);
+        list.tailList(100).clear();
+        Assertions.assertEquals(3, list.size(), "Clearing an empty tail should not change the list.");
+        list.headList(2).clear();
+        Assertions.assertEquals(List.of(3, 5), list);
+    }
+
+    @Test
+    public void testAddAllMatchesSingleAdds() {
+        Random random = new Random(5);
+        Comparator<int[]> byKey = Comparator.comparingInt(pair -> pair[0]);
+        for (SortedCappedList.Mode mode : SortedCappedList.Mode.values()) {
+            SortedCappedList<int[]> merged = new SortedCappedList<>(64, byKey, mode);
+            SortedCappedList<int[]> single = new SortedCappedList<>(64, byKey, mode);
+            for (int round = 0; round < 20; round++) {
+                List<int[]> batch = new ArrayList<>();
+                int batchSize = mode == SortedCappedList.Mode.CAPPED ? random.nextInt(4) : random.nextInt(20);
+                for (int i = 0; i < batchSize; i++) {
+                    batch.add(new int[]{random.nextInt(30), round * 100 + i});
+                }
+                boolean changed = false;
+                for (int[] pair : batch) {
+                    changed |= single.add(pair);
+                }
+                Assertions.assertEquals(changed, merged.addAll(batch));
+                Assertions.assertEquals(single, merged);
+            }
+        }
+    }
+
+    @Test
+    public void testCappedAddAllFailsWithoutChange() {
+        SortedCappedList<Integer> list = new SortedCappedList<>(4, Comparator.naturalOrder());
+        list.addAll(List.of(3, 1));
+        Assertions.assertThrows(IllegalStateException.class, () -> list.addAll(List.of(2, 0, 4)));
+        Assertions.assertEquals(List.of(1, 3), list);
+    }
+
+    @Test
+    public void testClearInnerViews() {
+        SortedCappedList<Integer> list = new SortedCappedList<>(10, Comparator.naturalOrder());
+        list.addAll(List.of(1, 3, 5, 7, 9, 11));
+        list.rangeList(3, 8).clear();
+        Assertions.assertEquals(List.of(1, 9, 11), list);
+        list.headList(10).clear();
+        Assertions.assertEquals(List.of(11), list);
+        list.add(4);
+        Assertions.assertEquals(List.of(4, 11), list);
+    }
+}
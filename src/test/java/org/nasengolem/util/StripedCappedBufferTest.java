@@ -0,0 +1,82 @@
+package org.nasengolem.util;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.nasengolem.util.datastructures.StripedCappedBuffer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+public class StripedCappedBufferTest {
+
+    @Test
+    public void testConcurrentAddAndDrain() {
+        StripedCappedBuffer<Integer> buffer = new StripedCappedBuffer<>(4, 1_000);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            IntStream.range(0, 2_000).forEach(i -> executor.submit(() -> buffer.add(i)));
+        }
+        Assertions.assertEquals(2_000, buffer.size());
+        List<Integer> drained = new ArrayList<>();
+        Assertions.assertEquals(2_000, buffer.drain(drained::add));
+        Assertions.assertEquals(IntStream.range(0, 2_000).boxed().toList(), drained.stream().sorted().toList());
+        Assertions.assertEquals(0, buffer.size());
+    }
+
+    @Test
+    public void testProbesOtherStripesWhenFull() {
+        StripedCappedBuffer<Integer> buffer = new StripedCappedBuffer<>(3, 2);
+        Assertions.assertEquals(4, buffer.stripeCount());
+        for (int i = 0; i < 8; i++) {
+            buffer.add(i);
+        }
+        Assertions.assertFalse(buffer.offer(8));
+        Assertions.assertThrows(IllegalStateException.class, () -> buffer.add(8));
+        buffer.clear();
+        Assertions.assertTrue(buffer.offer(8));
+    }
+
+    @Test
+    public void testDrainDoesNotRedeliverAfterFailure() {
+        StripedCappedBuffer<Integer> buffer = new StripedCappedBuffer<>(1, 5);
+        IntStream.range(0, 5).forEach(buffer::add);
+        List<Integer> drained = new ArrayList<>();
+        Assertions.assertThrows(IllegalStateException.class, () -> buffer.drain(element -> {
+            drained.add(element);
+            if (element == 2) {
+                throw new IllegalStateException();
+            }
+        }));
+        Assertions.assertEquals(2, buffer.size());
+        Assertions.assertEquals(2, buffer.drain(drained::add));
+        Assertions.assertEquals(List.of(0, 1, 2, 3, 4), drained);
+        Assertions.assertEquals(0, buffer.size());
+    }
+
+    @Test
+    public void testDrainActionDoesNotBlockWriters() {
+        StripedCappedBuffer<Integer> buffer = new StripedCappedBuffer<>(1, 5);
+        buffer.add(0);
+        CountDownLatch added = new CountDownLatch(1);
+        List<Integer> drained = new ArrayList<>();
+        Assertions.assertEquals(1, buffer.drain(element -> {
+            drained.add(element);
+            Thread.ofVirtual().start(() -> {
+                buffer.add(1);
+                added.countDown();
+            });
+            try {
+                Assertions.assertTrue(added.await(10, TimeUnit.SECONDS), "The writer should not wait for the drain.");
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+        Assertions.assertEquals(List.of(0), drained);
+        Assertions.assertEquals(1, buffer.drain(drained::add));
+        Assertions.assertEquals(List.of(0, 1), drained);
+    }
+}
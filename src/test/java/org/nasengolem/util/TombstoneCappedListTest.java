@@ -0,0 +1,96 @@
+package org.nasengolem.util;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.nasengolem.util.datastructures.TombstoneCappedList;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+public class TombstoneCappedListTest {
+
+    @Test
+    public void testIteratorRemoveLeavesTombstones() {
+        TombstoneCappedList<Integer> list = new TombstoneCappedList<>(200, 1.0);
+        IntStream.range(0, 200).forEach(list::add);
+        Iterator<Integer> iterator = list.iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next() % 3 != 0) {
+                iterator.remove();
+            }
+        }
+        Assertions.assertEquals(IntStream.range(0, 200).filter(i -> i % 3 == 0).boxed().toList(), list);
+        Assertions.assertEquals(198, list.get(66));
+        Assertions.assertTrue(list.tombstoneCount() > 0);
+        list.compact();
+        Assertions.assertEquals(0, list.tombstoneCount());
+        Assertions.assertEquals(67, list.size());
+        Assertions.assertEquals(198, list.getLast());
+    }
+
+    @Test
+    public void testAddCompactsFullBackingArray() {
+        TombstoneCappedList<Integer> list = new TombstoneCappedList<>(4, 1.0);
+        list.addAll(List.of(0, 1, 2, 3));
+        list.remove(1);
+        list.add(4);
+        Assertions.assertEquals(List.of(0, 2, 3, 4), list);
+        Assertions.assertThrows(IllegalStateException.class, () -> list.add(5));
+        list.remove(2);
+        list.add(1, 1);
+        Assertions.assertEquals(List.of(0, 1, 2, 4), list);
+        Assertions.assertEquals(0, list.tombstoneCount());
+    }
+
+    @Test
+    public void testShrinkClearsTombstoneWords() {
+        TombstoneCappedList<Integer> list = new TombstoneCappedList<>(300, 1.0);
+        IntStream.range(0, 300).forEach(list::add);
+        Iterator<Integer> iterator = list.iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next() % 2 == 1) {
+                iterator.remove();
+            }
+        }
+        Assertions.assertEquals(149, list.tombstoneCount());
+        list.shrink(10);
+        Assertions.assertEquals(9, list.tombstoneCount());
+        Assertions.assertEquals(IntStream.range(0, 10).map(i -> 2 * i).boxed().toList(), list);
+        list.add(300);
+        Assertions.assertEquals(300, list.getLast());
+        list.shrink(0);
+        Assertions.assertEquals(0, list.tombstoneCount());
+    }
+
+    @Test
+    public void testMatchesArrayList() {
+        Random random = new Random(3);
+        TombstoneCappedList<Integer> list = new TombstoneCappedList<>(128);
+        List<Integer> expected = new ArrayList<>();
+        for (int i = 0; i < 5_000; i++) {
+            int operation = random.nextInt(10);
+            if (operation < 4 && expected.size() < 128) {
+                list.add(i);
+                expected.add(i);
+            } else if (operation < 5 && expected.size() < 128) {
+                int index = random.nextInt(expected.size() + 1);
+                list.add(index, i);
+                expected.add(index, i);
+            } else if (operation < 8 && !expected.isEmpty()) {
+                int index = random.nextInt(expected.size());
+                Assertions.assertEquals(expected.remove(index), list.remove(index));
+            } else if (operation < 9 && !expected.isEmpty()) {
+                int newSize = random.nextInt(expected.size());
+                list.shrink(newSize);
+                expected.subList(newSize, expected.size()).clear();
+            } else {
+                int divisor = 2 + random.nextInt(5);
+                Assertions.assertEquals(expected.removeIf(e -> e % divisor == 0), list.removeIf(e -> e % divisor == 0));
+            }
+            Assertions.assertEquals(expected, list);
+        }
+    }
+}
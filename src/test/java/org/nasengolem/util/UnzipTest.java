@@ -0,0 +1,64 @@
+package org.nasengolem.util;
+
+import org.jooq.lambda.tuple.Tuple2;
+import org.jooq.lambda.tuple.Tuple3;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.nasengolem.util.datastructures.CappedList;
+import org.nasengolem.util.zip.Unzip;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+public class UnzipTest {
+
+    @Test
+    public void testSequentialCollector() {
+        Tuple2<CappedList<Integer>, CappedList<String>> columns = IntStream.range(0, 100)
+                .mapToObj(i -> new Tuple2<>(i, "#" + i))
+                .collect(Unzip.toCappedLists(150));
+        Assertions.assertEquals(150, columns.v1.capacity());
+        Assertions.assertEquals(150, columns.v2.capacity());
+        Assertions.assertEquals(IntStream.range(0, 100).boxed().toList(), columns.v1);
+        Assertions.assertEquals("#99", columns.v2.getLast());
+    }
+
+    @Test
+    public void testParallelCollector() {
+        Tuple3<CappedList<Integer>, CappedList<Integer>, CappedList<Integer>> columns = IntStream.range(0, 10_000)
+                .parallel()
+                .boxed()
+                .collect(Unzip.toCappedLists(10_000, i -> i, i -> -i, i -> i % 7));
+        Assertions.assertEquals(10_000, columns.v1.capacity());
+        Assertions.assertEquals(IntStream.range(0, 10_000).boxed().toList(), columns.v1);
+        Assertions.assertEquals(-9_999, columns.v2.getLast());
+        Assertions.assertEquals(9_999 % 7, columns.v3.getLast());
+    }
+
+    @Test
+    public void testCapacityOverflow() {
+        Assertions.assertThrows(IllegalStateException.class, () -> IntStream.range(0, 11)
+                .mapToObj(i -> new Tuple2<>(i, i))
+                .collect(Unzip.toCappedLists(10)));
+        Assertions.assertThrows(IllegalStateException.class, () -> IntStream.range(0, 10_000)
+                .parallel()
+                .boxed()
+                .collect(Unzip.toDoubleArrays(9_999, i -> i)));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> Unzip.toCappedLists(-1));
+    }
+
+    @Test
+    public void testToDoubleArrays() {
+        double[][] columns = IntStream.range(0, 1_000)
+                .parallel()
+                .boxed()
+                .collect(Unzip.toDoubleArrays(2_000, i -> i, i -> i * 0.5));
+        Assertions.assertEquals(2, columns.length);
+        Assertions.assertEquals(1_000, columns[0].length);
+        Assertions.assertEquals(999.0, columns[0][999]);
+        Assertions.assertEquals(499.5, columns[1][999]);
+
+        double[][] exact = List.of(1, 2, 3).stream().collect(Unzip.toDoubleArrays(3, i -> i));
+        Assertions.assertArrayEquals(new double[]{1.0, 2.0, 3.0}, exact[0]);
+    }
+}
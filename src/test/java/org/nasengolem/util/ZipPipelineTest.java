@@ -0,0 +1,109 @@
+package org.nasengolem.util;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.nasengolem.util.zip.Zip2;
+import org.nasengolem.util.zip.Zip3;
+
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+public class ZipPipelineTest {
+
+    private final List<Integer> numbers = IntStream.range(0, 10).boxed().toList();
+    private final List<String> names = IntStream.range(0, 8).mapToObj(i -> "n" + i).toList();
+
+    @Test
+    public void testFilterAndMap() {
+        List<String> result = new Zip2<>(numbers, names)
+            .filter((number, name) -> number % 2 == 0)
+            .map((number, name) -> name + "=" + number)
+            .toList();
+        Assertions.assertEquals(List.of("n0=0", "n2=2", "n4=4", "n6=6"), result);
+    }
+
+    @Test
+    public void testSkipAndLimitOnRandomAccessAndSequentialInputs() {
+        List<Integer> expected = List.of(3, 4, 5);
+        Assertions.assertEquals(expected, new Zip2<>(numbers, names).pipeline()
+            .skip(3)
+            .limit(3)
+            .map((number, name) -> number)
+            .toList());
+        Assertions.assertEquals(expected, new Zip2<>(new LinkedList<>(numbers), names).pipeline()
+            .skip(3)
+            .limit(3)
+            .map((number, name) -> number)
+            .toList());
+        Assertions.assertEquals(0, new Zip2<>(numbers, names).pipeline().skip(100).map((a, b) -> a).count());
+        Assertions.assertEquals(0, new Zip2<>(numbers, names).pipeline().limit(0).map((a, b) -> a).count());
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new Zip2<>(numbers, names).pipeline().skip(-1));
+    }
+
+    @Test
+    public void testStageOrderIsRespected() {
+        List<Integer> filterThenLimit = new Zip2<>(new LinkedList<>(numbers), names)
+            .filter((number, name) -> number % 3 == 0)
+            .limit(2)
+            .map((number, name) -> number)
+            .toList();
+        Assertions.assertEquals(List.of(0, 3), filterThenLimit);
+
+        List<Integer> limitThenFilter = new Zip2<>(numbers, names).pipeline()
+            .limit(5)
+            .filter((number, name) -> number % 3 == 0)
+            .map((number, name) -> number)
+            .toList();
+        Assertions.assertEquals(List.of(0, 3), limitThenFilter);
+
+        List<Integer> filterThenSkip = new Zip2<>(numbers, names)
+            .filter((number, name) -> number % 2 == 1)
+            .skip(2)
+            .map((number, name) -> number)
+            .toList();
+        Assertions.assertEquals(List.of(5, 7), filterThenSkip);
+    }
+
+    @Test
+    public void testPipelineContinuesPartiallyConsumedZip() {
+        Zip2<Integer, String, List<Integer>, List<String>> zip = new Zip2<>(numbers, names);
+        zip.next();
+        zip.next();
+        Assertions.assertEquals(List.of("n2", "n3"), zip.pipeline().limit(2).map((number, name) -> name).toList());
+    }
+
+    @Test
+    public void testTerminalOperations() {
+        double sum = new Zip2<>(numbers, names).pipeline()
+            .mapToDouble((number, name) -> number * 0.5)
+            .sum();
+        Assertions.assertEquals(14.0, sum);
+
+        int total = new Zip2<>(numbers, names).pipeline()
+            .reduce(0, (acc, number, name) -> acc + number + name.length());
+        Assertions.assertEquals(28 + 16, total);
+
+        List<String> collected = new Zip2<>(numbers, names).pipeline()
+            .skip(6)
+            .collect(ArrayList::new, (list, number, name) -> list.add(name));
+        Assertions.assertEquals(List.of("n6", "n7"), collected);
+    }
+
+    @Test
+    public void testZip3Pipeline() {
+        String result = new Zip3<>(numbers, names, new LinkedList<>(numbers))
+            .filter((a, b, c) -> a + c > 4)
+            .limit(3)
+            .map((a, b, c) -> b)
+            .collect(Collectors.joining(","));
+        Assertions.assertEquals("n3,n4,n5", result);
+
+        int sum = new Zip3<>(numbers, numbers, numbers).pipeline()
+            .skip(8)
+            .reduce(0, (acc, a, b, c) -> acc + a + b + c);
+        Assertions.assertEquals(3 * (8 + 9), sum);
+    }
+}
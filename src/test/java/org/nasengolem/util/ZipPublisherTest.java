@@ -0,0 +1,216 @@
+package org.nasengolem.util;
+
+import org.jooq.lambda.tuple.Tuple2;
+import org.jooq.lambda.tuple.Tuple3;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.nasengolem.util.zip.ZipPublisher;
+import org.nasengolem.util.zip.ZipPublisher2;
+import org.nasengolem.util.zip.ZipPublisher3;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Flow;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class ZipPublisherTest {
+
+    /**
+     * Subscriber that requests items in batches and collects them.
+     */
+    private static final class CollectingSubscriber<T> implements Flow.Subscriber<T> {
+        private final List<T> items = new ArrayList<>();
+        private final CompletableFuture<List<T>> result = new CompletableFuture<>();
+        private final int batch;
+        private Flow.Subscription subscription;
+        private int received;
+
+        private CollectingSubscriber(int batch) {
+            this.batch = batch;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            subscription.request(batch);
+        }
+
+        @Override
+        public void onNext(T item) {
+            items.add(item);
+            if (++received == batch) {
+                received = 0;
+                subscription.request(batch);
+            }
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            result.completeExceptionally(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            result.complete(items);
+        }
+    }
+
+    /**
+     * Publisher of the numbers from 0 up to the given limit, that records the requested items and cancellation.
+     */
+    private static final class RangePublisher implements Flow.Publisher<Integer> {
+        private final int limit;
+        private final AtomicLong requested = new AtomicLong();
+        private final AtomicBoolean cancelled = new AtomicBoolean();
+
+        private RangePublisher(int limit) {
+            this.limit = limit;
+        }
+
+        @Override
+        public void subscribe(Flow.Subscriber<? super Integer> subscriber) {
+            subscriber.onSubscribe(new Flow.Subscription() {
+                private int next;
+
+                @Override
+                public void request(long n) {
+                    requested.addAndGet(n);
+                    for (long i = 0; i < n && next < limit && !cancelled.get(); i++) {
+                        subscriber.onNext(next++);
+                    }
+                    if (next == limit && !cancelled.get()) {
+                        subscriber.onComplete();
+                    }
+                }
+
+                @Override
+                public void cancel() {
+                    cancelled.set(true);
+                }
+            });
+        }
+    }
+
+    @Test
+    public void testZipSubmissionPublishers() throws Exception {
+        SubmissionPublisher<Integer> numbers = new SubmissionPublisher<>();
+        try (SubmissionPublisher<String> names = new SubmissionPublisher<>()) {
+            CollectingSubscriber<Tuple2<Integer, String>> subscriber = new CollectingSubscriber<>(7);
+            new ZipPublisher2<>(numbers, names, 16).subscribe(subscriber);
+            Thread producer = Thread.ofVirtual().start(() -> {
+                for (int i = 0; i < 1_000; i++) {
+                    names.submit("n" + i);
+                }
+            });
+            for (int i = 0; i < 1_000; i++) {
+                numbers.submit(i);
+            }
+            producer.join();
+            numbers.close();
+            List<Tuple2<Integer, String>> tuples = subscriber.result.get(10, TimeUnit.SECONDS);
+            Assertions.assertEquals(1_000, tuples.size());
+            for (int i = 0; i < tuples.size(); i++) {
+                Assertions.assertEquals(new Tuple2<>(i, "n" + i), tuples.get(i));
+            }
+        }
+    }
+
+    @Test
+    public void testShortestSourceCompletesAndCancelsOthers() throws Exception {
+        RangePublisher shortRange = new RangePublisher(10);
+        RangePublisher longRange = new RangePublisher(1_000_000);
+        RangePublisher otherRange = new RangePublisher(1_000_000);
+        CollectingSubscriber<Tuple3<Integer, Integer, Integer>> subscriber = new CollectingSubscriber<>(3);
+        new ZipPublisher3<>(shortRange, longRange, otherRange, 8).subscribe(subscriber);
+        List<Tuple3<Integer, Integer, Integer>> tuples = subscriber.result.get(10, TimeUnit.SECONDS);
+        Assertions.assertEquals(10, tuples.size());
+        Assertions.assertEquals(new Tuple3<>(9, 9, 9), tuples.getLast());
+        Assertions.assertTrue(longRange.cancelled.get());
+        Assertions.assertTrue(otherRange.cancelled.get());
+        Assertions.assertTrue(longRange.requested.get() <= 16, "A source must not run ahead without bound.");
+    }
+
+    @Test
+    public void testSourceErrorFailsZipAndCancelsOthers() {
+        IllegalStateException failure = new IllegalStateException("source failed");
+        RangePublisher range = new RangePublisher(1_000_000);
+        Flow.Publisher<String> failing = subscriber -> subscriber.onSubscribe(new Flow.Subscription() {
+            @Override
+            public void request(long n) {
+                subscriber.onError(failure);
+            }
+
+            @Override
+            public void cancel() {
+            }
+        });
+        CollectingSubscriber<Tuple2<Integer, String>> subscriber = new CollectingSubscriber<>(4);
+        new ZipPublisher2<>(range, failing, 8).subscribe(subscriber);
+        ExecutionException exception = Assertions.assertThrows(ExecutionException.class,
+            () -> subscriber.result.get(10, TimeUnit.SECONDS));
+        Assertions.assertSame(failure, exception.getCause());
+        Assertions.assertTrue(range.cancelled.get());
+    }
+
+    @Test
+    public void testCancelCancelsAllSources() {
+        RangePublisher range1 = new RangePublisher(1_000_000);
+        RangePublisher range2 = new RangePublisher(1_000_000);
+        RangePublisher range3 = new RangePublisher(1_000_000);
+        List<Tuple3<Integer, Integer, Integer>> tuples = new ArrayList<>();
+        new ZipPublisher3<>(range1, range2, range3, 8).subscribe(new Flow.Subscriber<>() {
+            private Flow.Subscription subscription;
+
+            @Override
+            public void onSubscribe(Flow.Subscription subscription) {
+                this.subscription = subscription;
+                subscription.request(Long.MAX_VALUE);
+            }
+
+            @Override
+            public void onNext(Tuple3<Integer, Integer, Integer> item) {
+                tuples.add(item);
+                if (tuples.size() == 5) {
+                    subscription.cancel();
+                }
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                Assertions.fail(throwable);
+            }
+
+            @Override
+            public void onComplete() {
+                Assertions.fail("A cancelled zip must not complete.");
+            }
+        });
+        Assertions.assertEquals(new Tuple3<>(4, 4, 4), tuples.get(4));
+        Assertions.assertEquals(5, tuples.size());
+        Assertions.assertTrue(range1.cancelled.get());
+        Assertions.assertTrue(range2.cancelled.get());
+        Assertions.assertTrue(range3.cancelled.get());
+    }
+
+    @Test
+    public void testZipAnyNumberOfPublishers() throws Exception {
+        List<RangePublisher> ranges = List.of(new RangePublisher(20), new RangePublisher(1_000_000),
+            new RangePublisher(1_000_000), new RangePublisher(1_000_000), new RangePublisher(1_000_000));
+        CollectingSubscriber<List<Object>> subscriber = new CollectingSubscriber<>(3);
+        new ZipPublisher(ranges, 8).subscribe(subscriber);
+        List<List<Object>> lists = subscriber.result.get(10, TimeUnit.SECONDS);
+        Assertions.assertEquals(20, lists.size());
+        Assertions.assertEquals(List.of(7, 7, 7, 7, 7), lists.get(7));
+        Assertions.assertThrows(UnsupportedOperationException.class, () -> lists.getFirst().set(0, 1));
+        for (RangePublisher range : ranges.subList(1, ranges.size())) {
+            Assertions.assertTrue(range.cancelled.get());
+        }
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new ZipPublisher(List.of()));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new ZipPublisher(ranges, 0));
+    }
+}